@@ -15,6 +15,47 @@ const docTemplate = `{
     "host": "{{.Host}}",
     "basePath": "{{.BasePath}}",
     "paths": {
+        "/api/customers": {
+            "get": {
+                "description": "Get Customer data for a comma separated list of IDs. Unknown IDs are omitted from the response.",
+                "consumes": [
+                    "application/json"
+                ],
+                "produces": [
+                    "application/json"
+                ],
+                "tags": [
+                    "Customers"
+                ],
+                "summary": "Get Customers by IDs",
+                "parameters": [
+                    {
+                        "type": "string",
+                        "description": "Comma separated Customer IDs",
+                        "name": "ids",
+                        "in": "query",
+                        "required": true
+                    }
+                ],
+                "responses": {
+                    "200": {
+                        "description": "OK",
+                        "schema": {
+                            "type": "array",
+                            "items": {
+                                "$ref": "#/definitions/model.Customer"
+                            }
+                        }
+                    },
+                    "400": {
+                        "description": "Bad Request",
+                        "schema": {
+                            "$ref": "#/definitions/model.ErrorResponse"
+                        }
+                    }
+                }
+            }
+        },
         "/api/customers/{id}": {
             "get": {
                 "description": "Get Customer data by Customer ID",
@@ -53,6 +94,55 @@ const docTemplate = `{
                 }
             }
         },
+        "/api/products": {
+            "get": {
+                "description": "Get Product data for a comma separated list of IDs. Unknown IDs are omitted from the response. Without ids the whole catalog is returned with an ETag; send it back in If-None-Match to get 304 while the catalog is unchanged.",
+                "consumes": [
+                    "application/json"
+                ],
+                "produces": [
+                    "application/json"
+                ],
+                "tags": [
+                    "Products"
+                ],
+                "summary": "Get Products by IDs, or the full catalog",
+                "parameters": [
+                    {
+                        "type": "string",
+                        "description": "Comma separated Product IDs",
+                        "name": "ids",
+                        "in": "query"
+                    },
+                    {
+                        "type": "string",
+                        "description": "ETag of a previously fetched catalog",
+                        "name": "If-None-Match",
+                        "in": "header"
+                    }
+                ],
+                "responses": {
+                    "200": {
+                        "description": "OK",
+                        "schema": {
+                            "type": "array",
+                            "items": {
+                                "$ref": "#/definitions/model.Product"
+                            }
+                        }
+                    },
+                    "304": {
+                        "description": "Catalog unchanged"
+                    },
+                    "400": {
+                        "description": "Bad Request",
+                        "schema": {
+                            "$ref": "#/definitions/model.ErrorResponse"
+                        }
+                    }
+                }
+            }
+        },
         "/api/products/{id}": {
             "get": {
                 "description": "Get Product data by ID",
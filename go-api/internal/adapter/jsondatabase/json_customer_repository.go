@@ -22,3 +22,7 @@ func (r *JSONCustomerRepository) GetByID(id string) (*model.Customer, error) {
 
 	return customer, nil
 }
+
+func (r *JSONCustomerRepository) GetByIDs(ids []string) ([]model.Customer, error) {
+	return utils.FindByIDsFromJSON[model.Customer](r.filePath, ids)
+}
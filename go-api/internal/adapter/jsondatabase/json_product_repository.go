@@ -22,3 +22,11 @@ func (r *JSONProductRepository) GetByID(id string) (*model.Product, error) {
 
 	return product, nil
 }
+
+func (r *JSONProductRepository) GetByIDs(ids []string) ([]model.Product, error) {
+	return utils.FindByIDsFromJSON[model.Product](r.filePath, ids)
+}
+
+func (r *JSONProductRepository) GetAll() ([]model.Product, error) {
+	return utils.ReadAllFromJSON[model.Product](r.filePath)
+}
@@ -41,3 +41,64 @@ func TestGetByID_ReturnsProduct(t *testing.T) {
 		t.Errorf("expected %+v, got %+v", expected, result)
 	}
 }
+
+func TestGetByIDs_ReturnsOnlyKnownProducts(t *testing.T) {
+	tmpFile, err := os.CreateTemp("", "products_*.json")
+	if err != nil {
+		t.Fatalf("failed to create temp file: %v", err)
+	}
+	defer os.Remove(tmpFile.Name())
+
+	products := []model.Product{
+		{ID: "1", Name: "Laptop", Price: 1500},
+		{ID: "2", Name: "Mouse", Price: 25.99},
+		{ID: "3", Name: "Keyboard", Price: 79.99},
+	}
+
+	if err := json.NewEncoder(tmpFile).Encode(products); err != nil {
+		t.Fatalf("failed to write json: %v", err)
+	}
+
+	tmpFile.Close()
+
+	repo := NewJSONProductRepository(tmpFile.Name())
+
+	result, err := repo.GetByIDs([]string{"3", "1", "missing"})
+	if err != nil {
+		t.Fatalf("unexpected error: %v", err)
+	}
+
+	if len(result) != 2 || result[0].ID != "1" || result[1].ID != "3" {
+		t.Errorf("expected products 1 and 3, got %+v", result)
+	}
+}
+
+func TestGetAll_ReturnsProductsInFileOrder(t *testing.T) {
+	tmpFile, err := os.CreateTemp("", "products_*.json")
+	if err != nil {
+		t.Fatalf("failed to create temp file: %v", err)
+	}
+	defer os.Remove(tmpFile.Name())
+
+	products := []model.Product{
+		{ID: "1", Name: "Laptop", Price: 1500},
+		{ID: "2", Name: "Mouse", Price: 25.99},
+	}
+
+	if err := json.NewEncoder(tmpFile).Encode(products); err != nil {
+		t.Fatalf("failed to write json: %v", err)
+	}
+
+	tmpFile.Close()
+
+	repo := NewJSONProductRepository(tmpFile.Name())
+
+	result, err := repo.GetAll()
+	if err != nil {
+		t.Fatalf("unexpected error: %v", err)
+	}
+
+	if len(result) != 2 || result[0].ID != "1" || result[1].ID != "2" {
+		t.Errorf("expected products 1 and 2, got %+v", result)
+	}
+}
@@ -35,3 +35,29 @@ func (h *CustomerHandler) GetCustomer(c *gin.Context) {
 
 	c.JSON(http.StatusOK, customer)
 }
+
+// GetCustomers godoc
+// @Summary Get Customers by IDs
+// @Description Get Customer data for a comma separated list of IDs. Unknown IDs are omitted from the response.
+// @Tags Customers
+// @Accept  json
+// @Produce  json
+// @Param   ids  query   string  true  "Comma separated Customer IDs"
+// @Success 200  {array}  model.Customer
+// @Failure 400  {object} model.ErrorResponse
+// @Router /api/customers [get]
+func (h *CustomerHandler) GetCustomers(c *gin.Context) {
+	ids := parseIDs(c.Query("ids"))
+	if len(ids) == 0 {
+		c.JSON(http.StatusBadRequest, model.ErrorResponse{Message: "ids query parameter is required"})
+		return
+	}
+
+	customers, err := h.service.GetCustomers(ids)
+	if err != nil {
+		c.JSON(http.StatusInternalServerError, model.ErrorResponse{Message: err.Error()})
+		return
+	}
+
+	c.JSON(http.StatusOK, customers)
+}
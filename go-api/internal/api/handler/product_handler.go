@@ -1,6 +1,7 @@
 package handler
 
 import (
+	"encoding/json"
 	services "go-api/internal/application/services"
 	"go-api/internal/domain/model"
 	"net/http"
@@ -35,3 +36,60 @@ func (h *ProductHandler) GetProduct(c *gin.Context) {
 
 	c.JSON(http.StatusOK, product)
 }
+
+// GetProducts godoc
+// @Summary Get Products by IDs, or the full catalog
+// @Description Get Product data for a comma separated list of IDs. Unknown IDs are omitted from the response. Without ids the whole catalog is returned with an ETag; send it back in If-None-Match to get 304 while the catalog is unchanged.
+// @Tags Products
+// @Accept  json
+// @Produce  json
+// @Param   ids            query   string  false  "Comma separated Product IDs"
+// @Param   If-None-Match  header  string  false  "ETag of a previously fetched catalog"
+// @Success 200  {array}  model.Product
+// @Success 304  "Catalog unchanged"
+// @Failure 400  {object} model.ErrorResponse
+// @Router /api/products [get]
+func (h *ProductHandler) GetProducts(c *gin.Context) {
+	raw, present := c.GetQuery("ids")
+	if !present {
+		h.listProducts(c)
+		return
+	}
+
+	ids := parseIDs(raw)
+	if len(ids) == 0 {
+		c.JSON(http.StatusBadRequest, model.ErrorResponse{Message: "ids query parameter must not be empty"})
+		return
+	}
+
+	products, err := h.service.GetProducts(ids)
+	if err != nil {
+		c.JSON(http.StatusInternalServerError, model.ErrorResponse{Message: err.Error()})
+		return
+	}
+
+	c.JSON(http.StatusOK, products)
+}
+
+func (h *ProductHandler) listProducts(c *gin.Context) {
+	products, err := h.service.ListProducts()
+	if err != nil {
+		c.JSON(http.StatusInternalServerError, model.ErrorResponse{Message: err.Error()})
+		return
+	}
+
+	body, err := json.Marshal(products)
+	if err != nil {
+		c.JSON(http.StatusInternalServerError, model.ErrorResponse{Message: err.Error()})
+		return
+	}
+
+	tag := etagOf(body)
+	c.Header("ETag", tag)
+	if c.GetHeader("If-None-Match") == tag {
+		c.Status(http.StatusNotModified)
+		return
+	}
+
+	c.Data(http.StatusOK, "application/json; charset=utf-8", body)
+}
@@ -12,9 +12,11 @@ func SetUpRouter(customerHandler *handler.CustomerHandler, productHandler *handl
 	router := gin.Default()
 
 	// Clients
+	router.GET("/api/customers", customerHandler.GetCustomers)
 	router.GET("/api/customers/:id", customerHandler.GetCustomer)
 
 	// Products
+	router.GET("/api/products", productHandler.GetProducts)
 	router.GET("/api/products/:id", productHandler.GetProduct)
 
 	// Docs
@@ -16,3 +16,7 @@ func NewCustomerService(repo port.CustomerRepository) *CustomerService {
 func (cs *CustomerService) GetCustomer(id string) (*model.Customer, error) {
 	return cs.repo.GetByID(id)
 }
+
+func (cs *CustomerService) GetCustomers(ids []string) ([]model.Customer, error) {
+	return cs.repo.GetByIDs(ids)
+}
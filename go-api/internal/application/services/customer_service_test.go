@@ -22,6 +22,15 @@ func (m *MockCustomerRepository) GetByID(id string) (*model.Customer, error) {
 	return customer.(*model.Customer), args.Error(1)
 }
 
+func (m *MockCustomerRepository) GetByIDs(ids []string) ([]model.Customer, error) {
+	args := m.Called(ids)
+	customers := args.Get(0)
+	if customers == nil {
+		return nil, args.Error(1)
+	}
+	return customers.([]model.Customer), args.Error(1)
+}
+
 func TestCustomerService_GetCustomer(t *testing.T) {
 	mockRepo := new(MockCustomerRepository)
 	service := NewCustomerService(mockRepo)
@@ -41,3 +50,23 @@ func TestCustomerService_GetCustomer(t *testing.T) {
 	assert.Equal(t, expectedCustomer, result)
 	mockRepo.AssertExpectations(t)
 }
+
+func TestCustomerService_GetCustomers(t *testing.T) {
+	mockRepo := new(MockCustomerRepository)
+	service := NewCustomerService(mockRepo)
+
+	expectedCustomers := []model.Customer{
+		{ID: "123", Name: "Alice"},
+		{ID: "456", Name: "Bob"},
+	}
+
+	mockRepo.
+		On("GetByIDs", []string{"123", "456"}).
+		Return(expectedCustomers, nil)
+
+	result, err := service.GetCustomers([]string{"123", "456"})
+
+	assert.NoError(t, err)
+	assert.Equal(t, expectedCustomers, result)
+	mockRepo.AssertExpectations(t)
+}
@@ -16,3 +16,11 @@ func NewProductService(repo port.ProductRepository) *ProductService {
 func (ps *ProductService) GetProduct(id string) (*model.Product, error) {
 	return ps.repo.GetByID(id)
 }
+
+func (ps *ProductService) GetProducts(ids []string) ([]model.Product, error) {
+	return ps.repo.GetByIDs(ids)
+}
+
+func (ps *ProductService) ListProducts() ([]model.Product, error) {
+	return ps.repo.GetAll()
+}
@@ -23,6 +23,22 @@ func (m *MockProductRepository) GetByID(id string) (*model.Product, error) {
 	return nil, args.Error(1)
 }
 
+func (m *MockProductRepository) GetByIDs(ids []string) ([]model.Product, error) {
+	args := m.Called(ids)
+	if products, ok := args.Get(0).([]model.Product); ok {
+		return products, args.Error(1)
+	}
+	return nil, args.Error(1)
+}
+
+func (m *MockProductRepository) GetAll() ([]model.Product, error) {
+	args := m.Called()
+	if products, ok := args.Get(0).([]model.Product); ok {
+		return products, args.Error(1)
+	}
+	return nil, args.Error(1)
+}
+
 func TestGetProduct_Success(t *testing.T) {
 	mockRepo := new(MockProductRepository)
 	service := services.NewProductService(mockRepo)
@@ -54,3 +70,39 @@ func TestGetProduct_NotFound(t *testing.T) {
 	assert.EqualError(t, err, "not found")
 	mockRepo.AssertExpectations(t)
 }
+
+func TestGetProducts_Success(t *testing.T) {
+	mockRepo := new(MockProductRepository)
+	service := services.NewProductService(mockRepo)
+
+	expectedProducts := []model.Product{
+		{ID: "1", Name: "Laptop", Price: 1500},
+		{ID: "2", Name: "Mouse", Price: 25.99},
+	}
+
+	mockRepo.On("GetByIDs", []string{"1", "2"}).Return(expectedProducts, nil)
+
+	products, err := service.GetProducts([]string{"1", "2"})
+
+	assert.NoError(t, err)
+	assert.Equal(t, expectedProducts, products)
+	mockRepo.AssertExpectations(t)
+}
+
+func TestListProducts_Success(t *testing.T) {
+	mockRepo := new(MockProductRepository)
+	service := services.NewProductService(mockRepo)
+
+	expectedProducts := []model.Product{
+		{ID: "1", Name: "Laptop", Price: 1500},
+		{ID: "2", Name: "Mouse", Price: 25.99},
+	}
+
+	mockRepo.On("GetAll").Return(expectedProducts, nil)
+
+	products, err := service.ListProducts()
+
+	assert.NoError(t, err)
+	assert.Equal(t, expectedProducts, products)
+	mockRepo.AssertExpectations(t)
+}
@@ -4,4 +4,5 @@ import "go-api/internal/domain/model"
 
 type CustomerRepository interface {
 	GetByID(id string) (*model.Customer, error)
+	GetByIDs(ids []string) ([]model.Customer, error)
 }
@@ -4,4 +4,6 @@ import "go-api/internal/domain/model"
 
 type ProductRepository interface {
 	GetByID(id string) (*model.Product, error)
+	GetByIDs(ids []string) ([]model.Product, error)
+	GetAll() ([]model.Product, error)
 }
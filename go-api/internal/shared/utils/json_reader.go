@@ -7,6 +7,54 @@ import (
 )
 
 func FindByIDFromJSON[T any](filePath string, targetID string) (*T, error) {
+	list, err := readJSONList[T](filePath)
+	if err != nil {
+		return nil, err
+	}
+
+	for _, item := range list {
+		if id, ok := idOf(item); ok && id == targetID {
+			copy := item
+			return &copy, nil
+		}
+	}
+
+	return nil, nil
+}
+
+// FindByIDsFromJSON returns the items whose ID is in targetIDs, in file order.
+// IDs that are not present are skipped.
+func FindByIDsFromJSON[T any](filePath string, targetIDs []string) ([]T, error) {
+	list, err := readJSONList[T](filePath)
+	if err != nil {
+		return nil, err
+	}
+
+	wanted := make(map[string]struct{}, len(targetIDs))
+	for _, id := range targetIDs {
+		wanted[id] = struct{}{}
+	}
+
+	result := make([]T, 0, len(targetIDs))
+	for _, item := range list {
+		id, ok := idOf(item)
+		if !ok {
+			continue
+		}
+		if _, found := wanted[id]; found {
+			result = append(result, item)
+		}
+	}
+
+	return result, nil
+}
+
+// ReadAllFromJSON returns every item in the file, in file order.
+func ReadAllFromJSON[T any](filePath string) ([]T, error) {
+	return readJSONList[T](filePath)
+}
+
+func readJSONList[T any](filePath string) ([]T, error) {
 	file, err := os.Open(filePath)
 	if err != nil {
 		return nil, err
@@ -18,26 +66,23 @@ func FindByIDFromJSON[T any](filePath string, targetID string) (*T, error) {
 		return nil, err
 	}
 
-	for _, item := range list {
-		v := reflect.ValueOf(item)
+	return list, nil
+}
 
-		if v.Kind() == reflect.Ptr {
-			v = v.Elem()
-		}
+func idOf(item any) (string, bool) {
+	v := reflect.ValueOf(item)
 
-		field := v.FieldByName("ID")
-		if !field.IsValid() {
-			field = v.FieldByName("Id")
-		}
-		if !field.IsValid() || field.Kind() != reflect.String {
-			continue
-		}
+	if v.Kind() == reflect.Ptr {
+		v = v.Elem()
+	}
 
-		if field.String() == targetID {
-			copy := item
-			return &copy, nil
-		}
+	field := v.FieldByName("ID")
+	if !field.IsValid() {
+		field = v.FieldByName("Id")
+	}
+	if !field.IsValid() || field.Kind() != reflect.String {
+		return "", false
 	}
 
-	return nil, nil
+	return field.String(), true
 }
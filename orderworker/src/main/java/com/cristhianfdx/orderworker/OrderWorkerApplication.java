@@ -2,9 +2,12 @@ package com.cristhianfdx.orderworker;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
 import org.springframework.kafka.annotation.EnableKafka;
 
-@SpringBootApplication
+// The blocking Mongo client is only needed by the virtual-thread engine; BlockingEngineConfig creates it.
+@SpringBootApplication(exclude = {MongoAutoConfiguration.class, MongoDataAutoConfiguration.class})
 @EnableKafka
 public class OrderWorkerApplication {
 
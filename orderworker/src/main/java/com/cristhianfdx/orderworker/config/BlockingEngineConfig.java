@@ -0,0 +1,90 @@
+package com.cristhianfdx.orderworker.config;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.mongo.MongoConnectionDetails;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * Beans for the virtual-thread engine ({@code app.ingestion.mode=blocking}): a blocking HTTP
+ * client for go-api, a blocking Mongo client and template next to the reactive ones, and a
+ * batch listener container whose consumer runs on a virtual thread.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.ingestion.mode", havingValue = "blocking")
+public class BlockingEngineConfig {
+
+    public static final String LISTENER_CONTAINER_FACTORY = "blockingKafkaListenerContainerFactory";
+
+    @Bean
+    public RestClient enrichmentRestClient(ExternalAPIProperties externalAPIProperties) {
+        ExternalAPIProperties.Http http = externalAPIProperties.getHttp();
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(http.getConnectTimeoutMs()))
+                .version("http1".equals(http.getProtocol()) ? HttpClient.Version.HTTP_1_1 : HttpClient.Version.HTTP_2)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(http.getResponseTimeoutMs()));
+
+        return RestClient.builder()
+                .requestFactory(requestFactory)
+                .build();
+    }
+
+    /** Same server and database as the reactive client, from the same connection details. */
+    @Bean(destroyMethod = "close")
+    public MongoClient blockingMongoClient(MongoConnectionDetails connectionDetails) {
+        return MongoClients.create(connectionDetails.getConnectionString());
+    }
+
+    @Bean
+    public MongoDatabaseFactory blockingMongoDatabaseFactory(MongoClient blockingMongoClient,
+                                                             MongoProperties mongoProperties,
+                                                             MongoConnectionDetails connectionDetails) {
+        String database = mongoProperties.getDatabase() != null
+                ? mongoProperties.getDatabase()
+                : connectionDetails.getConnectionString().getDatabase();
+        return new SimpleMongoClientDatabaseFactory(blockingMongoClient, database);
+    }
+
+    /** Shares the reactive mapping converter, so both clients read and write the same document format. */
+    @Bean
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory blockingMongoDatabaseFactory,
+                                       MappingMongoConverter mappingMongoConverter) {
+        return new MongoTemplate(blockingMongoDatabaseFactory, mappingMongoConverter);
+    }
+
+    @Bean(LISTENER_CONTAINER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> blockingKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+
+        SimpleAsyncTaskExecutor listenerExecutor = new SimpleAsyncTaskExecutor("order-listener-");
+        listenerExecutor.setVirtualThreads(true);
+        factory.getContainerProperties().setListenerTaskExecutor(listenerExecutor);
+        return factory;
+    }
+}
@@ -0,0 +1,42 @@
+package com.cristhianfdx.orderworker.config;
+
+import com.cristhianfdx.orderworker.dto.CustomerDTO;
+import com.cristhianfdx.orderworker.dto.ProductDTO;
+import com.cristhianfdx.orderworker.provider.EnrichmentCache;
+import com.cristhianfdx.orderworker.provider.EnrichmentClient;
+import com.cristhianfdx.orderworker.provider.SharedEnrichmentCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+
+@Configuration
+public class EnrichmentCacheConfig {
+
+    @Bean
+    public EnrichmentCache<CustomerDTO> customerCache(EnrichmentCacheProperties properties, MeterRegistry meterRegistry) {
+        return EnrichmentCache.create("enrichment.customers", properties.getCustomer(), meterRegistry);
+    }
+
+    @Bean
+    public EnrichmentCache<ProductDTO> productCache(EnrichmentCacheProperties properties, MeterRegistry meterRegistry) {
+        return EnrichmentCache.create("enrichment.products", properties.getProduct(), meterRegistry);
+    }
+
+    @Bean
+    public SharedEnrichmentCache<CustomerDTO> customerSharedCache(EnrichmentCacheProperties properties,
+                                                                  ReactiveRedisTemplate<String, String> redisTemplate,
+                                                                  ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return SharedEnrichmentCache.create(EnrichmentClient.CUSTOMER_API, CustomerDTO.class, properties.getShared(),
+                redisTemplate, objectMapper, meterRegistry);
+    }
+
+    @Bean
+    public SharedEnrichmentCache<ProductDTO> productSharedCache(EnrichmentCacheProperties properties,
+                                                                ReactiveRedisTemplate<String, String> redisTemplate,
+                                                                ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return SharedEnrichmentCache.create(EnrichmentClient.PRODUCT_API, ProductDTO.class, properties.getShared(),
+                redisTemplate, objectMapper, meterRegistry);
+    }
+}
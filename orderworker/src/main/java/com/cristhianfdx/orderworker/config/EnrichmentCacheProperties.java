@@ -0,0 +1,33 @@
+package com.cristhianfdx.orderworker.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.cache")
+public class EnrichmentCacheProperties {
+    private CacheSpec customer = new CacheSpec();
+    private CacheSpec product = new CacheSpec();
+    private Shared shared = new Shared();
+
+    @Data
+    public static class CacheSpec {
+        private boolean enabled = true;
+        private long maxSize = 10_000;
+        private long ttlMs = 300_000;
+    }
+
+    /** Redis (L2) tier shared by all worker nodes, consulted on a local (L1) miss. */
+    @Data
+    public static class Shared {
+        private boolean enabled = true;
+        private String keyPrefix = "enrichment:";
+        /** Outlives the L1 TTL so a node's L1 refill usually finds the entry here. */
+        private long ttlMs = 600_000;
+        /** Budget for each Redis round trip; past it the lookup goes to go-api as if it missed. */
+        private long timeoutMs = 100;
+        private String invalidationChannel = "enrichment:invalidate";
+    }
+}
@@ -0,0 +1,67 @@
+package com.cristhianfdx.orderworker.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.enrichment")
+public class EnrichmentProperties {
+    private Batch batch = new Batch();
+    private Limiter limiter = new Limiter();
+    private Hedge hedge = new Hedge();
+    private Catalog catalog = new Catalog();
+
+    @Data
+    public static class Batch {
+        private BatchSpec customer = new BatchSpec();
+        private BatchSpec product = new BatchSpec();
+    }
+
+    @Data
+    public static class BatchSpec {
+        private boolean enabled = true;
+        private int maxSize = 100;
+        private long windowMs = 5;
+        private int maxConcurrentBatches = 16;
+    }
+
+    @Data
+    public static class Limiter {
+        private boolean enabled = true;
+        private int initialLimit = 32;
+        private int minLimit = 4;
+        /** Keep at or below the go-api bulkhead's max-concurrent-calls, which rejects instead of waiting. */
+        private int maxLimit = 128;
+        /** Multiplicative decrease applied when a call fails or exceeds the latency threshold. */
+        private double backoffRatio = 0.9;
+        private long latencyThresholdMs = 500;
+        private int maxQueueSize = 1000;
+        private long maxQueueWaitMs = 1000;
+    }
+
+    @Data
+    public static class Hedge {
+        private boolean enabled = false;
+        /** Latency percentile of product lookups after which a duplicate request is sent. */
+        private double percentile = 0.95;
+        /** Delay used until enough lookups have been observed to derive the percentile. */
+        private long initialDelayMs = 50;
+        private long minDelayMs = 5;
+        private long maxDelayMs = 1000;
+        private long minSamples = 100;
+        /** Hedges allowed as a percentage of product lookups. */
+        private double budgetPercent = 5;
+        private int maxBurst = 10;
+    }
+
+    @Data
+    public static class Catalog {
+        private boolean enabled = true;
+        /** How long startup waits for the first snapshot before the listeners start cold. */
+        private long warmUpTimeoutMs = 30000;
+        private long refreshIntervalMs = 60000;
+        private long requestTimeoutMs = 10000;
+    }
+}
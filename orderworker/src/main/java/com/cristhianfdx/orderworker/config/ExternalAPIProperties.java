@@ -10,4 +10,27 @@ import org.springframework.stereotype.Component;
 public class ExternalAPIProperties {
     private String customer;
     private String product;
+    private Http http = new Http();
+
+    @Data
+    public static class Http {
+        /** http1, h2c (cleartext HTTP/2 with HTTP/1.1 fallback) or h2 (HTTP/2 over TLS). */
+        private String protocol = "http1";
+        private long connectTimeoutMs = 1000;
+        private long responseTimeoutMs = 2000;
+        private long bulkResponseTimeoutMs = 5000;
+        private boolean keepAlive = true;
+        private boolean metricsEnabled = true;
+        private Pool pool = new Pool();
+    }
+
+    @Data
+    public static class Pool {
+        private int maxConnections = 200;
+        private int pendingAcquireMaxCount = 1000;
+        private long pendingAcquireTimeoutMs = 2000;
+        private long maxIdleTimeMs = 30000;
+        private long maxLifeTimeMs = 300000;
+        private long evictInBackgroundMs = 30000;
+    }
 }
@@ -0,0 +1,48 @@
+package com.cristhianfdx.orderworker.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.ingestion")
+public class IngestionProperties {
+    /**
+     * listener: spring-kafka @KafkaListener (default).
+     * reactive: reactor-kafka receiver with bounded in-flight orders.
+     * blocking: batch listener on virtual threads with blocking HTTP, Mongo and Redis calls.
+     */
+    private String mode = "listener";
+    private String topic = "orders";
+    private int maxInFlight = 256;
+    private long commitIntervalMs = 1000;
+    private int commitBatchSize = 100;
+    /** How long a rebalance or shutdown waits for in-flight orders of revoked partitions (listener mode). */
+    private long drainTimeoutMs = 10000;
+    private Autoscale autoscale = new Autoscale();
+
+    /**
+     * Listener mode only. Starts from {@code spring.kafka.listener.concurrency} and
+     * {@code max-in-flight} and moves both within these bounds as consumer-group lag and
+     * order latency change.
+     */
+    @Data
+    public static class Autoscale {
+        private boolean enabled = false;
+        private long intervalMs = 15000;
+        /** Minimum time between two changes; every concurrency change costs a rebalance. */
+        private long cooldownMs = 60000;
+        private int minConcurrency = 1;
+        private int maxConcurrency = 6;
+        private int minInFlight = 64;
+        private int maxInFlight = 1024;
+        /** Lag, in records, above which the listener scales up. */
+        private long scaleUpLag = 5000;
+        /** Lag, in records, below which the listener scales down. */
+        private long scaleDownLag = 500;
+        /** Mean order processing time above which go-api or Mongo is the bottleneck and in-flight orders are cut. */
+        private long maxLatencyMs = 1000;
+        private long adminTimeoutMs = 5000;
+    }
+}
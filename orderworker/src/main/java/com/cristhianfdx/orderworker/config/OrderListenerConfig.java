@@ -0,0 +1,39 @@
+package com.cristhianfdx.orderworker.config;
+
+import com.cristhianfdx.orderworker.kafka.OffsetTracker;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+/**
+ * Listener container for the default ingestion mode. Offsets are acknowledged manually by
+ * {@link OffsetTracker} once orders finish, instead of by the container as soon as the
+ * listener returns. Fetch sizes ({@code spring.kafka.consumer.max-poll-records},
+ * {@code fetch-min-size}, {@code fetch-max-wait}) and the starting concurrency
+ * ({@code spring.kafka.listener.concurrency}) come from Boot's properties through the
+ * configurer; {@link com.cristhianfdx.orderworker.kafka.ListenerAutoscaler} may change the
+ * concurrency later.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.ingestion.mode", havingValue = "listener", matchIfMissing = true)
+public class OrderListenerConfig {
+
+    public static final String LISTENER_CONTAINER_FACTORY = "orderKafkaListenerContainerFactory";
+
+    @Bean(LISTENER_CONTAINER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> orderKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            OffsetTracker offsetTracker) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        // Acks arrive from processing threads; MANUAL queues them for the consumer thread to commit.
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setConsumerRebalanceListener(offsetTracker);
+        return factory;
+    }
+}
@@ -0,0 +1,28 @@
+package com.cristhianfdx.orderworker.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.persistence")
+public class PersistenceProperties {
+    private Bulk bulk = new Bulk();
+    private Migration migration = new Migration();
+
+    @Data
+    public static class Bulk {
+        private boolean enabled = true;
+        private int batchSize = 200;
+        private long lingerMs = 10;
+        private int maxConcurrentFlushes = 4;
+        private long shutdownTimeoutMs = 5000;
+    }
+
+    @Data
+    public static class Migration {
+        private boolean enabled = true;
+        private long timeoutMs = 300000;
+    }
+}
@@ -0,0 +1,45 @@
+package com.cristhianfdx.orderworker.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.processing")
+public class ProcessingProperties {
+    /**
+     * local: orders are serialized per orderId on in-process lanes; cross-node safety
+     * comes from Kafka partition ownership.
+     * redis: legacy distributed lock per orderId.
+     */
+    private String lockMode = "local";
+    private int lanes = 256;
+    private Dedup dedup = new Dedup();
+
+    public boolean isRedisLock() {
+        return "redis".equalsIgnoreCase(lockMode);
+    }
+
+    @Data
+    public static class Dedup {
+        private boolean enabled = true;
+        /**
+         * local: bit array held by this worker and rebuilt by each one at startup.
+         * redis: one bitmap shared by every worker, rebuilt only by the first one to start.
+         */
+        private String store = "local";
+        private long expectedInsertions = 5_000_000;
+        private double falsePositiveRate = 0.01;
+        private boolean rebuildOnStartup = true;
+        /** How long startup waits for the rebuild; past that it carries on in the background. */
+        private long rebuildTimeoutMs = 60000;
+        private int rebuildBatchSize = 1000;
+        private String redisKey = "dedup:orders";
+        private long redisTimeoutMs = 100;
+
+        public boolean isRedisStore() {
+            return "redis".equalsIgnoreCase(store);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.cristhianfdx.orderworker.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.MicrometerConsumerListener;
+import reactor.kafka.receiver.ReceiverOptions;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(name = "app.ingestion.mode", havingValue = "reactive")
+public class ReactiveKafkaConfig {
+
+    @Bean
+    public KafkaReceiver<String, byte[]> orderReceiver(KafkaProperties kafkaProperties,
+                                                       IngestionProperties ingestionProperties,
+                                                       MeterRegistry meterRegistry) {
+        Map<String, Object> props = kafkaProperties.buildConsumerProperties(null);
+
+        // maxDeferredCommits lets orders finish out of order while only the
+        // contiguous prefix of acknowledged offsets gets committed; it also
+        // pauses polling once that many records are waiting on a gap.
+        ReceiverOptions<String, byte[]> options = ReceiverOptions.<String, byte[]>create(props)
+                .subscription(List.of(ingestionProperties.getTopic()))
+                .commitInterval(Duration.ofMillis(ingestionProperties.getCommitIntervalMs()))
+                .commitBatchSize(ingestionProperties.getCommitBatchSize())
+                .maxDeferredCommits(ingestionProperties.getMaxInFlight())
+                // Publishes the client's fetch metrics, including records-lag, like the listener containers do.
+                .consumerListener(new MicrometerConsumerListener(meterRegistry));
+
+        return KafkaReceiver.create(options);
+    }
+}
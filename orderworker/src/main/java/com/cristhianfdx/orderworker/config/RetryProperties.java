@@ -1,14 +1,63 @@
 package com.cristhianfdx.orderworker.config;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Data
 @Configuration
 @ConfigurationProperties(prefix = "app.retry")
 public class RetryProperties {
+    /**
+     * redis: failures are recorded in Redis and re-driven by the retry scheduler (default).
+     * topics: failures are republished to tiered delay topics and finally a dead-letter topic.
+     */
+    private String mode = "redis";
     private int maxAttempts;
     private long initialIntervalMs;
     private double multiplier;
+    private long failureTtlMs;
+    private Scheduler scheduler = new Scheduler();
+    private Topics topics = new Topics();
+
+    public boolean isTopicMode() {
+        return "topics".equalsIgnoreCase(mode);
+    }
+
+    @Data
+    public static class Scheduler {
+        private boolean enabled = true;
+        private long pollIntervalMs = 1000;
+        private int batchSize = 50;
+        private int concurrency = 8;
+        private long leaseMs = 60_000;
+    }
+
+    @Data
+    public static class Topics {
+        private String groupId = "order-retry-group";
+        private String dltTopic = "orders-dlt";
+        /** Consumer threads per tier; each replays one record at a time, so this bounds a tier's in-flight orders. */
+        private int concurrency = 3;
+        /** Partitions of the tier and dead-letter topics when they are created; at least the concurrency. */
+        private int partitions = 3;
+        private short replicas = 1;
+        private List<Tier> tiers = new ArrayList<>(List.of(
+                new Tier("orders-retry-5s", 5_000),
+                new Tier("orders-retry-1m", 60_000)
+        ));
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Tier {
+        private String topic;
+        private long delayMs;
+    }
 }
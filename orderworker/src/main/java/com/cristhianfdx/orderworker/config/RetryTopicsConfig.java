@@ -0,0 +1,39 @@
+package com.cristhianfdx.orderworker.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the retry tier and dead-letter topics at startup with {@code app.retry.mode=topics},
+ * so the first failure does not depend on broker auto-creation and its default partition
+ * count. Existing topics are left as they are.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.retry.mode", havingValue = "topics")
+public class RetryTopicsConfig {
+
+    @Bean
+    public KafkaAdmin.NewTopics retryTopics(RetryProperties retryProperties) {
+        RetryProperties.Topics topics = retryProperties.getTopics();
+        List<NewTopic> newTopics = new ArrayList<>();
+        for (RetryProperties.Tier tier : topics.getTiers()) {
+            newTopics.add(topic(tier.getTopic(), topics));
+        }
+        newTopics.add(topic(topics.getDltTopic(), topics));
+        return new KafkaAdmin.NewTopics(newTopics.toArray(NewTopic[]::new));
+    }
+
+    private static NewTopic topic(String name, RetryProperties.Topics topics) {
+        return TopicBuilder.name(name)
+                .partitions(topics.getPartitions())
+                .replicas(topics.getReplicas())
+                .build();
+    }
+}
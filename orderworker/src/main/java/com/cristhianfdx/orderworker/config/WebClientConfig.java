@@ -0,0 +1,88 @@
+package com.cristhianfdx.orderworker.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Configuration
+public class WebClientConfig {
+
+    static final String CONNECTION_PROVIDER_NAME = "enrichment";
+
+    /**
+     * Reactor Netty keeps a separate pool per remote address under one provider, so every
+     * upstream host gets its own bounded pool and metrics tagged with its address.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider enrichmentConnectionProvider(ExternalAPIProperties externalAPIProperties) {
+        ExternalAPIProperties.Http http = externalAPIProperties.getHttp();
+        ExternalAPIProperties.Pool pool = http.getPool();
+
+        return ConnectionProvider.builder(CONNECTION_PROVIDER_NAME)
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(Duration.ofMillis(pool.getPendingAcquireTimeoutMs()))
+                .maxIdleTime(Duration.ofMillis(pool.getMaxIdleTimeMs()))
+                .maxLifeTime(Duration.ofMillis(pool.getMaxLifeTimeMs()))
+                .evictInBackground(Duration.ofMillis(pool.getEvictInBackgroundMs()))
+                .metrics(http.isMetricsEnabled())
+                .build();
+    }
+
+    @Bean
+    public WebClient webClient(ConnectionProvider enrichmentConnectionProvider,
+                               ExternalAPIProperties externalAPIProperties) {
+        ExternalAPIProperties.Http http = externalAPIProperties.getHttp();
+
+        HttpClient httpClient = HttpClient.create(enrichmentConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) http.getConnectTimeoutMs())
+                .option(ChannelOption.SO_KEEPALIVE, http.isKeepAlive())
+                .keepAlive(http.isKeepAlive())
+                .responseTimeout(Duration.ofMillis(http.getResponseTimeoutMs()))
+                .metrics(http.isMetricsEnabled(), uriTagValue(externalAPIProperties));
+
+        httpClient = switch (http.getProtocol()) {
+            case "h2c" -> httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+            case "h2" -> httpClient.secure().protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+            case "http1" -> httpClient.protocol(HttpProtocol.HTTP11);
+            default -> throw new IllegalArgumentException("Unsupported external.api.http.protocol: " + http.getProtocol());
+        };
+
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    /**
+     * Collapses {@code /api/products/{id}} paths to their template so the client metrics
+     * stay at one series per endpoint instead of one per id.
+     */
+    static Function<String, String> uriTagValue(ExternalAPIProperties externalAPIProperties) {
+        Set<String> basePaths = Stream.of(externalAPIProperties.getCustomer(), externalAPIProperties.getProduct())
+                .filter(url -> url != null)
+                .map(url -> UriComponentsBuilder.fromUriString(url).build().getPath())
+                .collect(Collectors.toUnmodifiableSet());
+
+        return uri -> {
+            int query = uri.indexOf('?');
+            String path = query < 0 ? uri : uri.substring(0, query);
+            if (basePaths.contains(path)) {
+                return path;
+            }
+            int slash = path.lastIndexOf('/');
+            return slash > 0 && basePaths.contains(path.substring(0, slash)) ? path.substring(0, slash) + "/{id}" : path;
+        };
+    }
+}
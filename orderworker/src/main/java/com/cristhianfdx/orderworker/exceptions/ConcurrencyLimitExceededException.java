@@ -0,0 +1,7 @@
+package com.cristhianfdx.orderworker.exceptions;
+
+public class ConcurrencyLimitExceededException extends RuntimeException {
+    public ConcurrencyLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,80 @@
+package com.cristhianfdx.orderworker.kafka;
+
+import com.cristhianfdx.orderworker.config.BlockingEngineConfig;
+import com.cristhianfdx.orderworker.dto.OrderMessageDTO;
+import com.cristhianfdx.orderworker.metrics.PipelineMetrics;
+import com.cristhianfdx.orderworker.service.BlockingOrderProcessor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Ingestion for the virtual-thread engine. Each polled batch is processed with one virtual
+ * thread per orderId, so orders run concurrently while repeats of the same order stay in
+ * sequence. The listener returns only when the whole batch is done, so the container commits
+ * offsets strictly after processing and {@code max.poll.records} bounds the concurrency.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.ingestion.mode", havingValue = "blocking")
+public class BlockingOrderConsumer {
+
+    private final OrderMessageReader orderMessageReader;
+    private final BlockingOrderProcessor blockingOrderProcessor;
+    private final PipelineMetrics pipelineMetrics;
+
+    @KafkaListener(topics = "${app.ingestion.topic}", groupId = "order-processor-group",
+            containerFactory = BlockingEngineConfig.LISTENER_CONTAINER_FACTORY)
+    public void consume(List<ConsumerRecord<String, byte[]>> records) {
+        Map<String, List<OrderMessageDTO>> byOrderId = new LinkedHashMap<>();
+        for (ConsumerRecord<String, byte[]> record : records) {
+            OrderMessageDTO message = parse(record);
+            if (message != null) {
+                byOrderId.computeIfAbsent(message.getOrderId(), id -> new ArrayList<>()).add(message);
+            }
+        }
+
+        try (ExecutorService batch = Executors.newVirtualThreadPerTaskExecutor()) {
+            byOrderId.values().forEach(messages -> batch.execute(() -> messages.forEach(this::process)));
+        }
+    }
+
+    private OrderMessageDTO parse(ConsumerRecord<String, byte[]> record) {
+        try {
+            return pipelineMetrics.timeBlocking("parse", () -> read(record));
+        } catch (UncheckedIOException e) {
+            log.error("Failed to process Kafka message at offset {}: {}", record.offset(),
+                    OrderMessageReader.describe(record.value(), record.headers()), e);
+            return null;
+        }
+    }
+
+    private OrderMessageDTO read(ConsumerRecord<String, byte[]> record) {
+        try {
+            return orderMessageReader.read(record.value(), record.headers());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void process(OrderMessageDTO message) {
+        try {
+            blockingOrderProcessor.processOrder(message);
+        } catch (RuntimeException e) {
+            log.error("Failed to process order {}: {}", message.getOrderId(), e.getMessage(), e);
+        }
+    }
+}
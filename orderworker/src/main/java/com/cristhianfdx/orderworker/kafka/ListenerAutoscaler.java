@@ -0,0 +1,273 @@
+package com.cristhianfdx.orderworker.kafka;
+
+import com.cristhianfdx.orderworker.config.IngestionProperties;
+import com.cristhianfdx.orderworker.metrics.PipelineMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Resizes the order listener at runtime. Every {@code app.ingestion.autoscale.interval-ms}
+ * it reads the consumer group's lag on the orders topic and the mean time orders spent in
+ * the {@code process} stage since the last check, then:
+ * <ul>
+ *   <li>with latency above {@code max-latency-ms}, halves the in-flight limit, since go-api
+ *   or Mongo is the bottleneck and more consumers would only queue more work on it;</li>
+ *   <li>with lag above {@code scale-up-lag}, adds a consumer (never more than the topic has
+ *   partitions) and doubles the in-flight limit;</li>
+ *   <li>with lag below {@code scale-down-lag}, removes a consumer and halves the limit.</li>
+ * </ul>
+ * Both stay within the configured bounds, and nothing changes again before
+ * {@code cooldown-ms} has passed. Changing concurrency restarts the container, so its
+ * partitions are rebalanced and {@link OffsetTracker} drains in-flight orders first.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.ingestion.mode", havingValue = "listener", matchIfMissing = true)
+public class ListenerAutoscaler implements SmartLifecycle {
+
+    public static final String LAG_GAUGE = "order.ingestion.lag";
+    public static final String CONCURRENCY_GAUGE = "order.ingestion.concurrency";
+    public static final String MAX_IN_FLIGHT_GAUGE = "order.ingestion.max.in.flight";
+    public static final String SCALE_COUNTER = "order.ingestion.autoscale";
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final KafkaAdmin kafkaAdmin;
+    private final OrderConsumer orderConsumer;
+    private final MeterRegistry meterRegistry;
+    private final String topic;
+    private final IngestionProperties.Autoscale properties;
+    private final Counter scaledUp;
+    private final Counter scaledDown;
+    private final AtomicLong lag = new AtomicLong(-1);
+
+    private volatile Disposable subscription;
+    private volatile AdminClient adminClient;
+    /** Set while the container restarts with a new concurrency; no decision is taken meanwhile. */
+    private volatile boolean resizing;
+    private long lastScaledAt;
+    private long lastProcessCount;
+    private double lastProcessMillis;
+
+    public ListenerAutoscaler(KafkaListenerEndpointRegistry registry, KafkaAdmin kafkaAdmin,
+                              OrderConsumer orderConsumer, IngestionProperties ingestionProperties,
+                              MeterRegistry meterRegistry) {
+        this.registry = registry;
+        this.kafkaAdmin = kafkaAdmin;
+        this.orderConsumer = orderConsumer;
+        this.meterRegistry = meterRegistry;
+        this.topic = ingestionProperties.getTopic();
+        this.properties = ingestionProperties.getAutoscale();
+        this.lastScaledAt = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(properties.getCooldownMs());
+        this.scaledUp = scaleCounter(meterRegistry, "up");
+        this.scaledDown = scaleCounter(meterRegistry, "down");
+        Gauge.builder(LAG_GAUGE, lag, AtomicLong::get)
+                .description("Records on the orders topic not yet committed by the consumer group, -1 until known")
+                .baseUnit("records")
+                .register(meterRegistry);
+        Gauge.builder(CONCURRENCY_GAUGE, this, autoscaler -> autoscaler.currentConcurrency())
+                .description("Consumer threads of the order listener")
+                .register(meterRegistry);
+        Gauge.builder(MAX_IN_FLIGHT_GAUGE, orderConsumer, OrderConsumer::getMaxInFlight)
+                .description("Orders the listener lets run at once")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled() || isRunning()) {
+            return;
+        }
+        adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+        subscription = Flux.interval(Duration.ofMillis(properties.getIntervalMs()))
+                .onBackpressureDrop()
+                .concatMap(tick -> evaluate(), 0)
+                .subscribe();
+        log.info("Listener autoscaler started: {}-{} consumers, {}-{} in-flight orders, checking every {} ms",
+                properties.getMinConcurrency(), properties.getMaxConcurrency(),
+                properties.getMinInFlight(), properties.getMaxInFlight(), properties.getIntervalMs());
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = subscription;
+        if (current != null) {
+            current.dispose();
+        }
+        subscription = null;
+        AdminClient client = adminClient;
+        if (client != null) {
+            client.close(Duration.ofMillis(properties.getAdminTimeoutMs()));
+        }
+        adminClient = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return subscription != null && !subscription.isDisposed();
+    }
+
+    Mono<Void> evaluate() {
+        return consumerGroupLag()
+                .doOnNext(groupLag -> {
+                    lag.set(groupLag.records());
+                    apply(groupLag, recentProcessLatencyMs());
+                })
+                .onErrorResume(e -> {
+                    log.warn("Listener autoscaler could not read the consumer group lag: {}", e.toString());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Target concurrency and in-flight limit for the observed lag and latency; the current
+     * values when nothing needs to change.
+     */
+    Target decide(long lag, int partitions, double latencyMs, int concurrency, int maxInFlight) {
+        if (latencyMs > properties.getMaxLatencyMs()) {
+            return new Target(concurrency, Math.max(properties.getMinInFlight(), maxInFlight / 2));
+        }
+        if (lag > properties.getScaleUpLag()) {
+            int ceiling = Math.max(properties.getMinConcurrency(), Math.min(properties.getMaxConcurrency(), partitions));
+            return new Target(Math.min(ceiling, concurrency + 1), Math.min(properties.getMaxInFlight(), maxInFlight * 2));
+        }
+        if (lag < properties.getScaleDownLag()) {
+            return new Target(Math.max(properties.getMinConcurrency(), concurrency - 1),
+                    Math.max(properties.getMinInFlight(), maxInFlight / 2));
+        }
+        return new Target(concurrency, maxInFlight);
+    }
+
+    private void apply(GroupLag groupLag, double latencyMs) {
+        ConcurrentMessageListenerContainer<?, ?> container = container();
+        // A container stopped by someone else keeps its concurrency until it is started again.
+        if (container == null || resizing || !container.isRunning()) {
+            return;
+        }
+        if (System.nanoTime() - lastScaledAt < TimeUnit.MILLISECONDS.toNanos(properties.getCooldownMs())) {
+            return;
+        }
+        int concurrency = container.getConcurrency();
+        int maxInFlight = orderConsumer.getMaxInFlight();
+        Target target = decide(groupLag.records(), groupLag.partitions(), latencyMs, concurrency, maxInFlight);
+        if (target.concurrency() == concurrency && target.maxInFlight() == maxInFlight) {
+            return;
+        }
+        log.info("Scaling order listener from {} to {} consumers and {} to {} in-flight orders (lag {}, process latency {} ms)",
+                concurrency, target.concurrency(), maxInFlight, target.maxInFlight(),
+                groupLag.records(), Math.round(latencyMs));
+        orderConsumer.setMaxInFlight(target.maxInFlight());
+        if (target.concurrency() != concurrency) {
+            resize(container, target.concurrency());
+        }
+        boolean up = target.concurrency() > concurrency || target.maxInFlight() > maxInFlight;
+        (up ? scaledUp : scaledDown).increment();
+        lastScaledAt = System.nanoTime();
+    }
+
+    private void resize(ConcurrentMessageListenerContainer<?, ?> container, int concurrency) {
+        resizing = true;
+        // Concurrency can only change on a stopped container; the stop revokes its partitions,
+        // which drains in-flight orders and commits their offsets before the restart.
+        container.stop(() -> {
+            try {
+                container.setConcurrency(concurrency);
+                container.start();
+            } finally {
+                resizing = false;
+            }
+        });
+    }
+
+    private Mono<GroupLag> consumerGroupLag() {
+        AdminClient client = adminClient;
+        return Mono.fromCompletionStage(client.describeTopics(List.of(topic)).allTopicNames().toCompletionStage())
+                .map(topics -> topics.get(topic).partitions().stream()
+                        .map(partition -> new TopicPartition(topic, partition.partition()))
+                        .toList())
+                .flatMap(partitions -> Mono.zip(
+                        Mono.fromCompletionStage(client.listConsumerGroupOffsets(OrderConsumer.GROUP_ID)
+                                .partitionsToOffsetAndMetadata().toCompletionStage()),
+                        Mono.fromCompletionStage(client.listOffsets(partitions.stream()
+                                        .collect(Collectors.toMap(Function.identity(), partition -> OffsetSpec.latest())))
+                                .all().toCompletionStage()))
+                        .map(offsets -> new GroupLag(lag(partitions, offsets.getT1(), offsets.getT2()), partitions.size())))
+                .timeout(Duration.ofMillis(properties.getAdminTimeoutMs()));
+    }
+
+    /** A partition the group never committed on counts in full, as it is read from the start. */
+    private static long lag(List<TopicPartition> partitions, Map<TopicPartition, OffsetAndMetadata> committed,
+                            Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> latest) {
+        long total = 0;
+        for (TopicPartition partition : partitions) {
+            long end = latest.get(partition).offset();
+            OffsetAndMetadata offset = committed.get(partition);
+            total += offset == null ? end : Math.max(0, end - offset.offset());
+        }
+        return total;
+    }
+
+    /** Mean time of the orders that finished the process stage since the previous call. */
+    private double recentProcessLatencyMs() {
+        long count = 0;
+        double millis = 0;
+        for (Timer timer : meterRegistry.find(PipelineMetrics.STAGE_TIMER).tag("stage", "process").timers()) {
+            count += timer.count();
+            millis += timer.totalTime(TimeUnit.MILLISECONDS);
+        }
+        long finished = count - lastProcessCount;
+        double elapsed = millis - lastProcessMillis;
+        lastProcessCount = count;
+        lastProcessMillis = millis;
+        return finished > 0 ? elapsed / finished : 0;
+    }
+
+    private int currentConcurrency() {
+        ConcurrentMessageListenerContainer<?, ?> container = container();
+        return container == null ? 0 : container.getConcurrency();
+    }
+
+    private ConcurrentMessageListenerContainer<?, ?> container() {
+        MessageListenerContainer container = registry.getListenerContainer(OrderConsumer.LISTENER_ID);
+        return container instanceof ConcurrentMessageListenerContainer<?, ?> concurrent ? concurrent : null;
+    }
+
+    private static Counter scaleCounter(MeterRegistry meterRegistry, String direction) {
+        return Counter.builder(SCALE_COUNTER)
+                .description("Changes of the order listener's concurrency or in-flight limit")
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+
+    record Target(int concurrency, int maxInFlight) {
+    }
+
+    private record GroupLag(long records, int partitions) {
+    }
+}
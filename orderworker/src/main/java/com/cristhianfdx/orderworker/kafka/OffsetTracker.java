@@ -0,0 +1,156 @@
+package com.cristhianfdx.orderworker.kafka;
+
+import com.cristhianfdx.orderworker.config.IngestionProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lets {@link OrderConsumer} finish orders in any order while committing offsets in order.
+ * Every record is tracked when it is handed off and completed when its order is done;
+ * a partition's offset is only acknowledged up to the last record before the oldest one
+ * still in flight, so a crash or rebalance redelivers unfinished orders (at-least-once)
+ * instead of skipping them.
+ * <p>
+ * As the container's rebalance listener it also waits, up to
+ * {@code app.ingestion.drain-timeout-ms}, for in-flight orders of revoked partitions to
+ * finish before the container commits, which also covers shutdown since the consumer
+ * revokes its partitions when it leaves the group.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.ingestion.mode", havingValue = "listener", matchIfMissing = true)
+public class OffsetTracker implements ConsumerAwareRebalanceListener {
+
+    public static final String PENDING_GAUGE = "order.ingestion.offsets.pending";
+
+    private final Map<TopicPartition, PartitionOffsets> partitions = new ConcurrentHashMap<>();
+    private final Duration drainTimeout;
+
+    public OffsetTracker(IngestionProperties ingestionProperties, MeterRegistry meterRegistry) {
+        this.drainTimeout = Duration.ofMillis(ingestionProperties.getDrainTimeoutMs());
+        Gauge.builder(PENDING_GAUGE, this, OffsetTracker::pending)
+                .description("Records handed to processing whose offsets are not yet committable")
+                .register(meterRegistry);
+    }
+
+    /** Called on the consumer thread, in offset order, before the record is processed. */
+    public void track(ConsumerRecord<?, ?> record, Acknowledgment acknowledgment) {
+        partitions.computeIfAbsent(new TopicPartition(record.topic(), record.partition()), tp -> new PartitionOffsets())
+                .track(record.offset(), acknowledgment);
+    }
+
+    /** Called from any thread once the record's order has finished, successfully or not. */
+    public void complete(ConsumerRecord<?, ?> record) {
+        PartitionOffsets offsets = partitions.get(new TopicPartition(record.topic(), record.partition()));
+        if (offsets != null) {
+            offsets.complete(record.offset());
+        }
+    }
+
+    public int pending() {
+        int pending = 0;
+        for (PartitionOffsets offsets : partitions.values()) {
+            pending += offsets.pending();
+        }
+        return pending;
+    }
+
+    /** Waits until the given partitions have nothing in flight; false if the timeout ran out first. */
+    public boolean awaitDrained(Collection<TopicPartition> topicPartitions, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (TopicPartition topicPartition : topicPartitions) {
+            PartitionOffsets offsets = partitions.get(topicPartition);
+            if (offsets != null && !offsets.awaitDrained(deadline)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> revoked) {
+        try {
+            if (!awaitDrained(revoked, drainTimeout)) {
+                log.warn("Partitions {} still had orders in flight after {} ms; they will be redelivered",
+                        revoked, drainTimeout.toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> revoked) {
+        // Late completions for these partitions must not acknowledge on behalf of the next owner.
+        revoked.forEach(partitions::remove);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> lost) {
+        lost.forEach(partitions::remove);
+    }
+
+    private static final class PartitionOffsets {
+
+        /** Tracked offsets not yet acknowledged, mapped to their record's acknowledgment. */
+        private final NavigableMap<Long, Acknowledgment> pending = new TreeMap<>();
+        /** Completed offsets still waiting behind an older in-flight one. */
+        private final Set<Long> completed = new HashSet<>();
+
+        synchronized void track(long offset, Acknowledgment acknowledgment) {
+            pending.put(offset, acknowledgment);
+        }
+
+        synchronized void complete(long offset) {
+            if (!pending.containsKey(offset)) {
+                return;
+            }
+            completed.add(offset);
+            Acknowledgment highest = null;
+            // Offsets are not contiguous (compaction, transaction markers), so advance over
+            // the tracked offsets rather than offset + 1.
+            while (!pending.isEmpty() && completed.remove(pending.firstKey())) {
+                highest = pending.pollFirstEntry().getValue();
+            }
+            if (highest != null) {
+                // Acknowledging under the lock keeps the acks of one partition in offset order.
+                highest.acknowledge();
+            }
+            if (pending.isEmpty()) {
+                notifyAll();
+            }
+        }
+
+        synchronized int pending() {
+            return pending.size();
+        }
+
+        synchronized boolean awaitDrained(long deadlineNanos) throws InterruptedException {
+            while (!pending.isEmpty()) {
+                long remaining = deadlineNanos - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                wait(Math.max(1, remaining / 1_000_000));
+            }
+            return true;
+        }
+    }
+}
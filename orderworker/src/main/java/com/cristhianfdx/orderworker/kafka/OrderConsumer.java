@@ -1,30 +1,97 @@
 package com.cristhianfdx.orderworker.kafka;
 
-import com.cristhianfdx.orderworker.dto.OrderMessageDTO;
+import com.cristhianfdx.orderworker.config.IngestionProperties;
+import com.cristhianfdx.orderworker.config.OrderListenerConfig;
+import com.cristhianfdx.orderworker.metrics.PipelineMetrics;
 import com.cristhianfdx.orderworker.service.OrderProcessorService;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
+import java.util.concurrent.Semaphore;
+
+/**
+ * Hands each record to {@link OrderProcessorService} and returns without waiting, so orders
+ * of a partition are processed concurrently. At most {@code app.ingestion.max-in-flight}
+ * orders run at once; past that the consumer thread blocks, which stops polling. Offsets
+ * are committed through {@link OffsetTracker} only once every earlier order has finished.
+ * {@link ListenerAutoscaler} may resize that limit at runtime.
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.ingestion.mode", havingValue = "listener", matchIfMissing = true)
 public class OrderConsumer {
-    private final ObjectMapper objectMapper;
+
+    public static final String LISTENER_ID = "orders";
+    public static final String GROUP_ID = "order-processor-group";
+
+    private final OrderMessageReader orderMessageReader;
     private final OrderProcessorService orderProcessorService;
+    private final PipelineMetrics pipelineMetrics;
+    private final OffsetTracker offsetTracker;
+    private final InFlightLimit inFlight;
+    private int maxInFlight;
 
-    @KafkaListener(topics = "orders", groupId = "order-processor-group")
-    public void consume(String message) {
-        log.info("Kafka message received: {}", message);
+    public OrderConsumer(OrderMessageReader orderMessageReader, OrderProcessorService orderProcessorService,
+                         PipelineMetrics pipelineMetrics, OffsetTracker offsetTracker,
+                         IngestionProperties ingestionProperties) {
+        this.orderMessageReader = orderMessageReader;
+        this.orderProcessorService = orderProcessorService;
+        this.pipelineMetrics = pipelineMetrics;
+        this.offsetTracker = offsetTracker;
+        this.maxInFlight = ingestionProperties.getMaxInFlight();
+        this.inFlight = new InFlightLimit(maxInFlight);
+    }
 
-        Mono.fromCallable(() -> objectMapper.readValue(message, OrderMessageDTO.class))
+    @KafkaListener(id = LISTENER_ID, topics = "${app.ingestion.topic}", groupId = GROUP_ID,
+            containerFactory = OrderListenerConfig.LISTENER_CONTAINER_FACTORY)
+    public void consume(ConsumerRecord<String, byte[]> record, Acknowledgment acknowledgment) throws InterruptedException {
+        inFlight.acquire();
+        offsetTracker.track(record, acknowledgment);
+        // Failures complete too: processOrder records them for retry, and an unreadable payload
+        // would only fail again if it were redelivered.
+        pipelineMetrics.time("parse", Mono.fromCallable(() -> orderMessageReader.read(record.value(), record.headers())))
                 .flatMap(orderProcessorService::processOrder)
+                .doFinally(signal -> {
+                    offsetTracker.complete(record);
+                    inFlight.release();
+                })
                 .subscribe(
-                        unused -> log.info("Order processed successfully"),
-                        error -> log.error("Failed to process Kafka message: {}", message, error)
+                        null,
+                        error -> log.error("Failed to process Kafka message: {}",
+                                OrderMessageReader.describe(record.value(), record.headers()), error)
                 );
     }
+
+    public synchronized int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /** Takes effect at once when raised; when lowered, as the orders above the new limit finish. */
+    public synchronized void setMaxInFlight(int maxInFlight) {
+        int delta = maxInFlight - this.maxInFlight;
+        if (delta > 0) {
+            inFlight.release(delta);
+        } else if (delta < 0) {
+            inFlight.reducePermits(-delta);
+        }
+        this.maxInFlight = maxInFlight;
+    }
+
+    /** Exposes {@link Semaphore#reducePermits}, which may leave permits negative until orders finish. */
+    private static final class InFlightLimit extends Semaphore {
+
+        InFlightLimit(int permits) {
+            super(permits);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
 }
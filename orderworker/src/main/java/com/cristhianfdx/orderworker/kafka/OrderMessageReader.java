@@ -0,0 +1,100 @@
+package com.cristhianfdx.orderworker.kafka;
+
+import com.cristhianfdx.orderworker.avro.OrderMessage;
+import com.cristhianfdx.orderworker.dto.OrderMessageDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.avro.message.BinaryMessageDecoder;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.stereotype.Component;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes raw Kafka record values straight from bytes with an {@link ObjectReader} built
+ * once for {@link OrderMessageDTO}, skipping the intermediate String and the per-call
+ * type lookup of {@link ObjectMapper#readValue(String, Class)}.
+ * <p>
+ * Producers may instead send {@link OrderMessage} in Avro single-object encoding and mark
+ * the record with {@code content-type: application/avro}. The schema ships with the worker
+ * (src/main/avro) and each payload carries its fingerprint, so no schema registry is
+ * needed. Records without the header are read as JSON while producers migrate. Only the
+ * type and subtype of the header are compared, so parameters such as
+ * {@code application/json; charset=utf-8} are accepted.
+ */
+@Component
+public class OrderMessageReader {
+
+    public static final String CONTENT_TYPE_HEADER = "content-type";
+    public static final String AVRO_CONTENT_TYPE = "application/avro";
+    public static final String JSON_CONTENT_TYPE = "application/json";
+
+    private static final MimeType AVRO = MimeType.valueOf(AVRO_CONTENT_TYPE);
+    private static final MimeType JSON = MimeType.valueOf(JSON_CONTENT_TYPE);
+
+    private final ObjectReader reader;
+    private final BinaryMessageDecoder<OrderMessage> avroDecoder = OrderMessage.getDecoder();
+
+    public OrderMessageReader(ObjectMapper objectMapper) {
+        this.reader = objectMapper.readerFor(OrderMessageDTO.class);
+    }
+
+    public OrderMessageDTO read(byte[] payload) throws IOException {
+        return reader.readValue(payload);
+    }
+
+    public OrderMessageDTO read(byte[] payload, Headers headers) throws IOException {
+        String contentType = contentTypeOf(headers);
+        if (contentType == null) {
+            return read(payload);
+        }
+        MimeType mimeType;
+        try {
+            mimeType = MimeType.valueOf(contentType);
+        } catch (InvalidMimeTypeException e) {
+            throw new IOException("Unsupported order content type: " + contentType, e);
+        }
+        if (JSON.equalsTypeAndSubtype(mimeType)) {
+            return read(payload);
+        }
+        if (AVRO.equalsTypeAndSubtype(mimeType)) {
+            return readAvro(payload);
+        }
+        throw new IOException("Unsupported order content type: " + contentType);
+    }
+
+    OrderMessageDTO readAvro(byte[] payload) throws IOException {
+        OrderMessage message = avroDecoder.decode(payload);
+        return OrderMessageDTO.builder()
+                .orderId(message.getOrderId())
+                .customerId(message.getCustomerId())
+                .products(message.getProducts())
+                .build();
+    }
+
+    /** Payloads are logged on failure; Avro ones are not text, so only their size is. */
+    public static String describe(byte[] payload, Headers headers) {
+        String contentType = contentTypeOf(headers);
+        if (contentType != null && isAvro(contentType)) {
+            return "<" + payload.length + " bytes of " + AVRO_CONTENT_TYPE + ">";
+        }
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isAvro(String contentType) {
+        try {
+            return AVRO.equalsTypeAndSubtype(MimeType.valueOf(contentType));
+        } catch (InvalidMimeTypeException e) {
+            return false;
+        }
+    }
+
+    private static String contentTypeOf(Headers headers) {
+        Header header = headers.lastHeader(CONTENT_TYPE_HEADER);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,74 @@
+package com.cristhianfdx.orderworker.kafka;
+
+import com.cristhianfdx.orderworker.config.IngestionProperties;
+import com.cristhianfdx.orderworker.dto.OrderMessageDTO;
+import com.cristhianfdx.orderworker.metrics.PipelineMetrics;
+import com.cristhianfdx.orderworker.service.OrderProcessorService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverRecord;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Demand-driven alternative to {@link OrderConsumer}. Records are only polled while
+ * fewer than {@code app.ingestion.max-in-flight} orders are being processed, and each
+ * offset is acknowledged once its order has finished.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.ingestion.mode", havingValue = "reactive")
+public class ReactiveOrderConsumer implements SmartLifecycle {
+
+    private final KafkaReceiver<String, byte[]> orderReceiver;
+    private final OrderMessageReader orderMessageReader;
+    private final OrderProcessorService orderProcessorService;
+    private final PipelineMetrics pipelineMetrics;
+    private final IngestionProperties ingestionProperties;
+
+    private volatile Disposable subscription;
+
+    @Override
+    public void start() {
+        subscription = orderReceiver.receive()
+                .flatMap(this::handle, ingestionProperties.getMaxInFlight())
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.error("Kafka receiver failed, resubscribing", signal.failure())))
+                .subscribe();
+        log.info("Reactive order ingestion started with max in-flight {}", ingestionProperties.getMaxInFlight());
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = subscription;
+        if (current != null) {
+            current.dispose();
+        }
+        subscription = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return subscription != null && !subscription.isDisposed();
+    }
+
+    Mono<Void> handle(ReceiverRecord<String, byte[]> record) {
+        return pipelineMetrics.time("parse", Mono.fromCallable(() -> orderMessageReader.read(record.value(), record.headers())))
+                .flatMap(orderProcessorService::processOrder)
+                .onErrorResume(error -> {
+                    log.error("Failed to process Kafka message at offset {}: {}", record.offset(),
+                            OrderMessageReader.describe(record.value(), record.headers()), error);
+                    return Mono.empty();
+                })
+                .then(Mono.fromRunnable(() -> record.receiverOffset().acknowledge()));
+    }
+}
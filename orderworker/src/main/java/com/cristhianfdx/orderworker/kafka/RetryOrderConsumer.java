@@ -0,0 +1,99 @@
+package com.cristhianfdx.orderworker.kafka;
+
+import com.cristhianfdx.orderworker.config.RetryProperties;
+import com.cristhianfdx.orderworker.dto.OrderMessageDTO;
+import com.cristhianfdx.orderworker.metrics.PipelineMetrics;
+import com.cristhianfdx.orderworker.service.OrderProcessorService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Consumes the retry tiers written by {@link RetryTopicRouter}. Each tier gets its own
+ * container, so a long delay on one tier never holds back another, and the main topic
+ * is never blocked by failing orders. Records are replayed once their due time is
+ * reached; until then the partition is paused and re-sought rather than slept on.
+ * <p>
+ * A replay blocks its consumer thread, which is what lets an early record be nacked back
+ * in order, so a tier runs {@code app.retry.topics.concurrency} consumers to replay that
+ * many partitions at once.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.retry.mode", havingValue = "topics")
+public class RetryOrderConsumer implements SmartLifecycle {
+
+    private final ConcurrentKafkaListenerContainerFactory<String, byte[]> kafkaListenerContainerFactory;
+    private final OrderMessageReader orderMessageReader;
+    private final OrderProcessorService orderProcessorService;
+    private final PipelineMetrics pipelineMetrics;
+    private final RetryProperties retryProperties;
+
+    private final List<ConcurrentMessageListenerContainer<String, byte[]>> containers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void start() {
+        RetryProperties.Topics topics = retryProperties.getTopics();
+        for (RetryProperties.Tier tier : topics.getTiers()) {
+            ConcurrentMessageListenerContainer<String, byte[]> container =
+                    kafkaListenerContainerFactory.createContainer(tier.getTopic());
+            ContainerProperties properties = container.getContainerProperties();
+            properties.setGroupId(topics.getGroupId());
+            properties.setAckMode(ContainerProperties.AckMode.MANUAL);
+            properties.setMessageListener((AcknowledgingMessageListener<String, byte[]>) this::onMessage);
+            container.setConcurrency(topics.getConcurrency());
+            container.setBeanName("order-retry-" + tier.getTopic());
+            container.start();
+            containers.add(container);
+        }
+        log.info("Retry tier consumers started for {}", topics.getTiers());
+    }
+
+    @Override
+    public void stop() {
+        containers.forEach(ConcurrentMessageListenerContainer::stop);
+        containers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return !containers.isEmpty();
+    }
+
+    void onMessage(ConsumerRecord<String, byte[]> record, Acknowledgment acknowledgment) {
+        long wait = RetryTopicRouter.dueAtOf(record.headers()) - System.currentTimeMillis();
+        if (wait > 0) {
+            // Tiers have a fixed delay, so nothing behind this record is due earlier either.
+            acknowledgment.nack(Duration.ofMillis(wait));
+            return;
+        }
+        handle(record).block();
+        acknowledgment.acknowledge();
+    }
+
+    Mono<Void> handle(ConsumerRecord<String, byte[]> record) {
+        int attempt = RetryTopicRouter.attemptOf(record.headers());
+        return pipelineMetrics.time("parse", Mono.fromCallable(() -> orderMessageReader.read(record.value(), record.headers())))
+                .flatMap(orderProcessorService::replayOrder)
+                .contextWrite(context -> context.put(RetryTopicRouter.ATTEMPT_CONTEXT_KEY, attempt))
+                .onErrorResume(error -> {
+                    log.error("Failed to replay order from {} at offset {}: {}", record.topic(), record.offset(),
+                            OrderMessageReader.describe(record.value(), record.headers()), error);
+                    return Mono.empty();
+                });
+    }
+}
@@ -0,0 +1,108 @@
+package com.cristhianfdx.orderworker.kafka;
+
+import com.cristhianfdx.orderworker.config.IngestionProperties;
+import com.cristhianfdx.orderworker.config.RetryProperties;
+import com.cristhianfdx.orderworker.metrics.PipelineMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Republishes failed orders instead of retrying them inline. Retryable failures move to
+ * the next tier in {@code app.retry.topics.tiers}; terminal failures, and retryable ones
+ * that have gone through every tier, land on the dead-letter topic.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.retry.mode", havingValue = "topics")
+public class RetryTopicRouter {
+
+    /**
+     * Reactor context key holding how many times the order has already failed.
+     */
+    public static final String ATTEMPT_CONTEXT_KEY = "order.retry.attempt";
+
+    public static final String ATTEMPT_HEADER = "order-retry-attempt";
+    public static final String DUE_AT_HEADER = "order-retry-due-at";
+    public static final String ORIGINAL_TOPIC_HEADER = "order-original-topic";
+    public static final String EXCEPTION_HEADER = "order-exception-fqcn";
+    public static final String EXCEPTION_MESSAGE_HEADER = "order-exception-message";
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final RetryProperties retryProperties;
+    private final IngestionProperties ingestionProperties;
+    private final PipelineMetrics pipelineMetrics;
+
+    public Mono<Void> route(String orderId, String payload, Throwable cause, boolean retryable) {
+        return Mono.deferContextual(context -> {
+            int attempt = context.getOrDefault(ATTEMPT_CONTEXT_KEY, 0) + 1;
+            ProducerRecord<String, String> record = record(orderId, payload, cause, retryable, attempt);
+            return pipelineMetrics.time("failure.route", Mono.fromFuture(() -> kafkaTemplate.send(record)))
+                    .doOnSuccess(result -> log.warn("Order {} routed to {} after attempt {}", orderId, record.topic(), attempt))
+                    .then();
+        });
+    }
+
+    /**
+     * Blocking counterpart of {@link #route} for the virtual-thread engine, which only reads
+     * the main topic and so always routes a first attempt.
+     */
+    public void routeBlocking(String orderId, String payload, Throwable cause, boolean retryable) {
+        ProducerRecord<String, String> record = record(orderId, payload, cause, retryable, 1);
+        pipelineMetrics.timeBlocking("failure.route", () -> kafkaTemplate.send(record).join());
+        log.warn("Order {} routed to {} after attempt {}", orderId, record.topic(), 1);
+    }
+
+    private ProducerRecord<String, String> record(String orderId, String payload, Throwable cause, boolean retryable,
+                                                  int attempt) {
+        List<RetryProperties.Tier> tiers = retryProperties.getTopics().getTiers();
+        long now = System.currentTimeMillis();
+
+        String topic;
+        long dueAt;
+        if (retryable && attempt <= tiers.size()) {
+            RetryProperties.Tier tier = tiers.get(attempt - 1);
+            topic = tier.getTopic();
+            dueAt = now + tier.getDelayMs();
+        } else {
+            topic = retryProperties.getTopics().getDltTopic();
+            dueAt = now;
+        }
+
+        ProducerRecord<String, String> record = new ProducerRecord<>(topic, orderId, payload);
+        Headers headers = record.headers();
+        headers.add(ATTEMPT_HEADER, bytes(String.valueOf(attempt)));
+        headers.add(DUE_AT_HEADER, bytes(String.valueOf(dueAt)));
+        headers.add(ORIGINAL_TOPIC_HEADER, bytes(ingestionProperties.getTopic()));
+        headers.add(EXCEPTION_HEADER, bytes(cause.getClass().getName()));
+        headers.add(EXCEPTION_MESSAGE_HEADER, bytes(String.valueOf(cause.getMessage())));
+        return record;
+    }
+
+    static int attemptOf(Headers headers) {
+        return (int) longHeader(headers, ATTEMPT_HEADER);
+    }
+
+    static long dueAtOf(Headers headers) {
+        return longHeader(headers, DUE_AT_HEADER);
+    }
+
+    private static long longHeader(Headers headers, String name) {
+        Header header = headers.lastHeader(name);
+        return header == null ? 0 : Long.parseLong(new String(header.value(), StandardCharsets.UTF_8));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,97 @@
+package com.cristhianfdx.orderworker.logging;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate-limited view over a {@link Logger} for per-message diagnostics. At most one
+ * message per format string is written per interval; the ones dropped in between are only
+ * counted and reported with the next message of the same format that gets through, so the
+ * hot path pays a level check and a clock read instead of formatting and appending every
+ * line. Each format has its own budget, so a frequent message cannot starve a rare one.
+ */
+public final class SampledLogger {
+
+    private final Logger logger;
+    private final long intervalNanos;
+    /** Keyed by format string; call sites pass literals, so the map stays small. */
+    private final Map<String, Budget> budgets = new ConcurrentHashMap<>();
+
+    private SampledLogger(Logger logger, Duration interval) {
+        this.logger = logger;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    public static SampledLogger of(Logger logger, Duration interval) {
+        return new SampledLogger(logger, interval);
+    }
+
+    public void info(String format, Object arg) {
+        if (logger.isInfoEnabled()) {
+            Budget budget = budget(format);
+            if (budget.acquire()) {
+                logger.info(format + " ({} similar suppressed)", arg, budget.suppressed.sumThenReset());
+            }
+        }
+    }
+
+    public void debug(String format, Object arg) {
+        if (logger.isDebugEnabled()) {
+            Budget budget = budget(format);
+            if (budget.acquire()) {
+                logger.debug(format + " ({} similar suppressed)", arg, budget.suppressed.sumThenReset());
+            }
+        }
+    }
+
+    public void debug(String format, Object arg1, Object arg2) {
+        if (logger.isDebugEnabled()) {
+            Budget budget = budget(format);
+            if (budget.acquire()) {
+                logger.debug(format + " ({} similar suppressed)", arg1, arg2, budget.suppressed.sumThenReset());
+            }
+        }
+    }
+
+    public void warn(String format, Object arg1, Object arg2) {
+        if (logger.isWarnEnabled()) {
+            Budget budget = budget(format);
+            if (budget.acquire()) {
+                logger.warn(format + " ({} similar suppressed)", arg1, arg2, budget.suppressed.sumThenReset());
+            }
+        }
+    }
+
+    private Budget budget(String format) {
+        Budget budget = budgets.get(format);
+        return budget != null ? budget : budgets.computeIfAbsent(format, f -> new Budget(intervalNanos));
+    }
+
+    private static final class Budget {
+
+        private final long intervalNanos;
+        private final AtomicLong nextAllowedNanos = new AtomicLong(Long.MIN_VALUE);
+        private final LongAdder suppressed = new LongAdder();
+
+        Budget(long intervalNanos) {
+            this.intervalNanos = intervalNanos;
+        }
+
+        boolean acquire() {
+            long now = System.nanoTime();
+            long next = nextAllowedNanos.get();
+            if (now - next >= 0 || next == Long.MIN_VALUE) {
+                if (nextAllowedNanos.compareAndSet(next, now + intervalNanos)) {
+                    return true;
+                }
+            }
+            suppressed.increment();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.cristhianfdx.orderworker.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Stage timers for the order pipeline. Every stage is recorded on the same
+ * {@code order.pipeline.stage} timer, tagged with the stage name, its outcome and the
+ * exception type, and publishes a percentile histogram so p99s can be computed across
+ * instances in Prometheus.
+ */
+@Component
+public class PipelineMetrics {
+
+    public static final String STAGE_TIMER = "order.pipeline.stage";
+    public static final String IN_FLIGHT_GAUGE = "order.pipeline.in.flight";
+
+    private static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    /** Registered timers by tags, so recording a stage skips the builder and registry lookup. */
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public PipelineMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder(IN_FLIGHT_GAUGE, inFlight, AtomicInteger::get)
+                .description("Orders currently being processed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Times {@code source} from subscription until it completes, fails or is cancelled.
+     */
+    public <T> Mono<T> time(String stage, Mono<T> source) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return source
+                    .doOnSuccess(value -> sample.stop(timer(stage, "success", NONE)))
+                    .doOnError(e -> sample.stop(timer(stage, "error", e.getClass().getSimpleName())))
+                    .doOnCancel(() -> sample.stop(timer(stage, "cancelled", NONE)));
+        });
+    }
+
+    /**
+     * Counts {@code source} towards the in-flight gauge while it is subscribed.
+     */
+    public <T> Mono<T> trackInFlight(Mono<T> source) {
+        return Mono.defer(() -> {
+            inFlight.incrementAndGet();
+            return source.doFinally(signal -> inFlight.decrementAndGet());
+        });
+    }
+
+    /**
+     * Blocking counterpart of {@link #time(String, Mono)} for the virtual-thread engine.
+     */
+    public <T> T timeBlocking(String stage, Supplier<T> work) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            T result = work.get();
+            sample.stop(timer(stage, "success", NONE));
+            return result;
+        } catch (RuntimeException e) {
+            sample.stop(timer(stage, "error", e.getClass().getSimpleName()));
+            throw e;
+        }
+    }
+
+    /**
+     * Blocking counterpart of {@link #trackInFlight(Mono)} for the virtual-thread engine.
+     */
+    public void trackInFlightBlocking(Runnable work) {
+        inFlight.incrementAndGet();
+        try {
+            work.run();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private Timer timer(String stage, String outcome, String exception) {
+        return timers.computeIfAbsent(new TimerKey(stage, outcome, exception), key -> Timer.builder(STAGE_TIMER)
+                .description("Latency of each order pipeline stage")
+                .tag("stage", key.stage())
+                .tag("outcome", key.outcome())
+                .tag("exception", key.exception())
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private record TimerKey(String stage, String outcome, String exception) {
+    }
+}
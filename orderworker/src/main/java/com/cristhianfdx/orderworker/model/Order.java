@@ -5,19 +5,43 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
 
+import java.time.Instant;
 import java.util.List;
 
+/**
+ * Persisted order. Field names are kept short because they are repeated in every document
+ * and every order line; they are part of the stored format, so rename the Java properties
+ * freely but never the {@code @Field} values. Orders saved in the older long-named format are
+ * rewritten by {@code OrderSchemaMigration}; the unique orderId index is partial on
+ * {@code oid} so it can be built while such orders still exist.
+ */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "orders")
+@CompoundIndexes({
+        @CompoundIndex(name = "customer_created", def = "{'cid': 1, 'ts': -1}"),
+        @CompoundIndex(name = "order_id", def = "{'oid': 1}", unique = true,
+                partialFilter = "{'oid': {$exists: true}}")
+})
 public class Order {
     @Id
     private String id;
+    @Field("oid")
     private String orderId;
+    @Field("cid")
     private String customerId;
+    @Field("ts")
+    private Instant createdAt;
+    /** Sum of the line prices, in minor currency units. */
+    @Field("tot")
+    private long totalMinor;
+    @Field("p")
     private List<Product> products;
 }
@@ -4,13 +4,18 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.Field;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Product {
+    @Field("pid")
     private String productId;
+    @Field("n")
     private String name;
-    private double price;
+    /** Price in minor currency units (cents). */
+    @Field("pm")
+    private long priceMinor;
 }
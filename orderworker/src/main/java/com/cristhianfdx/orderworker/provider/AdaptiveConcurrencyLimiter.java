@@ -0,0 +1,218 @@
+package com.cristhianfdx.orderworker.provider;
+
+import com.cristhianfdx.orderworker.config.EnrichmentProperties;
+import com.cristhianfdx.orderworker.exceptions.ConcurrencyLimitExceededException;
+import com.cristhianfdx.orderworker.exceptions.CustomerNotFoundException;
+import com.cristhianfdx.orderworker.exceptions.ProductNotFoundException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AIMD limit on concurrent go-api calls, shared by every {@link EnrichmentClient} lookup.
+ * The limit grows by roughly one per window of fast successful calls while it is actually in
+ * use, and shrinks by {@code backoffRatio} on every upstream failure or call slower than
+ * {@code latencyThresholdMs}. Calls over the limit wait in a bounded FIFO queue and are shed
+ * with {@link ConcurrencyLimitExceededException} once it is full or their wait expires.
+ * A call rejected by the endpoint's bulkhead never reached go-api, so it gives its permit
+ * back without moving the limit.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    public static final String LIMIT_GAUGE = "order.enrichment.limiter.limit";
+    public static final String IN_FLIGHT_GAUGE = "order.enrichment.limiter.in.flight";
+    public static final String QUEUED_GAUGE = "order.enrichment.limiter.queued";
+    public static final String REJECTED_COUNTER = "order.enrichment.limiter.rejected";
+
+    private final EnrichmentProperties.Limiter properties;
+    private final long latencyThresholdNanos;
+    private final Duration maxQueueWait;
+    private final ArrayDeque<Permit> waiters = new ArrayDeque<>();
+    private final Counter rejected;
+
+    private double limit;
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimiter(EnrichmentProperties enrichmentProperties, MeterRegistry meterRegistry) {
+        this.properties = enrichmentProperties.getLimiter();
+        this.latencyThresholdNanos = Duration.ofMillis(properties.getLatencyThresholdMs()).toNanos();
+        this.maxQueueWait = Duration.ofMillis(properties.getMaxQueueWaitMs());
+        this.limit = properties.getInitialLimit();
+
+        Gauge.builder(LIMIT_GAUGE, this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive limit on concurrent go-api calls")
+                .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_GAUGE, this, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("go-api calls currently holding a limiter permit")
+                .register(meterRegistry);
+        Gauge.builder(QUEUED_GAUGE, this, AdaptiveConcurrencyLimiter::getQueued)
+                .description("go-api calls waiting for a limiter permit")
+                .register(meterRegistry);
+        this.rejected = Counter.builder(REJECTED_COUNTER)
+                .description("go-api calls shed by the limiter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code call} once a permit is available and feeds its latency and outcome back
+     * into the limit.
+     */
+    public <T> Mono<T> execute(Mono<T> call) {
+        if (!properties.isEnabled()) {
+            return call;
+        }
+        return acquire().flatMap(permit -> call
+                .doOnSuccess(value -> release(permit, false))
+                .doOnError(e -> {
+                    if (e instanceof BulkheadFullException) {
+                        permit.discard();
+                    } else {
+                        release(permit, isDrop(e));
+                    }
+                })
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL) {
+                        permit.discard();
+                    }
+                }));
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return waiters.size();
+    }
+
+    private Mono<Permit> acquire() {
+        return Mono.<Permit>create(sink -> {
+                    Permit permit = new Permit(sink);
+                    sink.onCancel(permit::discard);
+
+                    boolean granted = false;
+                    boolean queued = false;
+                    synchronized (this) {
+                        if (inFlight < (int) limit) {
+                            inFlight++;
+                            granted = permit.grant();
+                        } else if (waiters.size() < properties.getMaxQueueSize()) {
+                            waiters.addLast(permit);
+                            queued = true;
+                        }
+                    }
+
+                    if (granted) {
+                        permit.start();
+                    } else if (!queued) {
+                        rejected.increment();
+                        sink.error(new ConcurrencyLimitExceededException("go-api limiter queue is full"));
+                    }
+                })
+                .timeout(maxQueueWait, Mono.defer(() -> {
+                    rejected.increment();
+                    return Mono.error(new ConcurrencyLimitExceededException(
+                            "Timed out waiting for a go-api limiter permit after " + maxQueueWait.toMillis() + " ms"));
+                }));
+    }
+
+    private void release(Permit permit, boolean dropped) {
+        if (!permit.finish()) {
+            return;
+        }
+        long rtt = System.nanoTime() - permit.startNanos;
+        List<Permit> granted;
+        synchronized (this) {
+            if (dropped || rtt > latencyThresholdNanos) {
+                limit = Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio());
+            } else if (inFlight * 2 >= limit) {
+                limit = Math.min(properties.getMaxLimit(), limit + 1.0 / limit);
+            }
+            inFlight--;
+            granted = grantWaiters();
+        }
+        granted.forEach(Permit::start);
+    }
+
+    private void discard(Permit permit, boolean wasGranted) {
+        List<Permit> granted;
+        synchronized (this) {
+            if (wasGranted) {
+                inFlight--;
+            } else {
+                waiters.remove(permit);
+            }
+            granted = grantWaiters();
+        }
+        granted.forEach(Permit::start);
+    }
+
+    // Must hold the monitor; permits are started by the caller once it is released.
+    private List<Permit> grantWaiters() {
+        List<Permit> granted = new ArrayList<>();
+        while (inFlight < (int) limit && !waiters.isEmpty()) {
+            Permit next = waiters.pollFirst();
+            if (next.grant()) {
+                inFlight++;
+                granted.add(next);
+            }
+        }
+        return granted;
+    }
+
+    private static boolean isDrop(Throwable e) {
+        // A missing id is a fast, healthy answer from go-api, not a sign of overload.
+        return !(e instanceof CustomerNotFoundException || e instanceof ProductNotFoundException);
+    }
+
+    private final class Permit {
+        private static final int WAITING = 0;
+        private static final int GRANTED = 1;
+        private static final int DONE = 2;
+
+        private final MonoSink<Permit> sink;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private long startNanos;
+
+        private Permit(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+
+        private boolean grant() {
+            return state.compareAndSet(WAITING, GRANTED);
+        }
+
+        private void start() {
+            startNanos = System.nanoTime();
+            sink.success(this);
+        }
+
+        private boolean finish() {
+            return state.compareAndSet(GRANTED, DONE);
+        }
+
+        private void discard() {
+            if (state.compareAndSet(WAITING, DONE)) {
+                AdaptiveConcurrencyLimiter.this.discard(this, false);
+            } else if (state.compareAndSet(GRANTED, DONE)) {
+                AdaptiveConcurrencyLimiter.this.discard(this, true);
+            }
+        }
+    }
+}
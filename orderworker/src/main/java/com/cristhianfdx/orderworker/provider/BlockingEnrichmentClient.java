@@ -0,0 +1,146 @@
+package com.cristhianfdx.orderworker.provider;
+
+import com.cristhianfdx.orderworker.config.ExternalAPIProperties;
+import com.cristhianfdx.orderworker.config.RetryProperties;
+import com.cristhianfdx.orderworker.dto.CustomerDTO;
+import com.cristhianfdx.orderworker.dto.ProductDTO;
+import com.cristhianfdx.orderworker.exceptions.CustomerNotFoundException;
+import com.cristhianfdx.orderworker.exceptions.ExternalApiException;
+import com.cristhianfdx.orderworker.exceptions.ProductNotFoundException;
+import com.cristhianfdx.orderworker.logging.SampledLogger;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.util.UriTemplate;
+
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Blocking go-api client for the virtual-thread engine. Shares the product catalog, caches
+ * and circuit breakers of {@link EnrichmentClient}; micro-batching, the adaptive limiter and
+ * hedging stay reactive-only, as a parked virtual thread per lookup is what this mode
+ * measures. Its bulkheads are its own: a batch fans out far more virtual threads than there
+ * are permits, so callers wait for one rather than fail the order as the reactive client's
+ * non-waiting bulkheads would.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.ingestion.mode", havingValue = "blocking")
+public class BlockingEnrichmentClient {
+
+    public static final String CUSTOMER_BULKHEAD = "blocking-customer";
+    public static final String PRODUCT_BULKHEAD = "blocking-product";
+
+    private static final SampledLogger SAMPLED_LOG = SampledLogger.of(log, Duration.ofSeconds(1));
+
+    private final RestClient restClient;
+    private final EnrichmentCache<CustomerDTO> customerCache;
+    private final EnrichmentCache<ProductDTO> productCache;
+    private final UriTemplate customerUri;
+    private final UriTemplate productUri;
+    private final CircuitBreaker customerCircuitBreaker;
+    private final CircuitBreaker productCircuitBreaker;
+    private final Bulkhead customerBulkhead;
+    private final Bulkhead productBulkhead;
+    private final Retry customerRetry;
+    private final Retry productRetry;
+    private final Function<String, CustomerDTO> customerLoader;
+    private final Function<String, ProductDTO> productLoader;
+    private final ProductCatalog productCatalog;
+
+    public BlockingEnrichmentClient(RestClient enrichmentRestClient,
+                                    RetryProperties retryProperties,
+                                    ExternalAPIProperties externalAPIProperties,
+                                    EnrichmentCache<CustomerDTO> customerCache,
+                                    EnrichmentCache<ProductDTO> productCache,
+                                    SharedEnrichmentCache<CustomerDTO> customerSharedCache,
+                                    SharedEnrichmentCache<ProductDTO> productSharedCache,
+                                    CircuitBreakerRegistry circuitBreakerRegistry,
+                                    BulkheadRegistry bulkheadRegistry,
+                                    ProductCatalog productCatalog) {
+        this.restClient = enrichmentRestClient;
+        this.customerCache = customerCache;
+        this.productCache = productCache;
+        this.customerUri = new UriTemplate(externalAPIProperties.getCustomer() + "/{id}");
+        this.productUri = new UriTemplate(externalAPIProperties.getProduct() + "/{id}");
+        this.customerCircuitBreaker = circuitBreakerRegistry.circuitBreaker(EnrichmentClient.CUSTOMER_API);
+        this.productCircuitBreaker = circuitBreakerRegistry.circuitBreaker(EnrichmentClient.PRODUCT_API);
+        this.customerBulkhead = bulkheadRegistry.bulkhead(CUSTOMER_BULKHEAD);
+        this.productBulkhead = bulkheadRegistry.bulkhead(PRODUCT_BULKHEAD);
+        this.customerRetry = inlineRetry(CUSTOMER_BULKHEAD, retryProperties, CustomerNotFoundException.class);
+        this.productRetry = inlineRetry(PRODUCT_BULKHEAD, retryProperties, ProductNotFoundException.class);
+        this.productCatalog = productCatalog;
+        this.customerLoader = customerSharedCache.readThroughBlocking(id -> guarded(
+                () -> fetch(customerUri, id, CustomerDTO.class, "customer", CustomerNotFoundException::new),
+                customerCircuitBreaker, customerBulkhead, customerRetry));
+        this.productLoader = productSharedCache.readThroughBlocking(id -> guarded(
+                () -> fetch(productUri, id, ProductDTO.class, "product", ProductNotFoundException::new),
+                productCircuitBreaker, productBulkhead, productRetry));
+    }
+
+    public CustomerDTO getCustomerById(String customerId) {
+        return customerCache.getBlocking(customerId, customerLoader);
+    }
+
+    public ProductDTO getProductById(String productId) {
+        ProductDTO product = productCatalog.find(productId);
+        if (product != null) {
+            return product;
+        }
+        return productCache.getBlocking(productId, productLoader);
+    }
+
+    private <T> T fetch(UriTemplate uri, String id, Class<T> type, String resource,
+                        Function<String, ? extends RuntimeException> notFound) {
+        SAMPLED_LOG.debug("Fetching {} {}", resource, id);
+        try {
+            return restClient.get()
+                    .uri(uri.expand(id))
+                    .retrieve()
+                    .onStatus(HttpStatusCode::isError, (request, response) -> {
+                        if (response.getStatusCode() == HttpStatus.NOT_FOUND) {
+                            throw notFound.apply(id);
+                        }
+                        throw new ExternalApiException(String.format(
+                                "Error while retrieving %s %s. Status: %s", resource, id, response.getStatusCode()));
+                    })
+                    .body(type);
+        } catch (RestClientException e) {
+            throw new ExternalApiException(String.format("Error while retrieving %s %s: %s", resource, id, e.getMessage()), e);
+        }
+    }
+
+    private static <T> T guarded(Supplier<T> call, CircuitBreaker circuitBreaker, Bulkhead bulkhead, Retry retry) {
+        Supplier<T> attempt = CircuitBreaker.decorateSupplier(circuitBreaker, Bulkhead.decorateSupplier(bulkhead, call));
+        return Retry.decorateSupplier(retry, attempt).get();
+    }
+
+    private static Retry inlineRetry(String name, RetryProperties retryProperties,
+                                     Class<? extends RuntimeException> notFound) {
+        if (retryProperties.isTopicMode() || retryProperties.getMaxAttempts() <= 0) {
+            // Retry topics re-drive transient failures later instead of holding the order here.
+            return Retry.of(name, RetryConfig.custom().maxAttempts(1).build());
+        }
+        return Retry.of(name, RetryConfig.custom()
+                .maxAttempts(retryProperties.getMaxAttempts() + 1)
+                .intervalFunction(IntervalFunction.ofExponentialRandomBackoff(
+                        Duration.ofMillis(Math.max(1, retryProperties.getInitialIntervalMs())),
+                        Math.max(1.0, retryProperties.getMultiplier()), 0.5))
+                .retryOnException(e -> e instanceof ExternalApiException)
+                .ignoreExceptions(notFound)
+                .build());
+    }
+}
@@ -0,0 +1,95 @@
+package com.cristhianfdx.orderworker.provider;
+
+import com.cristhianfdx.orderworker.config.EnrichmentCacheProperties.CacheSpec;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Size-bounded, TTL-based local cache for enrichment lookups. Concurrent misses for the
+ * same id share one in-flight load; failed loads are not cached.
+ */
+public class EnrichmentCache<V> {
+
+    private static final Executor VIRTUAL_THREADS = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AsyncCache<String, V> cache;
+
+    EnrichmentCache(AsyncCache<String, V> cache) {
+        this.cache = cache;
+    }
+
+    public static <V> EnrichmentCache<V> create(String name, CacheSpec spec, MeterRegistry meterRegistry) {
+        if (!spec.isEnabled()) {
+            return disabled();
+        }
+        AsyncCache<String, V> cache = newBuilder(spec, Ticker.systemTicker()).buildAsync();
+        return new EnrichmentCache<>(CaffeineCacheMetrics.monitor(meterRegistry, cache, name));
+    }
+
+    public static <V> EnrichmentCache<V> disabled() {
+        return new EnrichmentCache<>(null);
+    }
+
+    static Caffeine<Object, Object> newBuilder(CacheSpec spec, Ticker ticker) {
+        return Caffeine.newBuilder()
+                .maximumSize(spec.getMaxSize())
+                .expireAfterWrite(Duration.ofMillis(spec.getTtlMs()))
+                .ticker(ticker)
+                .recordStats();
+    }
+
+    public Mono<V> get(String id, Function<String, Mono<V>> loader) {
+        if (cache == null) {
+            return loader.apply(id);
+        }
+        // suppressCancel: one caller going away must not cancel the load other callers share
+        return Mono.fromFuture(() -> cache.get(id, (key, executor) -> loader.apply(key).toFuture()), true);
+    }
+
+    /**
+     * Blocking lookup for the virtual-thread engine: the loader runs on a virtual thread and
+     * concurrent misses for the same id still share it.
+     */
+    public V getBlocking(String id, Function<String, V> loader) {
+        if (cache == null) {
+            return loader.apply(id);
+        }
+        try {
+            return cache.get(id, (key, executor) -> CompletableFuture.supplyAsync(() -> loader.apply(key), VIRTUAL_THREADS))
+                    .join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public void put(String id, V value) {
+        if (cache != null) {
+            cache.put(id, CompletableFuture.completedFuture(value));
+        }
+    }
+
+    public void invalidate(String id) {
+        if (cache != null) {
+            cache.synchronous().invalidate(id);
+        }
+    }
+
+    public CacheStats stats() {
+        return cache == null ? CacheStats.empty() : cache.synchronous().stats();
+    }
+}
@@ -0,0 +1,80 @@
+package com.cristhianfdx.orderworker.provider;
+
+import com.cristhianfdx.orderworker.config.EnrichmentCacheProperties;
+import com.cristhianfdx.orderworker.dto.CustomerDTO;
+import com.cristhianfdx.orderworker.dto.ProductDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Drops local (L1) entries when any node evicts them from the shared cache, see
+ * {@link SharedEnrichmentCache#evict}. Without it a node would keep serving its own copy
+ * until the L1 TTL runs out.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.cache.shared.enabled", havingValue = "true", matchIfMissing = true)
+public class EnrichmentCacheInvalidationListener implements SmartLifecycle {
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final EnrichmentCacheProperties cacheProperties;
+    private final EnrichmentCache<CustomerDTO> customerCache;
+    private final EnrichmentCache<ProductDTO> productCache;
+
+    private volatile Disposable subscription;
+
+    @Override
+    public void start() {
+        String channel = cacheProperties.getShared().getInvalidationChannel();
+        subscription = redisTemplate.listenToChannel(channel)
+                .doOnNext(message -> invalidate(message.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Cache invalidation subscription failed, resubscribing: {}",
+                                signal.failure().getMessage())))
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = subscription;
+        if (current != null) {
+            current.dispose();
+        }
+        subscription = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return subscription != null && !subscription.isDisposed();
+    }
+
+    void invalidate(String message) {
+        int separator = message.indexOf(':');
+        if (separator < 0) {
+            log.warn("Ignoring malformed cache invalidation message: {}", message);
+            return;
+        }
+        EnrichmentCache<?> cache = switch (message.substring(0, separator)) {
+            case EnrichmentClient.CUSTOMER_API -> customerCache;
+            case EnrichmentClient.PRODUCT_API -> productCache;
+            default -> null;
+        };
+        if (cache == null) {
+            log.warn("Ignoring cache invalidation for unknown cache: {}", message);
+            return;
+        }
+        for (String id : message.substring(separator + 1).split(",")) {
+            cache.invalidate(id);
+        }
+    }
+}
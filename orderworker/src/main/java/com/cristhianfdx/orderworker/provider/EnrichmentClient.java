@@ -1,38 +1,147 @@
 package com.cristhianfdx.orderworker.provider;
 
 
+import com.cristhianfdx.orderworker.config.EnrichmentProperties;
 import com.cristhianfdx.orderworker.config.ExternalAPIProperties;
 import com.cristhianfdx.orderworker.config.RetryProperties;
 import com.cristhianfdx.orderworker.dto.CustomerDTO;
 import com.cristhianfdx.orderworker.dto.ProductDTO;
+import com.cristhianfdx.orderworker.exceptions.ConcurrencyLimitExceededException;
 import com.cristhianfdx.orderworker.exceptions.CustomerNotFoundException;
 import com.cristhianfdx.orderworker.exceptions.ExternalApiException;
 import com.cristhianfdx.orderworker.exceptions.ProductNotFoundException;
-import lombok.RequiredArgsConstructor;
+import com.cristhianfdx.orderworker.logging.SampledLogger;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriTemplate;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
 import reactor.util.retry.Retry;
 
 import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class EnrichmentClient {
 
+    public static final String CUSTOMER_API = "customer";
+    public static final String PRODUCT_API = "product";
+
+    private static final SampledLogger SAMPLED_LOG = SampledLogger.of(log, Duration.ofSeconds(1));
+
     private final WebClient webClient;
     private final RetryProperties retryProperties;
-    private final ExternalAPIProperties externalAPIProperties;
+    private final EnrichmentCache<CustomerDTO> customerCache;
+    private final EnrichmentCache<ProductDTO> productCache;
+    private final MicroBatcher<CustomerDTO> customerBatcher;
+    private final MicroBatcher<ProductDTO> productBatcher;
+    private final Function<String, Mono<CustomerDTO>> customerLoader;
+    private final Function<String, Mono<ProductDTO>> productLoader;
+    private final ProductCatalog productCatalog;
+    private final UriTemplate customerUri;
+    private final UriTemplate productUri;
+    private final UriTemplate customersUri;
+    private final UriTemplate productsUri;
+    private final Duration bulkResponseTimeout;
+    private final CircuitBreaker customerCircuitBreaker;
+    private final CircuitBreaker productCircuitBreaker;
+    private final Bulkhead customerBulkhead;
+    private final Bulkhead productBulkhead;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    public EnrichmentClient(WebClient webClient,
+                            RetryProperties retryProperties,
+                            ExternalAPIProperties externalAPIProperties,
+                            EnrichmentCache<CustomerDTO> customerCache,
+                            EnrichmentCache<ProductDTO> productCache,
+                            SharedEnrichmentCache<CustomerDTO> customerSharedCache,
+                            SharedEnrichmentCache<ProductDTO> productSharedCache,
+                            EnrichmentProperties enrichmentProperties,
+                            CircuitBreakerRegistry circuitBreakerRegistry,
+                            BulkheadRegistry bulkheadRegistry,
+                            AdaptiveConcurrencyLimiter concurrencyLimiter,
+                            RequestHedger productHedger,
+                            ProductCatalog productCatalog) {
+        this.webClient = webClient;
+        this.retryProperties = retryProperties;
+        this.customerCache = customerCache;
+        this.productCache = productCache;
+
+        // Parsed once here; each call only expands and encodes its ids.
+        this.customerUri = new UriTemplate(externalAPIProperties.getCustomer() + "/{id}");
+        this.productUri = new UriTemplate(externalAPIProperties.getProduct() + "/{id}");
+        this.customersUri = new UriTemplate(externalAPIProperties.getCustomer() + "?ids={ids}");
+        this.productsUri = new UriTemplate(externalAPIProperties.getProduct() + "?ids={ids}");
+        this.bulkResponseTimeout = Duration.ofMillis(externalAPIProperties.getHttp().getBulkResponseTimeoutMs());
+        this.customerCircuitBreaker = circuitBreakerRegistry.circuitBreaker(CUSTOMER_API);
+        this.productCircuitBreaker = circuitBreakerRegistry.circuitBreaker(PRODUCT_API);
+        this.customerBulkhead = bulkheadRegistry.bulkhead(CUSTOMER_API);
+        this.productBulkhead = bulkheadRegistry.bulkhead(PRODUCT_API);
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.productCatalog = productCatalog;
+
+        // The shared Redis tier sits right above go-api: one MGET per micro-batch, or one GET per single lookup.
+        EnrichmentProperties.Batch batch = enrichmentProperties.getBatch();
+        this.customerBatcher = batch.getCustomer().isEnabled()
+                ? new MicroBatcher<>(batch.getCustomer(), customerSharedCache.readThroughBulk(this::fetchCustomers),
+                CustomerNotFoundException::new)
+                : null;
+        this.productBatcher = batch.getProduct().isEnabled()
+                ? new MicroBatcher<>(batch.getProduct(), productSharedCache.readThroughBulk(this::fetchProducts),
+                ProductNotFoundException::new)
+                : null;
+        this.customerLoader = customerBatcher != null
+                ? customerBatcher::load
+                : customerSharedCache.readThrough(this::fetchCustomer);
+
+        // Hedged below the local cache so a hedge is a fresh upstream (or batched) call, not a join on the shared load.
+        Function<String, Mono<ProductDTO>> loader = productBatcher != null
+                ? productBatcher::load
+                : productSharedCache.readThrough(this::fetchProduct);
+        this.productLoader = productId -> productHedger.hedge(() -> loader.apply(productId));
+    }
 
     public Mono<CustomerDTO> getCustomerById(String customerId) {
-        String url = externalAPIProperties.getCustomer() + "/" + customerId;
+        return customerCache.get(customerId, customerLoader);
+    }
 
+    public Mono<ProductDTO> getProductById(String productId) {
+        ProductDTO product = productCatalog.find(productId);
+        if (product != null) {
+            return Mono.just(product);
+        }
+        return productCache.get(productId, productLoader);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (customerBatcher != null) {
+            customerBatcher.dispose();
+        }
+        if (productBatcher != null) {
+            productBatcher.dispose();
+        }
+    }
+
+    private Mono<CustomerDTO> fetchCustomer(String customerId) {
         return webClient.get()
-                .uri(url)
+                .uri(customerUri.expand(customerId))
                 .retrieve()
                 .onStatus(
                         HttpStatusCode::isError,
@@ -43,24 +152,15 @@ public class EnrichmentClient {
                         ))
                 )
                 .bodyToMono(CustomerDTO.class)
-                .retryWhen(
-                        Retry.backoff(
-                                        retryProperties.getMaxAttempts(),
-                                        Duration.ofMillis(retryProperties.getInitialIntervalMs())
-                                )
-                                .jitter(0.5)
-                                .transientErrors(true)
-                                .filter(throwable -> !(throwable instanceof CustomerNotFoundException))
-                )
-                .doOnSubscribe(s -> log.info("Fetching customer {}", customerId))
-                .doOnError(e -> log.error("Error fetching customer {}: {}", customerId, e.getMessage(), e));
+                .transform(call -> guarded(call, customerCircuitBreaker, customerBulkhead))
+                .transform(call -> withInlineRetry(call, throwable -> !(throwable instanceof CustomerNotFoundException)))
+                .doOnSubscribe(s -> SAMPLED_LOG.debug("Fetching customer {}", customerId))
+                .doOnError(e -> logFetchError("customer", customerId, e));
     }
 
-    public Mono<ProductDTO> getProductById(String productId) {
-        String url = externalAPIProperties.getProduct() + "/" + productId;
-
+    private Mono<ProductDTO> fetchProduct(String productId) {
         return webClient.get()
-                .uri(url)
+                .uri(productUri.expand(productId))
                 .retrieve()
                 .onStatus(
                         HttpStatusCode::isError,
@@ -71,17 +171,88 @@ public class EnrichmentClient {
                         ))
                 )
                 .bodyToMono(ProductDTO.class)
-                .retryWhen(
-                        Retry.backoff(
-                                        retryProperties.getMaxAttempts(),
-                                        Duration.ofMillis(retryProperties.getInitialIntervalMs())
-                                )
-                                .jitter(0.5)
-                                .transientErrors(true)
-                                .filter(throwable -> !(throwable instanceof ProductNotFoundException))
+                .transform(call -> guarded(call, productCircuitBreaker, productBulkhead))
+                .transform(call -> withInlineRetry(call, throwable -> !(throwable instanceof ProductNotFoundException)))
+                .doOnSubscribe(s -> SAMPLED_LOG.debug("Fetching product {}", productId))
+                .doOnError(e -> logFetchError("product", productId, e));
+    }
+
+    private Mono<Map<String, CustomerDTO>> fetchCustomers(Set<String> customerIds) {
+        return fetchBulk(customersUri, "customers", customerIds, CustomerDTO.class, CustomerDTO::getId,
+                customerCircuitBreaker, customerBulkhead);
+    }
+
+    private Mono<Map<String, ProductDTO>> fetchProducts(Set<String> productIds) {
+        return fetchBulk(productsUri, "products", productIds, ProductDTO.class, ProductDTO::getId,
+                productCircuitBreaker, productBulkhead);
+    }
+
+    private <T> Mono<Map<String, T>> fetchBulk(UriTemplate uri, String resource, Set<String> ids,
+                                               Class<T> type, Function<T, String> idExtractor,
+                                               CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+        String joinedIds = String.join(",", ids);
+
+        return webClient.get()
+                .uri(uri.expand(joinedIds))
+                .httpRequest(request -> {
+                    // Bulk lookups return up to a full batch, so they get a longer budget than single ids.
+                    HttpClientRequest nativeRequest = request.getNativeRequest();
+                    nativeRequest.responseTimeout(bulkResponseTimeout);
+                })
+                .retrieve()
+                .onStatus(
+                        HttpStatusCode::isError,
+                        response -> Mono.error(new ExternalApiException(
+                                String.format("Error while retrieving %s %s. Status: %s", resource, joinedIds, response.statusCode())
+                        ))
                 )
-                .doOnSubscribe(s -> log.info("Fetching product {}", productId))
-                .doOnError(e -> log.error("Error fetching product {}: {}", productId, e.getMessage(), e));
+                .bodyToFlux(type)
+                .collectMap(idExtractor)
+                .transform(call -> guarded(call, circuitBreaker, bulkhead))
+                .transform(call -> withInlineRetry(call, throwable -> true))
+                .doOnSubscribe(s -> SAMPLED_LOG.debug("Fetching {} {}", ids.size(), resource))
+                .doOnError(e -> logFetchError(resource, joinedIds, e));
+    }
+
+    /**
+     * Each attempt takes a bulkhead permit and a slot from the shared adaptive limiter, and is
+     * recorded by the endpoint's breaker. Cache hits never reach here, so an open circuit only
+     * affects ids that actually need go-api.
+     */
+    private <T> Mono<T> guarded(Mono<T> call, CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+        return call.transform(BulkheadOperator.of(bulkhead))
+                .transform(concurrencyLimiter::execute)
+                .transform(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    private <T> Mono<T> withInlineRetry(Mono<T> call, Predicate<? super Throwable> retryable) {
+        if (retryProperties.isTopicMode()) {
+            // Retry topics re-drive transient failures later instead of holding the order here.
+            return call;
+        }
+        return call.retryWhen(
+                Retry.backoff(
+                                retryProperties.getMaxAttempts(),
+                                Duration.ofMillis(retryProperties.getInitialIntervalMs())
+                        )
+                        .jitter(0.5)
+                        .transientErrors(true)
+                        .filter(throwable -> !isRejected(throwable) && retryable.test(throwable))
+        );
     }
-}
 
+    private static void logFetchError(String resource, String ids, Throwable e) {
+        if (isRejected(e)) {
+            SAMPLED_LOG.debug("Rejected {} lookup: {}", resource, e.getMessage());
+            return;
+        }
+        log.error("Error fetching {} {}: {}", resource, ids, e.getMessage(), e);
+    }
+
+    private static boolean isRejected(Throwable throwable) {
+        // Open circuits, full bulkheads and shed calls fail fast; retrying them in place would only add load.
+        return throwable instanceof CallNotPermittedException
+                || throwable instanceof BulkheadFullException
+                || throwable instanceof ConcurrencyLimitExceededException;
+    }
+}
@@ -0,0 +1,82 @@
+package com.cristhianfdx.orderworker.provider;
+
+import com.cristhianfdx.orderworker.config.EnrichmentProperties.BatchSpec;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Collapses single-id lookups from all in-flight orders into deduplicated bulk calls.
+ * A batch is dispatched when it reaches {@code maxSize} ids or {@code windowMs} elapses,
+ * and every caller receives only its own result.
+ */
+@Slf4j
+public class MicroBatcher<V> {
+
+    private final Sinks.Many<Request<V>> requests = Sinks.many().unicast().onBackpressureBuffer();
+    private final Function<Set<String>, Mono<Map<String, V>>> bulkLoader;
+    private final Function<String, ? extends RuntimeException> notFound;
+    private final Disposable subscription;
+
+    public MicroBatcher(BatchSpec spec,
+                        Function<Set<String>, Mono<Map<String, V>>> bulkLoader,
+                        Function<String, ? extends RuntimeException> notFound) {
+        this.bulkLoader = bulkLoader;
+        this.notFound = notFound;
+        this.subscription = requests.asFlux()
+                .bufferTimeout(spec.getMaxSize(), Duration.ofMillis(spec.getWindowMs()), true)
+                // Keeps demand on bufferTimeout unbounded: with only the flatMap's bounded demand it
+                // can hold a partial batch past its window until the next request arrives.
+                .onBackpressureBuffer()
+                .flatMap(this::dispatch, spec.getMaxConcurrentBatches())
+                .subscribe(null, e -> log.error("Micro-batcher terminated unexpectedly", e));
+    }
+
+    public Mono<V> load(String id) {
+        return Mono.defer(() -> {
+            Sinks.One<V> result = Sinks.one();
+            Sinks.EmitResult emitted;
+            synchronized (requests) {
+                emitted = requests.tryEmitNext(new Request<>(id, result));
+            }
+            if (emitted.isFailure()) {
+                return Mono.error(new IllegalStateException("Batch request rejected for id " + id + ": " + emitted));
+            }
+            return result.asMono();
+        });
+    }
+
+    public void dispose() {
+        subscription.dispose();
+    }
+
+    private Mono<Void> dispatch(List<Request<V>> batch) {
+        Set<String> ids = new LinkedHashSet<>();
+        batch.forEach(request -> ids.add(request.id()));
+
+        return Mono.defer(() -> bulkLoader.apply(ids))
+                .defaultIfEmpty(Map.of())
+                .doOnNext(found -> batch.forEach(request -> {
+                    V value = found.get(request.id());
+                    if (value != null) {
+                        request.result().tryEmitValue(value);
+                    } else {
+                        request.result().tryEmitError(notFound.apply(request.id()));
+                    }
+                }))
+                .doOnError(e -> batch.forEach(request -> request.result().tryEmitError(e)))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    private record Request<V>(String id, Sinks.One<V> result) {
+    }
+}
@@ -0,0 +1,214 @@
+package com.cristhianfdx.orderworker.provider;
+
+import com.cristhianfdx.orderworker.config.EnrichmentProperties;
+import com.cristhianfdx.orderworker.config.ExternalAPIProperties;
+import com.cristhianfdx.orderworker.dto.ProductDTO;
+import com.cristhianfdx.orderworker.exceptions.ExternalApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Local snapshot of the whole go-api product catalog. The first snapshot is loaded before
+ * the Kafka listeners start, so a freshly scaled-out worker enriches its first orders without
+ * a round trip per product. It is then re-fetched every
+ * {@code app.enrichment.catalog.refresh-interval-ms} with the last ETag, so an unchanged
+ * catalog costs a 304. Ids missing from the snapshot still go through the cached lookup in
+ * {@link EnrichmentClient}.
+ */
+@Slf4j
+@Component
+public class ProductCatalog implements SmartLifecycle {
+
+    /** Just ahead of the Kafka listener containers, which use the container default phase. */
+    public static final int PHASE = AbstractMessageListenerContainer.DEFAULT_PHASE - 100;
+
+    public static final String SIZE_GAUGE = "order.enrichment.catalog.size";
+    public static final String REFRESH_COUNTER = "order.enrichment.catalog.refresh";
+
+    private final WebClient webClient;
+    private final EnrichmentCache<ProductDTO> productCache;
+    private final SharedEnrichmentCache<ProductDTO> productSharedCache;
+    private final EnrichmentProperties.Catalog properties;
+    private final String catalogUrl;
+    private final Counter updated;
+    private final Counter unchanged;
+    private final Counter failed;
+
+    private volatile Map<String, ProductDTO> products = Map.of();
+    private volatile String etag;
+    private volatile boolean warm;
+    private volatile Disposable refresher;
+
+    public ProductCatalog(WebClient webClient,
+                          ExternalAPIProperties externalAPIProperties,
+                          EnrichmentProperties enrichmentProperties,
+                          EnrichmentCache<ProductDTO> productCache,
+                          SharedEnrichmentCache<ProductDTO> productSharedCache,
+                          MeterRegistry meterRegistry) {
+        this.webClient = webClient;
+        this.productCache = productCache;
+        this.productSharedCache = productSharedCache;
+        this.properties = enrichmentProperties.getCatalog();
+        this.catalogUrl = externalAPIProperties.getProduct();
+        this.updated = refreshCounter(meterRegistry, "updated");
+        this.unchanged = refreshCounter(meterRegistry, "unchanged");
+        this.failed = refreshCounter(meterRegistry, "failed");
+        Gauge.builder(SIZE_GAUGE, this, catalog -> catalog.products.size())
+                .description("Products held in the local catalog snapshot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the snapshot entry for the id, or {@code null} when the catalog is disabled,
+     * not loaded yet or the product was added after the last refresh.
+     */
+    public ProductDTO find(String productId) {
+        return products.get(productId);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /** Whether at least one full snapshot has been loaded. */
+    public boolean isWarm() {
+        return warm;
+    }
+
+    public int size() {
+        return products.size();
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled() || isRunning()) {
+            return;
+        }
+        warmUp();
+        refresher = Flux.interval(Duration.ofMillis(properties.getRefreshIntervalMs()))
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh().onErrorResume(e -> {
+                    log.warn("Product catalog refresh failed, keeping {} cached products: {}", products.size(), e.getMessage());
+                    return Mono.empty();
+                }), 0)
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = refresher;
+        if (current != null) {
+            current.dispose();
+        }
+        refresher = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return refresher != null && !refresher.isDisposed();
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    void warmUp() {
+        long start = System.nanoTime();
+        try {
+            refresh()
+                    .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofMillis(500)).maxBackoff(Duration.ofSeconds(5)))
+                    .block(Duration.ofMillis(properties.getWarmUpTimeoutMs()));
+            log.info("Product catalog warmed up with {} products in {} ms", products.size(),
+                    Duration.ofNanos(System.nanoTime() - start).toMillis());
+        } catch (RuntimeException e) {
+            // Readiness stays down until a background refresh succeeds; lookups fall back to go-api meanwhile.
+            log.warn("Product catalog warm-up did not finish within {} ms, starting cold: {}",
+                    properties.getWarmUpTimeoutMs(), e.getMessage());
+        }
+    }
+
+    /** Fetches the catalog unless go-api reports it unchanged since the last snapshot. */
+    Mono<Void> refresh() {
+        return Mono.defer(() -> {
+                    String knownTag = etag;
+                    return webClient.get()
+                            .uri(catalogUrl)
+                            .headers(headers -> {
+                                if (knownTag != null) {
+                                    headers.setIfNoneMatch(knownTag);
+                                }
+                            })
+                            .exchangeToMono(response -> {
+                                if (response.statusCode() == HttpStatus.NOT_MODIFIED) {
+                                    return response.releaseBody().then(Mono.fromRunnable(unchanged::increment));
+                                }
+                                if (response.statusCode().isError()) {
+                                    return response.releaseBody().then(Mono.error(new ExternalApiException(
+                                            String.format("Error while retrieving product catalog. Status: %s", response.statusCode()))));
+                                }
+                                String newTag = response.headers().asHttpHeaders().getETag();
+                                return response.bodyToFlux(ProductDTO.class)
+                                        .collectMap(ProductDTO::getId)
+                                        .flatMap(snapshot -> apply(snapshot, newTag));
+                            });
+                })
+                .timeout(Duration.ofMillis(properties.getRequestTimeoutMs()))
+                .doOnError(e -> failed.increment());
+    }
+
+    private Mono<Void> apply(Map<String, ProductDTO> snapshot, String newTag) {
+        Map<String, ProductDTO> previous = products;
+        List<String> changed = snapshot.entrySet().stream()
+                .filter(entry -> !Objects.equals(previous.get(entry.getKey()), entry.getValue()))
+                .map(Map.Entry::getKey)
+                .toList();
+        List<String> removed = previous.keySet().stream()
+                .filter(id -> !snapshot.containsKey(id))
+                .toList();
+
+        products = Map.copyOf(snapshot);
+        etag = newTag;
+        boolean firstSnapshot = !warm;
+        warm = true;
+        updated.increment();
+        if (firstSnapshot || (changed.isEmpty() && removed.isEmpty())) {
+            return Mono.empty();
+        }
+
+        log.info("Product catalog refreshed: {} products, {} added or changed, {} removed",
+                snapshot.size(), changed.size(), removed.size());
+        // Removed ids fall through to the caches, which must not keep serving the old copy; changed ids
+        // are evicted as well for nodes running with the catalog disabled. The local cache is cleared
+        // here because the shared eviction, and the invalidation message it broadcasts to every node,
+        // does nothing when the shared cache is disabled.
+        List<String> stale = new ArrayList<>(changed);
+        stale.addAll(removed);
+        stale.forEach(productCache::invalidate);
+        return productSharedCache.evict(stale);
+    }
+
+    private static Counter refreshCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(REFRESH_COUNTER)
+                .description("Product catalog refreshes by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,26 @@
+package com.cristhianfdx.orderworker.provider;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the worker out of service until the product catalog has been loaded once, so
+ * the readiness probe (which includes {@code productCatalog}) only passes after warm-up.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductCatalogHealthIndicator implements HealthIndicator {
+
+    private final ProductCatalog productCatalog;
+
+    @Override
+    public Health health() {
+        if (!productCatalog.isEnabled()) {
+            return Health.up().withDetail("enabled", false).build();
+        }
+        Health.Builder health = productCatalog.isWarm() ? Health.up() : Health.outOfService();
+        return health.withDetail("products", productCatalog.size()).build();
+    }
+}
@@ -0,0 +1,126 @@
+package com.cristhianfdx.orderworker.provider;
+
+import com.cristhianfdx.orderworker.config.EnrichmentProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Hedges product lookups: when the primary request has not answered within the current
+ * latency percentile, one duplicate is sent and whichever answers first wins. Hedges draw
+ * from a token budget refilled by {@code budgetPercent} of every lookup, so the extra load
+ * on go-api stays bounded even when it is uniformly slow.
+ */
+@Component
+public class RequestHedger {
+
+    public static final String LATENCY_TIMER = "order.enrichment.hedge.primary.latency";
+    public static final String DELAY_GAUGE = "order.enrichment.hedge.delay";
+    public static final String HEDGES_COUNTER = "order.enrichment.hedge.sent";
+
+    private static final long DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long MILLI_TOKENS = 1000;
+
+    private final EnrichmentProperties.Hedge properties;
+    private final Timer latency;
+    private final Counter hedges;
+    private final long depositMilliTokens;
+    private final long maxMilliTokens;
+
+    private long milliTokens;
+    private volatile long delayNanos;
+    private volatile long nextRefreshNanos;
+
+    public RequestHedger(EnrichmentProperties enrichmentProperties, MeterRegistry meterRegistry) {
+        this.properties = enrichmentProperties.getHedge();
+        this.latency = Timer.builder(LATENCY_TIMER)
+                .description("Latency of primary (non-hedged) product lookups")
+                .publishPercentiles(properties.getPercentile())
+                .register(meterRegistry);
+        this.hedges = Counter.builder(HEDGES_COUNTER)
+                .description("Duplicate product lookups sent after the hedge delay")
+                .register(meterRegistry);
+        Gauge.builder(DELAY_GAUGE, this, hedger -> hedger.delayNanos / 1_000_000.0)
+                .description("Current hedge delay in milliseconds")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+
+        this.depositMilliTokens = Math.round(properties.getBudgetPercent() / 100 * MILLI_TOKENS);
+        this.maxMilliTokens = properties.getMaxBurst() * MILLI_TOKENS;
+        this.milliTokens = maxMilliTokens;
+        this.delayNanos = TimeUnit.MILLISECONDS.toNanos(properties.getInitialDelayMs());
+        this.nextRefreshNanos = System.nanoTime();
+    }
+
+    public <T> Mono<T> hedge(Supplier<Mono<T>> call) {
+        if (!properties.isEnabled()) {
+            return call.get();
+        }
+        return Mono.defer(() -> {
+            deposit();
+            long start = System.nanoTime();
+            Mono<T> primary = call.get()
+                    .doOnSuccess(value -> latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    // Cancelled because the hedge won: the primary took at least this long.
+                    .doOnCancel(() -> latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+
+            // A failed or unaffordable hedge never signals, so the primary's outcome decides.
+            Mono<T> hedged = Mono.delay(Duration.ofNanos(currentDelayNanos()))
+                    .flatMap(tick -> {
+                        if (!tryWithdraw()) {
+                            return Mono.never();
+                        }
+                        hedges.increment();
+                        return call.get().onErrorResume(e -> Mono.never());
+                    });
+
+            return Mono.firstWithSignal(primary, hedged);
+        });
+    }
+
+    long currentDelayNanos() {
+        long now = System.nanoTime();
+        if (now - nextRefreshNanos >= 0) {
+            nextRefreshNanos = now + DELAY_REFRESH_NANOS;
+            delayNanos = computeDelayNanos();
+        }
+        return delayNanos;
+    }
+
+    private long computeDelayNanos() {
+        long delay = TimeUnit.MILLISECONDS.toNanos(properties.getInitialDelayMs());
+        HistogramSnapshot snapshot = latency.takeSnapshot();
+        if (snapshot.count() >= properties.getMinSamples()) {
+            for (ValueAtPercentile value : snapshot.percentileValues()) {
+                // Zero means the rolling window is empty; keep the initial delay until it refills.
+                if (value.value() > 0) {
+                    delay = (long) value.value(TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+        return Math.clamp(delay,
+                TimeUnit.MILLISECONDS.toNanos(properties.getMinDelayMs()),
+                TimeUnit.MILLISECONDS.toNanos(properties.getMaxDelayMs()));
+    }
+
+    private synchronized void deposit() {
+        milliTokens = Math.min(maxMilliTokens, milliTokens + depositMilliTokens);
+    }
+
+    private synchronized boolean tryWithdraw() {
+        if (milliTokens < MILLI_TOKENS) {
+            return false;
+        }
+        milliTokens -= MILLI_TOKENS;
+        return true;
+    }
+}
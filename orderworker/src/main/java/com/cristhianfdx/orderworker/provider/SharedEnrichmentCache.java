@@ -0,0 +1,245 @@
+package com.cristhianfdx.orderworker.provider;
+
+import com.cristhianfdx.orderworker.config.EnrichmentCacheProperties.Shared;
+import com.cristhianfdx.orderworker.logging.SampledLogger;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Redis-backed L2 tier for enrichment lookups, shared by every worker node so that a
+ * customer or product is fetched from go-api once per TTL for the whole fleet rather than
+ * once per node. Values are stored as JSON under {@code <key-prefix><name>:<id>}.
+ * <p>
+ * The tier is best effort: Redis errors and timeouts count as misses, and failed writes are
+ * dropped, so a slow or unavailable Redis degrades to the single-tier behaviour.
+ */
+@Slf4j
+public class SharedEnrichmentCache<V> {
+
+    public static final String LOOKUP_COUNTER = "order.enrichment.shared.cache";
+
+    private static final SampledLogger SAMPLED_LOG = SampledLogger.of(log, Duration.ofSeconds(1));
+
+    private final String name;
+    private final Class<V> type;
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final String keyPrefix;
+    private final Duration ttl;
+    private final Duration timeout;
+    private final String invalidationChannel;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter errors;
+
+    SharedEnrichmentCache(String name, Class<V> type, Shared properties,
+                          ReactiveRedisTemplate<String, String> redisTemplate, ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry) {
+        this.name = name;
+        this.type = type;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.keyPrefix = properties.getKeyPrefix() + name + ":";
+        this.ttl = Duration.ofMillis(properties.getTtlMs());
+        this.timeout = Duration.ofMillis(properties.getTimeoutMs());
+        this.invalidationChannel = properties.getInvalidationChannel();
+        this.hits = lookupCounter(meterRegistry, name, "hit");
+        this.misses = lookupCounter(meterRegistry, name, "miss");
+        this.errors = lookupCounter(meterRegistry, name, "error");
+    }
+
+    public static <V> SharedEnrichmentCache<V> create(String name, Class<V> type, Shared properties,
+                                                      ReactiveRedisTemplate<String, String> redisTemplate,
+                                                      ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        if (!properties.isEnabled()) {
+            return disabled();
+        }
+        return new SharedEnrichmentCache<>(name, type, properties, redisTemplate, objectMapper, meterRegistry);
+    }
+
+    public static <V> SharedEnrichmentCache<V> disabled() {
+        return new SharedEnrichmentCache<>();
+    }
+
+    private SharedEnrichmentCache() {
+        this.name = null;
+        this.type = null;
+        this.redisTemplate = null;
+        this.objectMapper = null;
+        this.keyPrefix = null;
+        this.ttl = null;
+        this.timeout = null;
+        this.invalidationChannel = null;
+        this.hits = null;
+        this.misses = null;
+        this.errors = null;
+    }
+
+    public boolean isEnabled() {
+        return redisTemplate != null;
+    }
+
+    /**
+     * Wraps a single-id upstream loader: Redis first, then the loader, writing what it
+     * returns back to Redis. Returns the loader unchanged when the tier is disabled.
+     */
+    public Function<String, Mono<V>> readThrough(Function<String, Mono<V>> loader) {
+        if (!isEnabled()) {
+            return loader;
+        }
+        return id -> get(id)
+                .switchIfEmpty(Mono.defer(() -> loader.apply(id)
+                        .flatMap(value -> putAll(Map.of(id, value)).thenReturn(value))));
+    }
+
+    /**
+     * Wraps a bulk upstream loader: one MGET for the whole batch, the loader only for the
+     * ids Redis did not have, and one pipelined write of what it returned.
+     */
+    public Function<Set<String>, Mono<Map<String, V>>> readThroughBulk(
+            Function<Set<String>, Mono<Map<String, V>>> bulkLoader) {
+        if (!isEnabled()) {
+            return bulkLoader;
+        }
+        return ids -> getAll(ids).flatMap(cached -> {
+            if (cached.size() == ids.size()) {
+                return Mono.just(cached);
+            }
+            Set<String> missing = new LinkedHashSet<>(ids);
+            missing.removeAll(cached.keySet());
+            return bulkLoader.apply(missing).flatMap(loaded -> {
+                Map<String, V> result = new HashMap<>(cached);
+                result.putAll(loaded);
+                return putAll(loaded).thenReturn(result);
+            });
+        });
+    }
+
+    /** Blocking variant of {@link #readThrough} for the virtual-thread engine. */
+    public Function<String, V> readThroughBlocking(Function<String, V> loader) {
+        if (!isEnabled()) {
+            return loader;
+        }
+        return id -> {
+            V cached = get(id).block();
+            if (cached != null) {
+                return cached;
+            }
+            V value = loader.apply(id);
+            putAll(Map.of(id, value)).block();
+            return value;
+        };
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Mono<V> get(String id) {
+        return redisTemplate.opsForValue().get(key(id))
+                .timeout(timeout)
+                .map(this::decode)
+                .doOnNext(value -> hits.increment())
+                .switchIfEmpty(Mono.fromRunnable(misses::increment))
+                .onErrorResume(e -> failOpen("read", e, Mono.empty()));
+    }
+
+    /** Returns the ids found in Redis; missing ids are simply absent from the map. */
+    public Mono<Map<String, V>> getAll(Collection<String> ids) {
+        List<String> orderedIds = List.copyOf(ids);
+        return redisTemplate.opsForValue().multiGet(orderedIds.stream().map(this::key).toList())
+                .timeout(timeout)
+                .map(values -> {
+                    Map<String, V> found = new HashMap<>(values.size());
+                    for (int i = 0; i < values.size(); i++) {
+                        String value = values.get(i);
+                        if (value != null) {
+                            found.put(orderedIds.get(i), decode(value));
+                        }
+                    }
+                    hits.increment(found.size());
+                    misses.increment(orderedIds.size() - found.size());
+                    return found;
+                })
+                .onErrorResume(e -> failOpen("read", e, Mono.just(Map.of())));
+    }
+
+    /**
+     * Writes every entry with the shared TTL. The SETs are issued without waiting on each
+     * other, so Lettuce pipelines them on the shared connection.
+     */
+    public Mono<Void> putAll(Map<String, V> values) {
+        if (values.isEmpty()) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(values.entrySet())
+                .flatMap(entry -> redisTemplate.opsForValue().set(key(entry.getKey()), encode(entry.getValue()), ttl))
+                .timeout(timeout)
+                .then()
+                .onErrorResume(e -> failOpen("write", e, Mono.empty()));
+    }
+
+    /**
+     * Deletes the ids from Redis and tells every node to drop them from its local cache.
+     * Messages on the invalidation channel read {@code <name>:<id>[,<id>...]}.
+     */
+    public Mono<Void> evict(Collection<String> ids) {
+        if (!isEnabled() || ids.isEmpty()) {
+            return Mono.empty();
+        }
+        return redisTemplate.delete(Flux.fromIterable(ids).map(this::key))
+                .then(redisTemplate.convertAndSend(invalidationChannel, name + ":" + String.join(",", ids)))
+                .timeout(timeout)
+                .then()
+                .onErrorResume(e -> failOpen("evict", e, Mono.empty()));
+    }
+
+    private String key(String id) {
+        return keyPrefix + id;
+    }
+
+    private V decode(String json) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable " + name + " entry in shared cache", e);
+        }
+    }
+
+    private String encode(V value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize " + name + " for shared cache", e);
+        }
+    }
+
+    private <T> Mono<T> failOpen(String operation, Throwable e, Mono<T> fallback) {
+        errors.increment();
+        SAMPLED_LOG.warn("Shared cache {} failed, treating it as a miss: {}", name + " " + operation, e.toString());
+        return fallback;
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String name, String result) {
+        return Counter.builder(LOOKUP_COUNTER)
+                .description("Shared (Redis) enrichment cache lookups by result")
+                .tag("cache", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
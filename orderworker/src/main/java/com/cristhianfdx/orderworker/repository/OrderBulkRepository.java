@@ -0,0 +1,13 @@
+package com.cristhianfdx.orderworker.repository;
+
+import com.cristhianfdx.orderworker.model.Order;
+import reactor.core.publisher.Mono;
+
+public interface OrderBulkRepository {
+
+    /**
+     * Queues the order for the next unordered bulk insert and completes once the batch
+     * containing it has been acknowledged by Mongo.
+     */
+    Mono<Order> insertBuffered(Order order);
+}
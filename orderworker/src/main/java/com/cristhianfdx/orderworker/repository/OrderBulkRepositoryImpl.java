@@ -0,0 +1,153 @@
+package com.cristhianfdx.orderworker.repository;
+
+import com.cristhianfdx.orderworker.config.PersistenceProperties;
+import com.cristhianfdx.orderworker.exceptions.GeneralException;
+import com.cristhianfdx.orderworker.exceptions.OrderAlreadyExists;
+import com.cristhianfdx.orderworker.model.Order;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind buffer for {@link OrderRepository}. Orders are flushed as unordered bulk
+ * inserts once {@code app.persistence.bulk.batch-size} documents are queued or
+ * {@code linger-ms} elapses, and each caller completes with the outcome of its own document.
+ */
+@Slf4j
+public class OrderBulkRepositoryImpl implements OrderBulkRepository {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final PersistenceProperties.Bulk bulk;
+    private final Sinks.Many<PendingWrite> queue = Sinks.many().unicast().onBackpressureBuffer();
+    private final CompletableFuture<Void> drained;
+    private final DistributionSummary batchSize;
+    private final Timer flushTimer;
+
+    public OrderBulkRepositoryImpl(ReactiveMongoTemplate mongoTemplate,
+                                   PersistenceProperties persistenceProperties,
+                                   MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.bulk = persistenceProperties.getBulk();
+        this.batchSize = DistributionSummary.builder("order.bulk.batch.size")
+                .description("Orders per bulk insert")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("order.bulk.flush")
+                .description("Latency of bulk order inserts")
+                .register(meterRegistry);
+        this.drained = queue.asFlux()
+                .bufferTimeout(bulk.getBatchSize(), Duration.ofMillis(bulk.getLingerMs()), true)
+                .flatMap(this::flush, bulk.getMaxConcurrentFlushes())
+                .then()
+                .toFuture();
+    }
+
+    @Override
+    public Mono<Order> insertBuffered(Order order) {
+        if (!bulk.isEnabled()) {
+            return mongoTemplate.insert(order)
+                    .onErrorMap(DuplicateKeyException.class, e -> new OrderAlreadyExists(order.getOrderId()));
+        }
+        return Mono.defer(() -> {
+            Sinks.One<Order> result = Sinks.one();
+            Sinks.EmitResult emitted;
+            synchronized (queue) {
+                emitted = queue.tryEmitNext(new PendingWrite(order, result));
+            }
+            if (emitted.isFailure()) {
+                return Mono.error(new GeneralException("Order " + order.getOrderId() + " rejected by bulk writer: " + emitted));
+            }
+            return result.asMono();
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        synchronized (queue) {
+            queue.tryEmitComplete();
+        }
+        try {
+            drained.get(bulk.getShutdownTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("Bulk writer did not drain within {} ms", bulk.getShutdownTimeoutMs(), e);
+        }
+    }
+
+    private Mono<Void> flush(List<PendingWrite> batch) {
+        List<Order> orders = new ArrayList<>(batch.size());
+        batch.forEach(write -> orders.add(write.order()));
+        batchSize.record(batch.size());
+        Timer.Sample sample = Timer.start();
+
+        return mongoTemplate.bulkOps(BulkMode.UNORDERED, Order.class)
+                .insert(orders)
+                .execute()
+                .doOnNext(result -> batch.forEach(write -> write.result().tryEmitValue(write.order())))
+                .doOnError(e -> completeFailed(batch, e))
+                .doFinally(signal -> sample.stop(flushTimer))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    private void completeFailed(List<PendingWrite> batch, Throwable error) {
+        MongoBulkWriteException bulkError = findBulkWriteException(error);
+        if (bulkError == null) {
+            log.error("Bulk insert of {} orders failed", batch.size(), error);
+            batch.forEach(write -> write.result().tryEmitError(error));
+            return;
+        }
+
+        // Unordered inserts keep going after a failed document, so only the
+        // documents listed in the write errors are actually missing.
+        Map<Integer, BulkWriteError> failedByIndex = bulkError.getWriteErrors().stream()
+                .collect(Collectors.toMap(BulkWriteError::getIndex, Function.identity(), (a, b) -> a));
+        for (int i = 0; i < batch.size(); i++) {
+            PendingWrite write = batch.get(i);
+            BulkWriteError writeError = failedByIndex.get(i);
+            if (writeError == null) {
+                write.result().tryEmitValue(write.order());
+            } else {
+                write.result().tryEmitError(toException(write.order(), writeError));
+            }
+        }
+    }
+
+    private RuntimeException toException(Order order, BulkWriteError writeError) {
+        if (writeError.getCode() == DUPLICATE_KEY) {
+            return new OrderAlreadyExists(order.getOrderId());
+        }
+        return new GeneralException(String.format("Failed to insert order %s: %s (code %d)",
+                order.getOrderId(), writeError.getMessage(), writeError.getCode()));
+    }
+
+    private static MongoBulkWriteException findBulkWriteException(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof MongoBulkWriteException bulkWriteException) {
+                return bulkWriteException;
+            }
+        }
+        return null;
+    }
+
+    private record PendingWrite(Order order, Sinks.One<Order> result) {
+    }
+}
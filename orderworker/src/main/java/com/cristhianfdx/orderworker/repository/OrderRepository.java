@@ -3,7 +3,11 @@ package com.cristhianfdx.orderworker.repository;
 import com.cristhianfdx.orderworker.model.Order;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
 
 @Repository
-public interface OrderRepository extends ReactiveMongoRepository<Order, String> {
+public interface OrderRepository extends ReactiveMongoRepository<Order, String>, OrderBulkRepository {
+
+    /** Answered from the unique orderId index with a one-document, _id-only read. */
+    Mono<Boolean> existsByOrderId(String orderId);
 }
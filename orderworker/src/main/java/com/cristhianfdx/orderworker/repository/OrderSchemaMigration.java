@@ -0,0 +1,126 @@
+package com.cristhianfdx.orderworker.repository;
+
+import com.cristhianfdx.orderworker.config.PersistenceProperties;
+import com.cristhianfdx.orderworker.model.Order;
+import com.mongodb.client.result.UpdateResult;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Rewrites orders saved before the compact document format into it, once, before anything
+ * reads them: {@code orderId}, {@code customerId} and {@code products} become {@code oid},
+ * {@code cid} and {@code p}, every line's decimal {@code price} becomes {@code pm} in minor
+ * units, and the {@code tot} and {@code ts} fields the old format never had are backfilled,
+ * the timestamp from the ObjectId. Applied versions are recorded in
+ * {@code schema_migrations}, and the update only matches documents still in the old shape,
+ * so workers starting together or a rerun after a failure are both safe.
+ * <p>
+ * The unique orderId index is partial on {@code oid} existing, so it can be built before
+ * this has run. Old data with duplicate orderIds makes the update fail on the first
+ * duplicate key; the error is logged, no version is recorded, and the remaining orders are
+ * retried on the next start once the duplicates are resolved.
+ */
+@Slf4j
+@Component
+public class OrderSchemaMigration implements SmartLifecycle {
+
+    /** Ahead of the dedup filter rebuild (listener phase - 100), which reads the migrated orderIds. */
+    public static final int PHASE = AbstractMessageListenerContainer.DEFAULT_PHASE - 200;
+
+    static final String MIGRATIONS_COLLECTION = "schema_migrations";
+    static final String VERSION = "001-compact-order-fields";
+
+    static final Document LEGACY_ORDERS = new Document("orderId", new Document("$exists", true));
+
+    /** go-api prices carry two decimals, so rounding price * 100 never meets a half-cent tie. */
+    static final List<Document> COMPACT_ORDER_FIELDS = List.of(
+            new Document("$set", new Document()
+                    .append("oid", "$orderId")
+                    .append("cid", "$customerId")
+                    .append("ts", new Document("$cond", List.of(
+                            new Document("$eq", List.of(new Document("$type", "$_id"), "objectId")),
+                            new Document("$toDate", "$_id"),
+                            "$$NOW")))
+                    .append("p", new Document("$map", new Document()
+                            .append("input", new Document("$ifNull", List.of("$products", List.of())))
+                            .append("as", "line")
+                            .append("in", new Document()
+                                    .append("pid", "$$line.productId")
+                                    .append("n", "$$line.name")
+                                    .append("pm", new Document("$toLong", new Document("$round", List.of(
+                                            new Document("$multiply", List.of(
+                                                    new Document("$ifNull", List.of("$$line.price", 0)), 100)),
+                                            0)))))))),
+            new Document("$set", new Document("tot", new Document("$sum", "$p.pm"))),
+            new Document("$unset", List.of("orderId", "customerId", "products")));
+
+    private final PersistenceProperties.Migration properties;
+    private final ReactiveMongoOperations mongoOperations;
+
+    private volatile boolean running;
+
+    public OrderSchemaMigration(PersistenceProperties persistenceProperties, ReactiveMongoOperations mongoOperations) {
+        this.properties = persistenceProperties.getMigration();
+        this.mongoOperations = mongoOperations;
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            migrate().block(Duration.ofMillis(properties.getTimeoutMs()));
+        } catch (RuntimeException e) {
+            log.error("Order schema migration {} failed and is retried on the next start; until then orders "
+                    + "in the old format are not found by orderId: {}", VERSION, e.toString());
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /** Emits how many orders were rewritten, 0 when the version was already applied. */
+    Mono<Long> migrate() {
+        Query applied = Query.query(Criteria.where("_id").is(VERSION));
+        return mongoOperations.exists(applied, MIGRATIONS_COLLECTION)
+                .flatMap(done -> done
+                        ? Mono.just(0L)
+                        : mongoOperations.getCollection(mongoOperations.getCollectionName(Order.class))
+                        .flatMap(orders -> Mono.from(orders.updateMany(LEGACY_ORDERS, COMPACT_ORDER_FIELDS)))
+                        .map(UpdateResult::getModifiedCount)
+                        .flatMap(migrated -> mongoOperations.upsert(applied,
+                                        Update.update("appliedAt", Instant.now()).set("orders", migrated),
+                                        MIGRATIONS_COLLECTION)
+                                .doOnSuccess(result -> log.info("Order schema migration {} rewrote {} orders", VERSION, migrated))
+                                .thenReturn(migrated)));
+    }
+}
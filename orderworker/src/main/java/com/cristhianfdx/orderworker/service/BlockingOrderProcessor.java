@@ -0,0 +1,248 @@
+package com.cristhianfdx.orderworker.service;
+
+import com.cristhianfdx.orderworker.config.ProcessingProperties;
+import com.cristhianfdx.orderworker.config.RetryProperties;
+import com.cristhianfdx.orderworker.dto.CustomerDTO;
+import com.cristhianfdx.orderworker.dto.CustomerStatusEnum;
+import com.cristhianfdx.orderworker.dto.OrderMessageDTO;
+import com.cristhianfdx.orderworker.exceptions.InactiveCustomerException;
+import com.cristhianfdx.orderworker.kafka.RetryTopicRouter;
+import com.cristhianfdx.orderworker.logging.SampledLogger;
+import com.cristhianfdx.orderworker.metrics.PipelineMetrics;
+import com.cristhianfdx.orderworker.model.Order;
+import com.cristhianfdx.orderworker.model.Product;
+import com.cristhianfdx.orderworker.provider.BlockingEnrichmentClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Blocking twin of {@link OrderProcessorService} for the virtual-thread engine: the same
+ * enrich, save and failure-routing steps, written as plain calls that park the calling
+ * virtual thread instead of composing publishers. Mongo, the dedup filter and the failure
+ * store are all reached through their blocking clients.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.ingestion.mode", havingValue = "blocking")
+public class BlockingOrderProcessor {
+
+    private static final SampledLogger SAMPLED_LOG = SampledLogger.of(log, Duration.ofSeconds(1));
+    private static final Duration LOCK_DURATION = Duration.ofMinutes(1);
+
+    private final BlockingEnrichmentClient enrichmentClient;
+    private final MongoOperations mongoOperations;
+    private final StringRedisTemplate redisTemplate;
+    private final FailedMessageService failedMessageService;
+    /** Only present with {@code app.retry.mode=topics}. */
+    private final ObjectProvider<RetryTopicRouter> retryTopicRouter;
+    private final ObjectMapper objectMapper;
+    private final ProcessingProperties processingProperties;
+    private final RetryProperties retryProperties;
+    private final PipelineMetrics pipelineMetrics;
+    private final ProcessedOrderFilter processedOrderFilter;
+    private final ReentrantLock[] lanes;
+
+    public BlockingOrderProcessor(BlockingEnrichmentClient enrichmentClient,
+                                  MongoOperations mongoOperations,
+                                  StringRedisTemplate redisTemplate,
+                                  FailedMessageService failedMessageService,
+                                  ObjectProvider<RetryTopicRouter> retryTopicRouter,
+                                  ObjectMapper objectMapper,
+                                  ProcessingProperties processingProperties,
+                                  RetryProperties retryProperties,
+                                  PipelineMetrics pipelineMetrics,
+                                  ProcessedOrderFilter processedOrderFilter) {
+        this.enrichmentClient = enrichmentClient;
+        this.mongoOperations = mongoOperations;
+        this.redisTemplate = redisTemplate;
+        this.failedMessageService = failedMessageService;
+        this.retryTopicRouter = retryTopicRouter;
+        this.objectMapper = objectMapper;
+        this.processingProperties = processingProperties;
+        this.retryProperties = retryProperties;
+        this.pipelineMetrics = pipelineMetrics;
+        this.processedOrderFilter = processedOrderFilter;
+        // ReentrantLock parks virtual threads without pinning their carrier, unlike synchronized.
+        this.lanes = new ReentrantLock[processingProperties.getLanes()];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Processes an order unless it was already saved, asking the same filter-then-index gate
+     * as {@link OrderProcessorService#processOrder} so redeliveries are skipped here too.
+     */
+    public void processOrder(OrderMessageDTO orderMessage) {
+        if (processedOrderFilter.isEnabled() && alreadySaved(orderMessage.getOrderId())) {
+            SAMPLED_LOG.info("Order {} already saved, skipping it", orderMessage.getOrderId());
+            return;
+        }
+        pipelineMetrics.trackInFlightBlocking(() -> process(orderMessage));
+    }
+
+    /**
+     * Enriches without holding the order's lock, so a slow go-api call never blocks other
+     * orders on the same lane; only the saved check and the insert are serialized.
+     */
+    private void process(OrderMessageDTO orderMessage) {
+        try {
+            pipelineMetrics.timeBlocking("process", () -> {
+                Order order = enrichOrder(orderMessage);
+                return guarded(order.getOrderId(), () -> save(order));
+            });
+        } catch (RuntimeException e) {
+            handleProcessingError(orderMessage, e);
+        }
+    }
+
+    private <T> T guarded(String orderId, Supplier<T> step) {
+        if (processingProperties.isRedisLock()) {
+            return withRedisLock(orderId, step);
+        }
+        ReentrantLock lane = lanes[Math.floorMod(orderId.hashCode(), lanes.length)];
+        lane.lock();
+        try {
+            return step.get();
+        } finally {
+            lane.unlock();
+        }
+    }
+
+    private <T> T withRedisLock(String orderId, Supplier<T> step) {
+        String lockKey = "lock:" + orderId;
+        Boolean acquired = pipelineMetrics.timeBlocking("lock.acquire",
+                () -> redisTemplate.opsForValue().setIfAbsent(lockKey, "locked", LOCK_DURATION));
+        if (!Boolean.TRUE.equals(acquired)) {
+            log.warn("Lock not acquired for order {}", orderId);
+            return null;
+        }
+        try {
+            return step.get();
+        } finally {
+            pipelineMetrics.timeBlocking("lock.release", () -> redisTemplate.delete(lockKey));
+        }
+    }
+
+    /**
+     * Saves the order unless another delivery saved it while this one was enriching. The
+     * unique index on orderId stays the backstop: a duplicate insert is finished like an
+     * already-saved hit, not recorded as a failure.
+     */
+    private Order save(Order order) {
+        String orderId = order.getOrderId();
+        if (processedOrderFilter.isEnabled() && alreadySaved(orderId)) {
+            SAMPLED_LOG.info("Order {} already saved, skipping it", orderId);
+            return order;
+        }
+        if (pipelineMetrics.timeBlocking("order.save", () -> insert(order))) {
+            SAMPLED_LOG.info("Order {} saved successfully", orderId);
+        } else {
+            SAMPLED_LOG.info("Order {} already saved, skipping it", orderId);
+        }
+        processedOrderFilter.addBlocking(orderId);
+        return order;
+    }
+
+    /** Blocking counterpart of {@link OrderProcessorService#alreadySaved}. */
+    boolean alreadySaved(String orderId) {
+        if (!processedOrderFilter.mightContainBlocking(orderId)) {
+            return false;
+        }
+        try {
+            return pipelineMetrics.timeBlocking("dedup.lookup",
+                    () -> mongoOperations.exists(Query.query(Criteria.where("orderId").is(orderId)), Order.class));
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /** Blocking counterpart of {@link OrderProcessorService}'s failure handling. */
+    private void handleProcessingError(OrderMessageDTO message, Throwable e) {
+        log.error("Failed to process order {}: {}", message.getOrderId(), e.getMessage(), e);
+        boolean retryable = !OrderProcessorService.shouldNotRetry(e);
+        try {
+            String payload = objectMapper.writeValueAsString(message);
+            if (retryProperties.isTopicMode()) {
+                retryTopicRouter.getObject().routeBlocking(message.getOrderId(), payload, e, retryable);
+                return;
+            }
+            int retryCount = failedMessageService.recordFailureBlocking(message.getOrderId(), payload, e.getMessage(), retryable);
+            if (retryable && retryCount >= retryProperties.getMaxAttempts()) {
+                log.error("Max retries reached for order {}. Skipping.", message.getOrderId());
+            }
+        } catch (Exception recordEx) {
+            log.error("Could not record failure of order {}: {}", message.getOrderId(), recordEx.getMessage(), recordEx);
+        }
+    }
+
+    private Order enrichOrder(OrderMessageDTO message) {
+        CustomerDTO customer = pipelineMetrics.timeBlocking("customer.fetch",
+                () -> enrichmentClient.getCustomerById(message.getCustomerId()));
+        if (customer.getStatus() != CustomerStatusEnum.ACTIVE) {
+            throw new InactiveCustomerException(customer.getId());
+        }
+        List<Product> products = pipelineMetrics.timeBlocking("product.fanout", () -> fetchProducts(message.getProducts()));
+        return OrderMapper.toOrder(message, products);
+    }
+
+    /**
+     * Fetches every product on its own virtual thread. The executor is scoped to this call:
+     * the first failure cancels the remaining lookups and closing it waits for all of them,
+     * which is the shape of a structured task scope without needing preview APIs.
+     */
+    private List<Product> fetchProducts(List<String> productIds) {
+        try (ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Product>> lookups = new ArrayList<>(productIds.size());
+            for (String productId : productIds) {
+                lookups.add(scope.submit(() -> OrderMapper.toProduct(enrichmentClient.getProductById(productId))));
+            }
+
+            List<Product> products = new ArrayList<>(lookups.size());
+            for (Future<Product> lookup : lookups) {
+                try {
+                    products.add(lookup.get());
+                } catch (ExecutionException e) {
+                    lookups.forEach(pending -> pending.cancel(true));
+                    throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    lookups.forEach(pending -> pending.cancel(true));
+                    throw new IllegalStateException("Interrupted while fetching products", e);
+                }
+            }
+            return products;
+        }
+    }
+
+    /**
+     * False when the unique orderId index already holds the order, typically saved by another
+     * worker before a rebalance; like in the reactive engine, that is not a failure.
+     */
+    private boolean insert(Order order) {
+        try {
+            mongoOperations.insert(order);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+}
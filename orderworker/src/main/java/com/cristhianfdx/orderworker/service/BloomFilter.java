@@ -0,0 +1,105 @@
+package com.cristhianfdx.orderworker.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over string keys, sized from the expected number of keys and the
+ * target false-positive rate. A key is hashed once; its bit positions are derived from two
+ * 64-bit hashes as {@code h1 + i * h2}, which keeps the false-positive rate of k independent
+ * hash functions. Bits are only ever set, so puts and lookups from any thread need no lock.
+ * <p>
+ * The static sizing and {@link #positions} helpers are shared with the Redis-backed variant
+ * of {@link ProcessedOrderFilter}, which keeps the same bits in a Redis bitmap instead.
+ */
+public class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final long bitSize;
+    private final int hashFunctions;
+    private final AtomicLongArray words;
+    private final AtomicLong bitsSet = new AtomicLong();
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        this.bitSize = optimalBitSize(expectedInsertions, falsePositiveRate);
+        this.hashFunctions = optimalHashFunctions(expectedInsertions, bitSize);
+        this.words = new AtomicLongArray(Math.toIntExact((bitSize + 63) / 64));
+    }
+
+    public void put(String key) {
+        for (long position : positions(key, bitSize, hashFunctions)) {
+            int word = (int) (position >>> 6);
+            long mask = 1L << position;
+            long current = words.get(word);
+            while ((current & mask) == 0) {
+                long witness = words.compareAndExchange(word, current, current | mask);
+                if (witness == current) {
+                    bitsSet.incrementAndGet();
+                    break;
+                }
+                current = witness;
+            }
+        }
+    }
+
+    /** False means the key was never put; true means it probably was. */
+    public boolean mightContain(String key) {
+        for (long position : positions(key, bitSize, hashFunctions)) {
+            if ((words.get((int) (position >>> 6)) & (1L << position)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitSize() {
+        return bitSize;
+    }
+
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+
+    /** False-positive rate at the current fill, which exceeds the target once more keys than expected are put. */
+    public double expectedFalsePositiveRate() {
+        return Math.pow((double) bitsSet.get() / bitSize, hashFunctions);
+    }
+
+    public static long optimalBitSize(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Bloom filter needs expected insertions > 0 and a false-positive rate in (0, 1)");
+        }
+        return Math.max(64, (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (LN2 * LN2)));
+    }
+
+    public static int optimalHashFunctions(long expectedInsertions, long bitSize) {
+        return Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * LN2));
+    }
+
+    public static long[] positions(String key, long bitSize, int hashFunctions) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        long h1 = mix(hash);
+        long h2 = mix(hash ^ 0x9e3779b97f4a7c15L) | 1;
+
+        long[] positions = new long[hashFunctions];
+        for (int i = 0; i < hashFunctions; i++) {
+            positions[i] = Math.floorMod(h1 + i * h2, bitSize);
+        }
+        return positions;
+    }
+
+    /** MurmurHash3 finalizer: spreads the FNV-1a hash so nearby order ids land far apart. */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
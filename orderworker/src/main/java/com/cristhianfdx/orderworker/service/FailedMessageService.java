@@ -1,58 +1,120 @@
 package com.cristhianfdx.orderworker.service;
 
+import com.cristhianfdx.orderworker.config.RetryProperties;
 import com.cristhianfdx.orderworker.exceptions.GeneralException;
+import com.cristhianfdx.orderworker.metrics.PipelineMetrics;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.util.function.Tuple2;
 import reactor.util.function.Tuples;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class FailedMessageService {
 
-    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    static final String RETRY_COUNT = "retryCount";
+    static final String PAYLOAD = "payload";
+    static final String LAST_ERROR = "lastError";
+
     private static final String FAILED_MESSAGE_PREFIX = "failed-order:";
-    private static final String DELIMITER = "\\|";
-    private static final String DELIMITER_RAW = "|";
+    private static final String RETRY_SCHEDULE_KEY = "failed-orders:retry-schedule";
+    private static final RedisScript<Long> RECORD_FAILURE =
+            RedisScript.of(new ClassPathResource("scripts/record-failure.lua"), Long.class);
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final RedisScript<List<String>> CLAIM_DUE_RETRIES =
+            (RedisScript) RedisScript.of(new ClassPathResource("scripts/claim-due-retries.lua"), List.class);
 
-    public Mono<Void> storeFailedMessage(String orderId, String json, int retryCount) {
-        String key = buildKey(orderId);
-        String value = retryCount + DELIMITER_RAW + json;
-        return redisTemplate.opsForValue().set(key, value).then();
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final RetryProperties retryProperties;
+    private final PipelineMetrics pipelineMetrics;
+    /** The same store through the blocking client, for the virtual-thread engine. */
+    private final StringRedisTemplate blockingRedisTemplate;
+
+    /**
+     * Stores the payload and last error of a failed order and bumps its retry counter
+     * atomically. Retryable failures below {@code app.retry.max-attempts} are also
+     * scheduled on the retry sorted set with exponential backoff; terminal failures keep
+     * the counter unchanged and are taken off the schedule.
+     *
+     * @return the retry count after this failure
+     */
+    public Mono<Integer> recordFailure(String orderId, String payload, String error, boolean retryable) {
+        List<String> args = recordFailureArgs(orderId, payload, error, retryable, System.currentTimeMillis(), retryProperties);
+        return pipelineMetrics.time("failure.record", redisTemplate.execute(RECORD_FAILURE, List.of(buildKey(orderId), RETRY_SCHEDULE_KEY), args)
+                .next()
+                .map(Long::intValue));
     }
 
-    public Mono<Integer> incrementRetry(String orderId) {
-        String key = buildKey(orderId);
-        return redisTemplate.opsForValue().get(key)
-                .flatMap(value -> {
-                    String[] parts = value.split(DELIMITER, 2);
-                    if (parts.length < 2) {
-                        return Mono.error(new GeneralException("Malformed Redis value for key: " + key));
-                    }
-                    int newRetry = Integer.parseInt(parts[0]) + 1;
-                    String json = parts[1];
-                    String newValue = newRetry + DELIMITER_RAW + json;
-                    return redisTemplate.opsForValue().set(key, newValue)
-                            .thenReturn(newRetry);
-                });
+    /** Blocking counterpart of {@link #recordFailure}. */
+    public int recordFailureBlocking(String orderId, String payload, String error, boolean retryable) {
+        List<String> args = recordFailureArgs(orderId, payload, error, retryable, System.currentTimeMillis(), retryProperties);
+        Long retryCount = pipelineMetrics.timeBlocking("failure.record", () -> blockingRedisTemplate.execute(
+                RECORD_FAILURE, List.of(buildKey(orderId), RETRY_SCHEDULE_KEY), args.toArray()));
+        return retryCount == null ? 0 : retryCount.intValue();
     }
 
     public Mono<Tuple2<Integer, String>> getRetryAndMessage(String orderId) {
         String key = buildKey(orderId);
-        return redisTemplate.opsForValue().get(key)
-                .flatMap(value -> {
-                    String[] parts = value.split(DELIMITER, 2);
-                    if (parts.length < 2) {
-                        return Mono.error(new GeneralException("Malformed Redis value for key: " + key));
-                    }
-                    return Mono.just(Tuples.of(Integer.parseInt(parts[0]), parts[1]));
-                });
+        return redisTemplate.<String, String>opsForHash().multiGet(key, List.of(RETRY_COUNT, PAYLOAD))
+                .flatMap(values -> Mono.fromCallable(() -> decodeRetryAndMessage(key, values)));
+    }
+
+    /** Arguments of the record-failure script, in the order the script reads them. */
+    public static List<String> recordFailureArgs(String orderId, String payload, String error, boolean retryable,
+                                                 long nowMs, RetryProperties retryProperties) {
+        return List.of(
+                payload == null ? "" : payload,
+                error == null ? "" : error,
+                String.valueOf(nowMs),
+                retryable ? "1" : "0",
+                String.valueOf(retryProperties.getFailureTtlMs()),
+                orderId,
+                String.valueOf(retryProperties.getInitialIntervalMs()),
+                String.valueOf(retryProperties.getMultiplier()),
+                String.valueOf(retryProperties.getMaxAttempts())
+        );
+    }
+
+    /**
+     * Retry count and payload from the HMGET of {@link #RETRY_COUNT} and {@link #PAYLOAD};
+     * null once the failure hash has expired.
+     */
+    public static Tuple2<Integer, String> decodeRetryAndMessage(String key, List<String> values) {
+        if (values.get(0) == null && values.get(1) == null) {
+            return null;
+        }
+        if (values.get(0) == null || values.get(1) == null) {
+            throw new GeneralException("Malformed Redis value for key: " + key);
+        }
+        return Tuples.of(Integer.parseInt(values.get(0)), values.get(1));
+    }
+
+    /**
+     * Atomically leases up to {@code batchSize} orders whose next attempt is due.
+     */
+    public Flux<String> claimDueRetries(int batchSize, long leaseMs) {
+        List<String> args = List.of(
+                String.valueOf(System.currentTimeMillis()),
+                String.valueOf(batchSize),
+                String.valueOf(leaseMs)
+        );
+        return redisTemplate.execute(CLAIM_DUE_RETRIES, List.of(RETRY_SCHEDULE_KEY), args)
+                .flatMapIterable(orderIds -> orderIds);
     }
 
     public Mono<Void> removeFailedMessage(String orderId) {
-        return redisTemplate.delete(buildKey(orderId)).then();
+        return Mono.when(
+                redisTemplate.delete(buildKey(orderId)),
+                redisTemplate.opsForZSet().remove(RETRY_SCHEDULE_KEY, orderId)
+        );
     }
 
     private String buildKey(String orderId) {
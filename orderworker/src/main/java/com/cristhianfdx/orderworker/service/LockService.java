@@ -1,5 +1,6 @@
 package com.cristhianfdx.orderworker.service;
 
+import com.cristhianfdx.orderworker.metrics.PipelineMetrics;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.stereotype.Service;
@@ -12,13 +13,14 @@ import java.time.Duration;
 public class LockService {
 
     private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final PipelineMetrics pipelineMetrics;
 
     public Mono<Boolean> tryLock(String key, Duration ttl) {
-        return redisTemplate.opsForValue()
-                .setIfAbsent(key, "locked", ttl);
+        return pipelineMetrics.time("lock.acquire", redisTemplate.opsForValue()
+                .setIfAbsent(key, "locked", ttl));
     }
 
     public Mono<Void> releaseLock(String key) {
-        return redisTemplate.delete(key).then();
+        return pipelineMetrics.time("lock.release", redisTemplate.delete(key).then());
     }
 }
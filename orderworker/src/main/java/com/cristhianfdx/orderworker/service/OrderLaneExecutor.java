@@ -0,0 +1,73 @@
+package com.cristhianfdx.orderworker.service;
+
+import com.cristhianfdx.orderworker.config.ProcessingProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.function.Supplier;
+
+/**
+ * Hashes a key onto one of N serial lanes. Tasks sharing a key run one at a time in
+ * submission order, tasks on different lanes run in parallel.
+ */
+@Slf4j
+@Component
+public class OrderLaneExecutor {
+
+    private final Lane[] lanes;
+    private final Disposable.Composite subscriptions = Disposables.composite();
+
+    public OrderLaneExecutor(ProcessingProperties processingProperties) {
+        this.lanes = new Lane[Math.max(1, processingProperties.getLanes())];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane();
+            subscriptions.add(lanes[i].start());
+        }
+    }
+
+    public Mono<Void> execute(String key, Supplier<Mono<Void>> task) {
+        return Mono.deferContextual(context -> {
+            Sinks.Empty<Void> done = Sinks.empty();
+            // The lane subscribes to the work, so carry the caller's context over explicitly.
+            Mono<Void> work = Mono.defer(task)
+                    .contextWrite(context)
+                    .doOnSuccess(unused -> done.tryEmitEmpty())
+                    .doOnError(done::tryEmitError)
+                    .onErrorResume(e -> Mono.empty());
+
+            Sinks.EmitResult result = lanes[laneFor(key)].submit(work);
+            if (result.isFailure()) {
+                return Mono.error(new IllegalStateException("Lane rejected task for key " + key + ": " + result));
+            }
+            return done.asMono();
+        });
+    }
+
+    int laneFor(String key) {
+        return key == null ? 0 : Math.floorMod(key.hashCode(), lanes.length);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.dispose();
+    }
+
+    private static final class Lane {
+        private final Sinks.Many<Mono<Void>> queue = Sinks.many().unicast().onBackpressureBuffer();
+
+        Disposable start() {
+            return queue.asFlux()
+                    .concatMap(work -> work, 0)
+                    .subscribe(null, e -> log.error("Order lane terminated unexpectedly", e));
+        }
+
+        synchronized Sinks.EmitResult submit(Mono<Void> work) {
+            return queue.tryEmitNext(work);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.cristhianfdx.orderworker.service;
+
+import com.cristhianfdx.orderworker.dto.OrderMessageDTO;
+import com.cristhianfdx.orderworker.dto.ProductDTO;
+import com.cristhianfdx.orderworker.model.Order;
+import com.cristhianfdx.orderworker.model.Product;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Maps enriched lookups onto the persisted {@link Order} document.
+ */
+public final class OrderMapper {
+
+    /** go-api prices are decimal amounts with cent precision. */
+    private static final int MINOR_UNIT_DIGITS = 2;
+
+    private OrderMapper() {
+    }
+
+    public static Product toProduct(ProductDTO dto) {
+        return Product.builder()
+                .productId(dto.getId())
+                .name(dto.getName())
+                .priceMinor(toMinorUnits(dto.getPrice()))
+                .build();
+    }
+
+    public static Order toOrder(OrderMessageDTO message, List<Product> products) {
+        long total = 0;
+        for (Product product : products) {
+            total = Math.addExact(total, product.getPriceMinor());
+        }
+        return Order.builder()
+                .orderId(message.getOrderId())
+                .customerId(message.getCustomerId())
+                .createdAt(Instant.now())
+                .totalMinor(total)
+                .products(products)
+                .build();
+    }
+
+    static long toMinorUnits(double amount) {
+        // BigDecimal.valueOf goes through the shortest decimal string, so 19.99 becomes 1999 and not 1998.
+        return BigDecimal.valueOf(amount)
+                .movePointRight(MINOR_UNIT_DIGITS)
+                .setScale(0, RoundingMode.HALF_UP)
+                .longValueExact();
+    }
+}
@@ -1,12 +1,16 @@
 package com.cristhianfdx.orderworker.service;
 
+import com.cristhianfdx.orderworker.config.ProcessingProperties;
+import com.cristhianfdx.orderworker.config.RetryProperties;
 import com.cristhianfdx.orderworker.dto.CustomerStatusEnum;
 import com.cristhianfdx.orderworker.dto.OrderMessageDTO;
-import com.cristhianfdx.orderworker.dto.ProductDTO;
 import com.cristhianfdx.orderworker.exceptions.CustomerNotFoundException;
 import com.cristhianfdx.orderworker.exceptions.InactiveCustomerException;
 import com.cristhianfdx.orderworker.exceptions.OrderAlreadyExists;
 import com.cristhianfdx.orderworker.exceptions.ProductNotFoundException;
+import com.cristhianfdx.orderworker.kafka.RetryTopicRouter;
+import com.cristhianfdx.orderworker.logging.SampledLogger;
+import com.cristhianfdx.orderworker.metrics.PipelineMetrics;
 import com.cristhianfdx.orderworker.model.Order;
 import com.cristhianfdx.orderworker.model.Product;
 import com.cristhianfdx.orderworker.provider.EnrichmentClient;
@@ -14,19 +18,21 @@ import com.cristhianfdx.orderworker.repository.OrderRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.util.List;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OrderProcessorService {
 
-    private static final int MAX_RETRIES = 3;
+    private static final SampledLogger SAMPLED_LOG = SampledLogger.of(log, Duration.ofSeconds(1));
     private static final Duration LOCK_DURATION = Duration.ofMinutes(1);
 
     private final EnrichmentClient enrichmentClient;
@@ -34,8 +40,79 @@ public class OrderProcessorService {
     private final LockService lockService;
     private final FailedMessageService failedMessageService;
     private final ObjectMapper objectMapper;
-
+    private final OrderLaneExecutor orderLaneExecutor;
+    private final ProcessingProperties processingProperties;
+    private final RetryProperties retryProperties;
+    /** Only present with {@code app.retry.mode=topics}. */
+    private final ObjectProvider<RetryTopicRouter> retryTopicRouter;
+    private final PipelineMetrics pipelineMetrics;
+    private final ProcessedOrderFilter processedOrderFilter;
+
+    /**
+     * Processes an order unless it was already saved, which happens when Kafka redelivers it.
+     * {@link ProcessedOrderFilter} answers that for new orders without asking Mongo.
+     */
     public Mono<Void> processOrder(OrderMessageDTO orderMessage) {
+        if (!processedOrderFilter.isEnabled()) {
+            return execute(orderMessage, Mono.empty());
+        }
+        return unlessAlreadySaved(orderMessage, Mono.empty(), () -> execute(orderMessage, Mono.empty()));
+    }
+
+    /**
+     * Re-drives an order previously recorded by {@link FailedMessageService}. On success the
+     * failure record and its schedule entry are cleared; on failure the attempt is recorded
+     * again, which reschedules it with the next backoff step.
+     */
+    public Mono<Void> retryOrder(OrderMessageDTO orderMessage) {
+        Mono<Void> clearFailure = failedMessageService.removeFailedMessage(orderMessage.getOrderId());
+        return unlessAlreadySaved(orderMessage, clearFailure, () -> execute(orderMessage, clearFailure));
+    }
+
+    /**
+     * Replays an order taken from a retry topic, skipping it when an earlier attempt already
+     * saved it.
+     */
+    public Mono<Void> replayOrder(OrderMessageDTO orderMessage) {
+        return unlessAlreadySaved(orderMessage, Mono.empty(), () -> execute(orderMessage, Mono.empty()));
+    }
+
+    private Mono<Void> unlessAlreadySaved(OrderMessageDTO orderMessage, Mono<Void> onAlreadySaved,
+                                          Supplier<Mono<Void>> process) {
+        // A retried order may have been saved by an attempt whose outcome was lost (timeout, crash
+        // before the ack). A hit spares the go-api lookups and the duplicate-key failure record.
+        String orderId = orderMessage.getOrderId();
+        return alreadySaved(orderId)
+                .flatMap(saved -> {
+                    if (saved) {
+                        SAMPLED_LOG.info("Order {} already saved, skipping it", orderId);
+                        return onAlreadySaved;
+                    }
+                    return process.get();
+                });
+    }
+
+    /**
+     * Whether the order is already stored. The orderId index answers that without reading the
+     * document, and orders the filter has never seen skip even that lookup; a failed lookup
+     * counts as not saved, leaving the unique index as the backstop.
+     */
+    Mono<Boolean> alreadySaved(String orderId) {
+        return processedOrderFilter.mightContain(orderId)
+                .flatMap(maybeSaved -> maybeSaved
+                        ? pipelineMetrics.time("dedup.lookup", orderRepository.existsByOrderId(orderId)).onErrorReturn(false)
+                        : Mono.just(false));
+    }
+
+    private Mono<Void> execute(OrderMessageDTO orderMessage, Mono<Void> onSaved) {
+        if (processingProperties.isRedisLock()) {
+            return pipelineMetrics.trackInFlight(processWithRedisLock(orderMessage, onSaved));
+        }
+        return pipelineMetrics.trackInFlight(
+                orderLaneExecutor.execute(orderMessage.getOrderId(), () -> process(orderMessage, onSaved)));
+    }
+
+    private Mono<Void> processWithRedisLock(OrderMessageDTO orderMessage, Mono<Void> onSaved) {
         String lockKey = "lock:" + orderMessage.getOrderId();
 
         return lockService.tryLock(lockKey, LOCK_DURATION)
@@ -45,24 +122,30 @@ public class OrderProcessorService {
                         return Mono.empty();
                     }
 
-                    return orderRepository.findById(orderMessage.getOrderId())
-                            .flatMap(existing -> {
-                                log.info("Order {} already exists. Skipping processing.", orderMessage.getOrderId());
-                                return Mono.<Void>error(new OrderAlreadyExists(orderMessage.getOrderId()));
-                            })
-                            .switchIfEmpty(
-                                    enrichOrder(orderMessage)
-                                            .flatMap(orderRepository::save)
-                                            .doOnSuccess(o -> log.info("Order {} saved successfully", o.getOrderId()))
-                                            .then()
-                            )
-                            .onErrorResume(e -> handleProcessingError(orderMessage, e))
+                    return process(orderMessage, onSaved)
                             .doFinally(signal -> lockService.releaseLock(lockKey).subscribe());
                 });
     }
 
+    private Mono<Void> process(OrderMessageDTO orderMessage, Mono<Void> onSaved) {
+        // The unique index on orderId stays the backstop. A duplicate that gets past the filter
+        // check, typically one saved by another worker before a rebalance, is already stored:
+        // it is learned and finished like an already-saved hit, not recorded as a failure.
+        Mono<Void> pipeline = enrichOrder(orderMessage)
+                .flatMap(order -> pipelineMetrics.time("order.save", orderRepository.insertBuffered(order))
+                        .doOnNext(saved -> SAMPLED_LOG.info("Order {} saved successfully", saved.getOrderId()))
+                        .onErrorResume(OrderAlreadyExists.class, e -> {
+                            SAMPLED_LOG.info("Order {} already saved, skipping it", order.getOrderId());
+                            return Mono.just(order);
+                        }))
+                .flatMap(saved -> processedOrderFilter.add(saved.getOrderId()))
+                .then(onSaved);
+        return pipelineMetrics.time("process", pipeline)
+                .onErrorResume(e -> handleProcessingError(orderMessage, e));
+    }
+
     private Mono<Order> enrichOrder(OrderMessageDTO message) {
-        return enrichmentClient.getCustomerById(message.getCustomerId())
+        return pipelineMetrics.time("customer.fetch", enrichmentClient.getCustomerById(message.getCustomerId()))
                 .flatMap(customer -> {
                     if (customer.getStatus() != CustomerStatusEnum.ACTIVE) {
                         return Mono.error(new InactiveCustomerException(customer.getId()));
@@ -71,64 +154,41 @@ public class OrderProcessorService {
                 })
                 .flatMap(customer -> {
                     List<String> productIds = message.getProducts();
-                    return Flux.fromIterable(productIds)
+                    Mono<List<Product>> products = Flux.fromIterable(productIds)
                             .flatMap(enrichmentClient::getProductById)
-                            .map(this::buildProduct)
-                            .collectList()
-                            .map(products -> buildOrder(message, products));
+                            .map(OrderMapper::toProduct)
+                            .collectList();
+                    return pipelineMetrics.time("product.fanout", products)
+                            .map(enriched -> OrderMapper.toOrder(message, enriched));
                 });
     }
 
-    private Product buildProduct(ProductDTO dto) {
-        return Product.builder()
-                .productId(dto.getId())
-                .name(dto.getName())
-                .price(dto.getPrice())
-                .build();
-    }
-
-    private Order buildOrder(OrderMessageDTO message, List<Product> products) {
-        return Order.builder()
-                .orderId(message.getOrderId())
-                .customerId(message.getCustomerId())
-                .products(products)
-                .build();
-    }
-
     private Mono<Void> handleProcessingError(OrderMessageDTO message, Throwable e) {
         log.error("Failed to process order {}: {}", message.getOrderId(), e.getMessage(), e);
+        boolean retryable = !shouldNotRetry(e);
+
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(message))
+                .flatMap(payload -> retryProperties.isTopicMode()
+                        ? retryTopicRouter.getObject().route(message.getOrderId(), payload, e, retryable)
+                        : recordFailure(message, payload, e, retryable))
+                .onErrorResume(recordEx -> {
+                    log.error("Could not record failure of order {}: {}", message.getOrderId(), recordEx.getMessage(), recordEx);
+                    return Mono.empty();
+                });
+    }
 
-        if (shouldNotRetry(e)) {
-            return failedMessageService.storeFailedMessage(
-                    message.getOrderId(),
-                    e.getMessage(),
-                    0
-            );
-        }
-
-        return failedMessageService.incrementRetry(message.getOrderId())
-                .defaultIfEmpty(1)
-                .flatMap(retryCount -> {
-                    if (retryCount >= MAX_RETRIES) {
+    private Mono<Void> recordFailure(OrderMessageDTO message, String payload, Throwable e, boolean retryable) {
+        return failedMessageService.recordFailure(message.getOrderId(), payload, e.getMessage(), retryable)
+                .doOnNext(retryCount -> {
+                    if (retryable && retryCount >= retryProperties.getMaxAttempts()) {
                         log.error("Max retries reached for order {}. Skipping.", message.getOrderId());
-                        return Mono.empty();
                     }
-
-                    return failedMessageService.storeFailedMessage(
-                            message.getOrderId(),
-                            e.getMessage(),
-                            retryCount
-                    );
                 })
-                .onErrorResume(redisEx -> {
-                    log.error("Redis failure while handling order {}: {}", message.getOrderId(), redisEx.getMessage(), redisEx);
-                    return Mono.empty();
-                });
-
-
+                .then();
     }
 
-    private static boolean shouldNotRetry(Throwable e) {
+    // Shared with BlockingOrderProcessor so both engines classify failures the same way.
+    static boolean shouldNotRetry(Throwable e) {
         return e instanceof CustomerNotFoundException
                 || e instanceof ProductNotFoundException
                 || e instanceof InactiveCustomerException
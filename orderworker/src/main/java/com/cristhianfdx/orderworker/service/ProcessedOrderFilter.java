@@ -0,0 +1,350 @@
+package com.cristhianfdx.orderworker.service;
+
+import com.cristhianfdx.orderworker.config.ProcessingProperties;
+import com.cristhianfdx.orderworker.logging.SampledLogger;
+import com.cristhianfdx.orderworker.model.Order;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.connection.BitFieldSubCommands;
+import org.springframework.data.redis.connection.BitFieldSubCommands.BitFieldType;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Bloom filter of saved orderIds, so that the common case of a new order skips the Mongo
+ * existence check: a "not seen" answer is definite, and only a possible duplicate is
+ * confirmed against the orderId index. False positives cost one lookup. Every save adds
+ * the id, and the filter is rebuilt from the {@code orders} collection before the Kafka
+ * listeners start. Until that rebuild finishes every order counts as possibly seen.
+ * <p>
+ * With {@code app.processing.dedup.store=redis} the bits live in one Redis bitmap shared by
+ * all workers, so an order saved by one node is known to the others. The key embeds the
+ * filter size and hash count, so a resized filter starts from a fresh bitmap. The bit just
+ * past the filter marks the bitmap as rebuilt; living in the same key, it disappears with
+ * the bits if Redis evicts or loses them, and every check reads it, so a missing bitmap
+ * triggers a rebuild at the next start and answers "possibly seen" until then instead of
+ * "definitely new". Redis errors answer "possibly seen" as well and failed writes are
+ * dropped; the unique index on orderId still rejects any duplicate that slips through.
+ * <p>
+ * The {@code Blocking} variants answer the same way for the virtual-thread engine, reading
+ * the shared bitmap through the blocking Redis client.
+ */
+@Slf4j
+@Component
+public class ProcessedOrderFilter implements SmartLifecycle {
+
+    /** Just ahead of the Kafka listener containers, which use the container default phase. */
+    public static final int PHASE = AbstractMessageListenerContainer.DEFAULT_PHASE - 100;
+
+    public static final String CHECK_COUNTER = "order.dedup.filter.checks";
+    public static final String SIZE_GAUGE = "order.dedup.filter.size";
+    public static final String FALSE_POSITIVE_GAUGE = "order.dedup.filter.false.positive.rate";
+    public static final String READY_GAUGE = "order.dedup.filter.ready";
+    public static final String REBUILD_TIMER = "order.dedup.filter.rebuild";
+
+    private static final SampledLogger SAMPLED_LOG = SampledLogger.of(log, Duration.ofSeconds(1));
+    private static final BitFieldType BIT = BitFieldType.unsigned(1);
+    /** BITFIELD offsets are limited to 2^32 - 1, which is also where the built marker must fit. */
+    private static final long MAX_REDIS_BITS = (1L << 32) - 1;
+
+    private final ProcessingProperties.Dedup properties;
+    private final ReactiveMongoOperations mongoOperations;
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final StringRedisTemplate blockingRedisTemplate;
+    private final long bitSize;
+    private final int hashFunctions;
+    /** Local bits; null when the filter is kept in Redis. */
+    private final BloomFilter localFilter;
+    private final String redisKey;
+    private final Duration redisTimeout;
+    private final Counter definitelyNew;
+    private final Counter possiblySeen;
+    private final Counter bypassed;
+    private final Timer rebuildTimer;
+
+    private volatile boolean ready;
+    private volatile boolean running;
+    private volatile CompletableFuture<Long> rebuild;
+
+    public ProcessedOrderFilter(ProcessingProperties processingProperties,
+                                ReactiveMongoOperations mongoOperations,
+                                ReactiveRedisTemplate<String, String> redisTemplate,
+                                StringRedisTemplate blockingRedisTemplate,
+                                MeterRegistry meterRegistry) {
+        this.properties = processingProperties.getDedup();
+        this.mongoOperations = mongoOperations;
+        this.redisTemplate = redisTemplate;
+        this.blockingRedisTemplate = blockingRedisTemplate;
+        this.bitSize = BloomFilter.optimalBitSize(properties.getExpectedInsertions(), properties.getFalsePositiveRate());
+        this.hashFunctions = BloomFilter.optimalHashFunctions(properties.getExpectedInsertions(), bitSize);
+        if (properties.isEnabled() && properties.isRedisStore() && bitSize > MAX_REDIS_BITS) {
+            throw new IllegalArgumentException("Unsupported app.processing.dedup sizing for the redis store: "
+                    + bitSize + " bits exceed the " + MAX_REDIS_BITS + " a Redis bitmap can address; "
+                    + "lower expected-insertions or raise false-positive-rate");
+        }
+        this.localFilter = properties.isEnabled() && !properties.isRedisStore()
+                ? new BloomFilter(properties.getExpectedInsertions(), properties.getFalsePositiveRate())
+                : null;
+        this.redisKey = properties.getRedisKey() + ":" + bitSize + ":" + hashFunctions;
+        this.redisTimeout = Duration.ofMillis(properties.getRedisTimeoutMs());
+        this.definitelyNew = checkCounter(meterRegistry, "new");
+        this.possiblySeen = checkCounter(meterRegistry, "maybe");
+        this.bypassed = checkCounter(meterRegistry, "bypass");
+        this.rebuildTimer = Timer.builder(REBUILD_TIMER)
+                .description("Time to rebuild the dedup filter from saved orders")
+                .register(meterRegistry);
+        Gauge.builder(SIZE_GAUGE, this, filter -> filter.bitSize)
+                .description("Bits in the dedup filter")
+                .baseUnit("bits")
+                .register(meterRegistry);
+        Gauge.builder(FALSE_POSITIVE_GAUGE, properties, ProcessingProperties.Dedup::getFalsePositiveRate)
+                .description("Configured and current false-positive rate of the dedup filter")
+                .tag("kind", "target")
+                .register(meterRegistry);
+        if (localFilter != null) {
+            Gauge.builder(FALSE_POSITIVE_GAUGE, localFilter, BloomFilter::expectedFalsePositiveRate)
+                    .description("Configured and current false-positive rate of the dedup filter")
+                    .tag("kind", "current")
+                    .register(meterRegistry);
+        }
+        Gauge.builder(READY_GAUGE, this, filter -> filter.ready ? 1 : 0)
+                .description("Whether the dedup filter has been rebuilt and answers checks")
+                .register(meterRegistry);
+    }
+
+    /**
+     * False only when the order has definitely not been saved. Emits true while the filter
+     * is disabled or not rebuilt yet, and when Redis cannot answer.
+     */
+    public Mono<Boolean> mightContain(String orderId) {
+        if (!properties.isEnabled() || !ready) {
+            bypassed.increment();
+            return Mono.just(true);
+        }
+        Mono<Boolean> seen = localFilter != null
+                ? Mono.fromCallable(() -> localFilter.mightContain(orderId))
+                : redisMightContain(orderId);
+        return seen.doOnNext(maybe -> (maybe ? possiblySeen : definitelyNew).increment())
+                .onErrorResume(e -> {
+                    bypassed.increment();
+                    SAMPLED_LOG.warn("Dedup filter check failed for order {}, treating it as possibly seen: {}", orderId, e.toString());
+                    return Mono.just(true);
+                });
+    }
+
+    /** Records a saved order. Never fails: a lost write only costs a rejected duplicate insert later. */
+    public Mono<Void> add(String orderId) {
+        if (!properties.isEnabled()) {
+            return Mono.empty();
+        }
+        if (localFilter != null) {
+            return Mono.fromRunnable(() -> localFilter.put(orderId));
+        }
+        return redisSet(orderId)
+                .timeout(redisTimeout)
+                .onErrorResume(e -> {
+                    SAMPLED_LOG.warn("Dedup filter write failed for order {}: {}", orderId, e.toString());
+                    return Mono.empty();
+                });
+    }
+
+    /** Blocking counterpart of {@link #mightContain(String)}. */
+    public boolean mightContainBlocking(String orderId) {
+        if (!properties.isEnabled() || !ready) {
+            bypassed.increment();
+            return true;
+        }
+        boolean maybe;
+        try {
+            maybe = localFilter != null
+                    ? localFilter.mightContain(orderId)
+                    : seen(blockingRedisTemplate.opsForValue().bitField(redisKey, containsCommands(orderId)));
+        } catch (RuntimeException e) {
+            bypassed.increment();
+            SAMPLED_LOG.warn("Dedup filter check failed for order {}, treating it as possibly seen: {}", orderId, e.toString());
+            return true;
+        }
+        (maybe ? possiblySeen : definitelyNew).increment();
+        return maybe;
+    }
+
+    /** Blocking counterpart of {@link #add(String)}; never throws either. */
+    public void addBlocking(String orderId) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (localFilter != null) {
+            localFilter.put(orderId);
+            return;
+        }
+        try {
+            blockingRedisTemplate.opsForValue().bitField(redisKey, setCommands(orderId));
+        } catch (RuntimeException e) {
+            SAMPLED_LOG.warn("Dedup filter write failed for order {}: {}", orderId, e.toString());
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (!properties.isRebuildOnStartup()) {
+            ready = true;
+            return;
+        }
+        long started = System.nanoTime();
+        rebuild = rebuildFromSavedOrders()
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Dedup filter rebuild failed, retrying: {}", signal.failure().toString())))
+                .doOnNext(orders -> {
+                    long elapsed = System.nanoTime() - started;
+                    rebuildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                    ready = true;
+                    log.info("Dedup filter ({} bits, {} hashes, {}) rebuilt from {} saved orders in {} ms",
+                            bitSize, hashFunctions, properties.getStore(), orders, TimeUnit.NANOSECONDS.toMillis(elapsed));
+                })
+                .toFuture();
+        try {
+            rebuild.get(properties.getRebuildTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Dedup filter rebuild did not finish within {} ms, continuing in the background; "
+                    + "orders are checked against Mongo until it does", properties.getRebuildTimeoutMs());
+        } catch (ExecutionException e) {
+            log.warn("Dedup filter rebuild failed; orders are checked against Mongo: {}", e.getCause().toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void stop() {
+        CompletableFuture<Long> current = rebuild;
+        if (current != null) {
+            current.cancel(true);
+        }
+        rebuild = null;
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * Streams every saved orderId into the filter and emits how many were read. A shared
+     * bitmap that an earlier worker already rebuilt is left alone and reports -1; its built
+     * marker is only set once every orderId is in.
+     */
+    Mono<Long> rebuildFromSavedOrders() {
+        Query query = new Query().cursorBatchSize(properties.getRebuildBatchSize());
+        query.fields().include("orderId").exclude("id");
+        Mono<Long> load = mongoOperations.find(query, Order.class)
+                .map(Order::getOrderId)
+                .buffer(properties.getRebuildBatchSize())
+                .concatMap(orderIds -> addAll(orderIds).thenReturn((long) orderIds.size()))
+                .reduce(0L, Long::sum);
+        if (localFilter != null) {
+            return load;
+        }
+        long builtMarker = bitSize;
+        return redisTemplate.opsForValue().bitField(redisKey, BitFieldSubCommands.create().get(BIT).valueAt(builtMarker))
+                .flatMap(bits -> isSet(bits.get(0))
+                        ? Mono.just(-1L)
+                        : load.flatMap(orders -> redisTemplate.opsForValue()
+                        .bitField(redisKey, BitFieldSubCommands.create().set(BIT).valueAt(builtMarker).to(1))
+                        .thenReturn(orders)));
+    }
+
+    private Mono<Void> addAll(List<String> orderIds) {
+        if (localFilter != null) {
+            return Mono.fromRunnable(() -> orderIds.forEach(localFilter::put));
+        }
+        // Issued without waiting on each other, so Lettuce pipelines them on the shared connection.
+        return Flux.fromIterable(orderIds)
+                .flatMap(this::redisSet)
+                .then();
+    }
+
+    private Mono<Boolean> redisMightContain(String orderId) {
+        return redisTemplate.opsForValue().bitField(redisKey, containsCommands(orderId))
+                .timeout(redisTimeout)
+                .map(this::seen);
+    }
+
+    /** Reads the built marker first, then the order's bits. */
+    private BitFieldSubCommands containsCommands(String orderId) {
+        BitFieldSubCommands commands = BitFieldSubCommands.create().get(BIT).valueAt(bitSize);
+        for (long position : BloomFilter.positions(orderId, bitSize, hashFunctions)) {
+            commands = commands.get(BIT).valueAt(position);
+        }
+        return commands;
+    }
+
+    /** Answer to {@link #containsCommands}; a bitmap without its built marker cannot answer. */
+    private boolean seen(List<Long> bits) {
+        if (bits == null || !isSet(bits.get(0))) {
+            throw new IllegalStateException("Dedup bitmap " + redisKey + " is missing or not rebuilt");
+        }
+        return bits.stream().allMatch(ProcessedOrderFilter::isSet);
+    }
+
+    private static boolean isSet(Long bit) {
+        return bit != null && bit == 1L;
+    }
+
+    private Mono<Void> redisSet(String orderId) {
+        return redisTemplate.opsForValue().bitField(redisKey, setCommands(orderId)).then();
+    }
+
+    private BitFieldSubCommands setCommands(String orderId) {
+        BitFieldSubCommands commands = BitFieldSubCommands.create();
+        for (long position : BloomFilter.positions(orderId, bitSize, hashFunctions)) {
+            commands = commands.set(BIT).valueAt(position).to(1);
+        }
+        return commands;
+    }
+
+    private static Counter checkCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(CHECK_COUNTER)
+                .description("Dedup filter checks by answer")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
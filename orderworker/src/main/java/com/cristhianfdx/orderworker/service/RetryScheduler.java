@@ -0,0 +1,105 @@
+package com.cristhianfdx.orderworker.service;
+
+import com.cristhianfdx.orderworker.config.RetryProperties;
+import com.cristhianfdx.orderworker.dto.OrderMessageDTO;
+import com.cristhianfdx.orderworker.logging.SampledLogger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Re-drives failed orders once their backoff has elapsed. Every
+ * {@code app.retry.scheduler.poll-interval-ms} a batch of due orders is claimed from the
+ * Redis retry schedule and fed back into {@link OrderProcessorService} with at most
+ * {@code app.retry.scheduler.concurrency} retries in flight. Only runs with
+ * {@code app.retry.mode=redis}; in topic mode nothing is ever scheduled in Redis.
+ * <p>
+ * A poll that claimed anything logs one summary line; the per-order lines are sampled at
+ * debug level, since a backlog of failures would otherwise log every retried order.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.retry.mode", havingValue = "redis", matchIfMissing = true)
+@ConditionalOnProperty(name = "app.retry.scheduler.enabled", havingValue = "true", matchIfMissing = true)
+public class RetryScheduler implements SmartLifecycle {
+
+    private static final SampledLogger SAMPLED_LOG = SampledLogger.of(log, Duration.ofSeconds(1));
+
+    private final FailedMessageService failedMessageService;
+    private final OrderProcessorService orderProcessorService;
+    private final ObjectMapper objectMapper;
+    private final RetryProperties retryProperties;
+
+    private volatile Disposable subscription;
+
+    @Override
+    public void start() {
+        RetryProperties.Scheduler scheduler = retryProperties.getScheduler();
+        subscription = Flux.interval(Duration.ofMillis(scheduler.getPollIntervalMs()))
+                .onBackpressureDrop()
+                .concatMap(tick -> pollOnce(), 0)
+                .subscribe();
+        log.info("Retry scheduler started, polling every {} ms", scheduler.getPollIntervalMs());
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = subscription;
+        if (current != null) {
+            current.dispose();
+        }
+        subscription = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return subscription != null && !subscription.isDisposed();
+    }
+
+    Mono<Void> pollOnce() {
+        RetryProperties.Scheduler scheduler = retryProperties.getScheduler();
+        AtomicInteger claimed = new AtomicInteger();
+        return failedMessageService.claimDueRetries(scheduler.getBatchSize(), scheduler.getLeaseMs())
+                .doOnNext(orderId -> claimed.incrementAndGet())
+                .flatMap(this::retry, scheduler.getConcurrency())
+                .filter(Boolean::booleanValue)
+                .count()
+                .doOnNext(replayed -> {
+                    if (claimed.get() > 0) {
+                        log.info("Retry poll claimed {} due orders and replayed {}", claimed.get(), replayed);
+                    }
+                })
+                .onErrorResume(e -> {
+                    log.error("Failed to poll retry schedule: {}", e.getMessage(), e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /** Emits whether a stored payload was replayed. */
+    private Mono<Boolean> retry(String orderId) {
+        return failedMessageService.getRetryAndMessage(orderId)
+                .flatMap(retryAndMessage -> {
+                    SAMPLED_LOG.debug("Retrying order {} after {} failed attempts", orderId, retryAndMessage.getT1());
+                    return Mono.fromCallable(() -> objectMapper.readValue(retryAndMessage.getT2(), OrderMessageDTO.class))
+                            .flatMap(orderProcessorService::retryOrder)
+                            .thenReturn(true);
+                })
+                // The failure record expired before its turn came, nothing left to replay.
+                .switchIfEmpty(Mono.defer(() -> failedMessageService.removeFailedMessage(orderId).thenReturn(false)))
+                .onErrorResume(e -> {
+                    log.error("Retry of order {} failed: {}", orderId, e.getMessage(), e);
+                    return Mono.just(false);
+                });
+    }
+}
@@ -0,0 +1,13 @@
+-- Claims up to ARGV[2] orders whose next attempt is due. Claimed entries are pushed
+-- ARGV[3] millis into the future, so an order whose worker dies mid-retry becomes due
+-- again once that lease expires.
+-- KEYS[1]  retry schedule sorted set
+-- ARGV[1]  now (epoch millis)
+-- ARGV[2]  batch size
+-- ARGV[3]  lease in millis
+local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))
+local leaseUntil = tonumber(ARGV[1]) + tonumber(ARGV[3])
+for _, orderId in ipairs(due) do
+    redis.call('ZADD', KEYS[1], leaseUntil, orderId)
+end
+return due
@@ -0,0 +1,26 @@
+-- Records a processing failure for one order in a single round trip.
+-- KEYS[1]  failure hash (failed-order:<orderId>)
+-- KEYS[2]  retry schedule sorted set, scored by next attempt time
+-- ARGV[1]  original order payload
+-- ARGV[2]  last error message
+-- ARGV[3]  failure timestamp (epoch millis)
+-- ARGV[4]  retry increment (0 for terminal failures, 1 for retryable ones)
+-- ARGV[5]  record TTL in millis (0 keeps the record forever)
+-- ARGV[6]  orderId, member of the retry schedule
+-- ARGV[7]  initial retry interval in millis
+-- ARGV[8]  backoff multiplier
+-- ARGV[9]  max retry attempts
+local retryCount = redis.call('HINCRBY', KEYS[1], 'retryCount', tonumber(ARGV[4]))
+redis.call('HSET', KEYS[1], 'payload', ARGV[1], 'lastError', ARGV[2], 'lastFailedAt', ARGV[3])
+redis.call('HSETNX', KEYS[1], 'firstFailedAt', ARGV[3])
+if tonumber(ARGV[5]) > 0 then
+    redis.call('PEXPIRE', KEYS[1], ARGV[5])
+end
+
+if tonumber(ARGV[4]) > 0 and retryCount < tonumber(ARGV[9]) then
+    local delay = math.floor(tonumber(ARGV[7]) * (tonumber(ARGV[8]) ^ (retryCount - 1)))
+    redis.call('ZADD', KEYS[2], tonumber(ARGV[3]) + delay, ARGV[6])
+else
+    redis.call('ZREM', KEYS[2], ARGV[6])
+end
+return retryCount
@@ -0,0 +1,283 @@
+package com.cristhianfdx.orderworker.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.cristhianfdx.orderworker.avro.OrderMessage;
+import com.cristhianfdx.orderworker.config.EnrichmentProperties;
+import com.cristhianfdx.orderworker.config.ExternalAPIProperties;
+import com.cristhianfdx.orderworker.config.ProcessingProperties;
+import com.cristhianfdx.orderworker.config.RetryProperties;
+import com.cristhianfdx.orderworker.dto.CustomerDTO;
+import com.cristhianfdx.orderworker.dto.CustomerStatusEnum;
+import com.cristhianfdx.orderworker.dto.OrderMessageDTO;
+import com.cristhianfdx.orderworker.dto.ProductDTO;
+import com.cristhianfdx.orderworker.kafka.RetryTopicRouter;
+import com.cristhianfdx.orderworker.metrics.PipelineMetrics;
+import com.cristhianfdx.orderworker.model.Order;
+import com.cristhianfdx.orderworker.provider.AdaptiveConcurrencyLimiter;
+import com.cristhianfdx.orderworker.provider.BlockingEnrichmentClient;
+import com.cristhianfdx.orderworker.provider.EnrichmentCache;
+import com.cristhianfdx.orderworker.provider.EnrichmentClient;
+import com.cristhianfdx.orderworker.provider.ProductCatalog;
+import com.cristhianfdx.orderworker.provider.RequestHedger;
+import com.cristhianfdx.orderworker.provider.SharedEnrichmentCache;
+import com.cristhianfdx.orderworker.repository.OrderRepository;
+import com.cristhianfdx.orderworker.service.BlockingOrderProcessor;
+import com.cristhianfdx.orderworker.service.FailedMessageService;
+import com.cristhianfdx.orderworker.service.LockService;
+import com.cristhianfdx.orderworker.service.OrderLaneExecutor;
+import com.cristhianfdx.orderworker.service.OrderProcessorService;
+import com.cristhianfdx.orderworker.service.ProcessedOrderFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory stand-ins for the worker's I/O so the benchmarks measure only the code
+ * that runs on the order hot path.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static OrderMessageDTO orderMessage(int productCount) {
+        return OrderMessageDTO.builder()
+                .orderId("order-00042")
+                .customerId("customer-007")
+                .products(productIds(productCount))
+                .build();
+    }
+
+    /** {@link #orderMessage} in the Avro single-object encoding producers send on the orders topic. */
+    static byte[] avroOrderMessage(int productCount) throws IOException {
+        OrderMessageDTO message = orderMessage(productCount);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OrderMessage.getEncoder().encode(OrderMessage.newBuilder()
+                .setOrderId(message.getOrderId())
+                .setCustomerId(message.getCustomerId())
+                .setProducts(message.getProducts())
+                .build(), out);
+        return out.toByteArray();
+    }
+
+    static List<String> productIds(int productCount) {
+        return IntStream.range(0, productCount).mapToObj(i -> "product-" + i).toList();
+    }
+
+    static ProductDTO product(String productId) {
+        return ProductDTO.builder()
+                .id(productId)
+                .name("Product " + productId)
+                .description("Benchmark product")
+                .price(19.99)
+                .build();
+    }
+
+    static OrderProcessorService orderProcessorService(String lockMode, OrderLaneExecutor laneExecutor) {
+        return orderProcessorService(lockMode, laneExecutor, Duration.ZERO);
+    }
+
+    static OrderProcessorService orderProcessorService(String lockMode, OrderLaneExecutor laneExecutor,
+                                                       Duration upstreamLatency) {
+        PipelineMetrics metrics = new PipelineMetrics(new SimpleMeterRegistry());
+        RetryProperties retryProperties = new RetryProperties();
+        ProcessingProperties processingProperties = new ProcessingProperties();
+        processingProperties.setLockMode(lockMode);
+
+        return new OrderProcessorService(
+                new InMemoryEnrichmentClient(upstreamLatency),
+                inMemoryOrderRepository(),
+                new InMemoryLockService(metrics),
+                new FailedMessageService(null, retryProperties, metrics, null),
+                new ObjectMapper(),
+                laneExecutor,
+                processingProperties,
+                retryProperties,
+                new StaticListableBeanFactory().getBeanProvider(RetryTopicRouter.class),
+                metrics,
+                processedOrderFilter()
+        );
+    }
+
+    /**
+     * Virtual-thread engine over the same in-memory I/O; upstream latency parks the caller
+     * with {@link Thread#sleep} where the reactive stub uses a timer.
+     */
+    static BlockingOrderProcessor blockingOrderProcessor(Duration upstreamLatency) {
+        PipelineMetrics metrics = new PipelineMetrics(new SimpleMeterRegistry());
+        RetryProperties retryProperties = new RetryProperties();
+        return new BlockingOrderProcessor(
+                new InMemoryBlockingEnrichmentClient(upstreamLatency),
+                inMemoryMongoOperations(),
+                null,
+                new FailedMessageService(null, retryProperties, metrics, null),
+                new StaticListableBeanFactory().getBeanProvider(RetryTopicRouter.class),
+                new ObjectMapper(),
+                new ProcessingProperties(),
+                retryProperties,
+                metrics,
+                processedOrderFilter()
+        );
+    }
+
+    /** Local filter with nothing to rebuild, as on a worker starting against an empty collection. */
+    static ProcessedOrderFilter processedOrderFilter() {
+        ProcessingProperties processingProperties = new ProcessingProperties();
+        processingProperties.getDedup().setRebuildOnStartup(false);
+        ProcessedOrderFilter filter = new ProcessedOrderFilter(processingProperties, null, null, null, new SimpleMeterRegistry());
+        filter.start();
+        return filter;
+    }
+
+    static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    private static OrderRepository inMemoryOrderRepository() {
+        return (OrderRepository) Proxy.newProxyInstance(
+                OrderRepository.class.getClassLoader(),
+                new Class<?>[]{OrderRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("insertBuffered")) {
+                        return Mono.just((Order) args[0]);
+                    }
+                    // Nothing is kept, so an order id the benchmark repeats still reads as new.
+                    if (method.getName().equals("existsByOrderId")) {
+                        return Mono.just(false);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static MongoOperations inMemoryMongoOperations() {
+        return (MongoOperations) Proxy.newProxyInstance(
+                MongoOperations.class.getClassLoader(),
+                new Class<?>[]{MongoOperations.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("insert") && args.length == 1) {
+                        return args[0];
+                    }
+                    // Nothing is kept, as in the reactive repository above.
+                    if (method.getName().equals("exists")) {
+                        return false;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static ProductCatalog emptyCatalog() {
+        // Never started, so every lookup reaches the in-memory clients below.
+        return new ProductCatalog(WebClient.builder().build(), new ExternalAPIProperties(),
+                new EnrichmentProperties(), EnrichmentCache.disabled(), SharedEnrichmentCache.disabled(),
+                new SimpleMeterRegistry());
+    }
+
+    private static final class InMemoryEnrichmentClient extends EnrichmentClient {
+
+        private static final CustomerDTO CUSTOMER = CustomerDTO.builder()
+                .id("customer-007")
+                .name("Jane Doe")
+                .email("jane@example.com")
+                .status(CustomerStatusEnum.ACTIVE)
+                .build();
+
+        private final Duration latency;
+
+        InMemoryEnrichmentClient(Duration latency) {
+            super(WebClient.builder().build(), new RetryProperties(), new ExternalAPIProperties(),
+                    EnrichmentCache.disabled(), EnrichmentCache.disabled(),
+                    SharedEnrichmentCache.disabled(), SharedEnrichmentCache.disabled(), unbatched(),
+                    CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(),
+                    new AdaptiveConcurrencyLimiter(new EnrichmentProperties(), new SimpleMeterRegistry()),
+                    new RequestHedger(new EnrichmentProperties(), new SimpleMeterRegistry()), emptyCatalog());
+            this.latency = latency;
+        }
+
+        @Override
+        public Mono<CustomerDTO> getCustomerById(String customerId) {
+            return respond(CUSTOMER);
+        }
+
+        @Override
+        public Mono<ProductDTO> getProductById(String productId) {
+            return respond(product(productId));
+        }
+
+        private <T> Mono<T> respond(T value) {
+            return latency.isZero() ? Mono.just(value) : Mono.delay(latency).thenReturn(value);
+        }
+
+        private static EnrichmentProperties unbatched() {
+            EnrichmentProperties properties = new EnrichmentProperties();
+            properties.getBatch().getCustomer().setEnabled(false);
+            properties.getBatch().getProduct().setEnabled(false);
+            return properties;
+        }
+    }
+
+    private static final class InMemoryBlockingEnrichmentClient extends BlockingEnrichmentClient {
+
+        private final Duration latency;
+
+        InMemoryBlockingEnrichmentClient(Duration latency) {
+            super(RestClient.create(), new RetryProperties(), new ExternalAPIProperties(),
+                    EnrichmentCache.disabled(), EnrichmentCache.disabled(),
+                    SharedEnrichmentCache.disabled(), SharedEnrichmentCache.disabled(),
+                    CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(), emptyCatalog());
+            this.latency = latency;
+        }
+
+        @Override
+        public CustomerDTO getCustomerById(String customerId) {
+            return respond(InMemoryEnrichmentClient.CUSTOMER);
+        }
+
+        @Override
+        public ProductDTO getProductById(String productId) {
+            return respond(product(productId));
+        }
+
+        private <T> T respond(T value) {
+            if (!latency.isZero()) {
+                try {
+                    Thread.sleep(latency);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return value;
+        }
+    }
+
+    private static final class InMemoryLockService extends LockService {
+
+        InMemoryLockService(PipelineMetrics metrics) {
+            super(null, metrics);
+        }
+
+        @Override
+        public Mono<Boolean> tryLock(String key, Duration ttl) {
+            return Mono.just(true);
+        }
+
+        @Override
+        public Mono<Void> releaseLock(String key) {
+            return Mono.empty();
+        }
+    }
+}
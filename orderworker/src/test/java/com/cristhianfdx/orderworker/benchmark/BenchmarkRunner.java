@@ -0,0 +1,34 @@
+package com.cristhianfdx.orderworker.benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks in this package reporting throughput (ops/s), average time,
+ * the sampled latency distribution (p99 and friends) and allocated bytes per op
+ * ({@code gc.alloc.rate.norm}). Standard JMH arguments are passed through, e.g.
+ * {@code mvn -Pjmh verify -Djmh.args="OrderProcessing -p lockMode=local"}.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .mode(Mode.Throughput)
+                .mode(Mode.AverageTime)
+                .mode(Mode.SampleTime)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-result.json")
+                .build();
+        new Runner(options).run();
+    }
+}
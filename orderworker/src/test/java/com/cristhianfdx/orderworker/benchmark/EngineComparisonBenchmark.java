@@ -0,0 +1,82 @@
+package com.cristhianfdx.orderworker.benchmark;
+
+import com.cristhianfdx.orderworker.config.ProcessingProperties;
+import com.cristhianfdx.orderworker.dto.OrderMessageDTO;
+import com.cristhianfdx.orderworker.service.BlockingOrderProcessor;
+import com.cristhianfdx.orderworker.service.OrderLaneExecutor;
+import com.cristhianfdx.orderworker.service.OrderProcessorService;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Reactive pipeline against the virtual-thread engine: each invocation processes a batch of
+ * distinct orders concurrently, as a polled Kafka batch would, with optional simulated go-api
+ * latency so the comparison covers both CPU-bound and I/O-bound regimes.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EngineComparisonBenchmark {
+
+    private static final int BATCH_SIZE = 256;
+
+    @Param({"reactive", "blocking"})
+    private String engine;
+
+    @Param({"0", "2"})
+    private int upstreamLatencyMs;
+
+    @Param({"5"})
+    private int productCount;
+
+    private OrderLaneExecutor laneExecutor;
+    private OrderProcessorService orderProcessorService;
+    private BlockingOrderProcessor blockingOrderProcessor;
+    private List<OrderMessageDTO> batch;
+
+    @Setup
+    public void setUp() {
+        BenchmarkFixtures.quietLogging();
+        Duration latency = Duration.ofMillis(upstreamLatencyMs);
+        laneExecutor = new OrderLaneExecutor(new ProcessingProperties());
+        orderProcessorService = BenchmarkFixtures.orderProcessorService("local", laneExecutor, latency);
+        blockingOrderProcessor = BenchmarkFixtures.blockingOrderProcessor(latency);
+
+        OrderMessageDTO template = BenchmarkFixtures.orderMessage(productCount);
+        batch = IntStream.range(0, BATCH_SIZE)
+                .mapToObj(i -> OrderMessageDTO.builder()
+                        .orderId("order-" + i)
+                        .customerId(template.getCustomerId())
+                        .products(template.getProducts())
+                        .build())
+                .toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        laneExecutor.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void processBatch() {
+        if ("reactive".equals(engine)) {
+            Flux.fromIterable(batch)
+                    .flatMap(orderProcessorService::processOrder, BATCH_SIZE)
+                    .blockLast();
+            return;
+        }
+        try (ExecutorService orders = Executors.newVirtualThreadPerTaskExecutor()) {
+            batch.forEach(message -> orders.execute(() -> blockingOrderProcessor.processOrder(message)));
+        }
+    }
+}
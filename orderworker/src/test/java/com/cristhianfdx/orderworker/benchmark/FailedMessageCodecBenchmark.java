@@ -0,0 +1,60 @@
+package com.cristhianfdx.orderworker.benchmark;
+
+import com.cristhianfdx.orderworker.config.RetryProperties;
+import com.cristhianfdx.orderworker.dto.OrderMessageDTO;
+import com.cristhianfdx.orderworker.service.FailedMessageService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.util.function.Tuple2;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding of a failed order into the record-failure script arguments, as
+ * {@code OrderProcessorService} and {@link FailedMessageService#recordFailure} do, and
+ * decoding the HMGET of the failure hash back into a message for a retry, as
+ * {@link FailedMessageService#getRetryAndMessage} and the retry scheduler do. Only the Redis
+ * round trips are left out.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FailedMessageCodecBenchmark {
+
+    private static final String KEY = "failed-order:order-00042";
+
+    private ObjectMapper objectMapper;
+    private RetryProperties retryProperties;
+    private OrderMessageDTO message;
+    private List<String> storedValues;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper();
+        retryProperties = new RetryProperties();
+        retryProperties.setMaxAttempts(3);
+        retryProperties.setInitialIntervalMs(1000);
+        retryProperties.setMultiplier(2.0);
+        retryProperties.setFailureTtlMs(604_800_000);
+        message = BenchmarkFixtures.orderMessage(3);
+        storedValues = List.of("2", objectMapper.writeValueAsString(message));
+    }
+
+    @Benchmark
+    public List<String> encode() throws Exception {
+        String payload = objectMapper.writeValueAsString(message);
+        return FailedMessageService.recordFailureArgs(message.getOrderId(), payload, "go-api timeout", true,
+                System.currentTimeMillis(), retryProperties);
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole) throws Exception {
+        Tuple2<Integer, String> retryAndMessage = FailedMessageService.decodeRetryAndMessage(KEY, storedValues);
+        blackhole.consume(retryAndMessage.getT1());
+        blackhole.consume(objectMapper.readValue(retryAndMessage.getT2(), OrderMessageDTO.class));
+    }
+}
@@ -0,0 +1,44 @@
+package com.cristhianfdx.orderworker.benchmark;
+
+import com.cristhianfdx.orderworker.dto.OrderMessageDTO;
+import com.cristhianfdx.orderworker.dto.ProductDTO;
+import com.cristhianfdx.orderworker.model.Order;
+import com.cristhianfdx.orderworker.model.Product;
+import com.cristhianfdx.orderworker.service.OrderMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping of enriched lookups onto the persisted order.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderMappingBenchmark {
+
+    @Param({"3", "20"})
+    private int productCount;
+
+    private OrderMessageDTO message;
+    private List<ProductDTO> products;
+
+    @Setup
+    public void setUp() {
+        message = BenchmarkFixtures.orderMessage(productCount);
+        products = message.getProducts().stream().map(BenchmarkFixtures::product).toList();
+    }
+
+    @Benchmark
+    public Order buildOrder() {
+        List<Product> mapped = new ArrayList<>(products.size());
+        for (ProductDTO product : products) {
+            mapped.add(OrderMapper.toProduct(product));
+        }
+        return OrderMapper.toOrder(message, mapped);
+    }
+}
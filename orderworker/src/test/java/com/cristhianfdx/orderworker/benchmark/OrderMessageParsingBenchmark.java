@@ -0,0 +1,68 @@
+package com.cristhianfdx.orderworker.benchmark;
+
+import com.cristhianfdx.orderworker.dto.OrderMessageDTO;
+import com.cristhianfdx.orderworker.kafka.OrderMessageReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of the Kafka payload: the original String + {@code readValue} path against
+ * the byte[] {@link OrderMessageReader} used by the consumers, with and without Blackbird,
+ * and the Avro payload selected by the {@code content-type} header. {@code payloadBytes}
+ * in the set-up log shows the size on the wire of each encoding.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderMessageParsingBenchmark {
+
+    @Param({"3", "20"})
+    private int productCount;
+
+    private ObjectMapper objectMapper;
+    private OrderMessageReader reader;
+    private OrderMessageReader blackbirdReader;
+    private byte[] payload;
+    private byte[] avroPayload;
+    private RecordHeaders avroHeaders;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper();
+        reader = new OrderMessageReader(objectMapper);
+        blackbirdReader = new OrderMessageReader(new ObjectMapper().registerModule(new BlackbirdModule()));
+        payload = objectMapper.writeValueAsBytes(BenchmarkFixtures.orderMessage(productCount));
+        avroPayload = BenchmarkFixtures.avroOrderMessage(productCount);
+        avroHeaders = new RecordHeaders();
+        avroHeaders.add(OrderMessageReader.CONTENT_TYPE_HEADER,
+                OrderMessageReader.AVRO_CONTENT_TYPE.getBytes(StandardCharsets.UTF_8));
+        System.out.printf("%npayloadBytes json=%d avro=%d%n", payload.length, avroPayload.length);
+    }
+
+    @Benchmark
+    public OrderMessageDTO stringReadValue() throws Exception {
+        return objectMapper.readValue(new String(payload, StandardCharsets.UTF_8), OrderMessageDTO.class);
+    }
+
+    @Benchmark
+    public OrderMessageDTO bytesObjectReader() throws Exception {
+        return reader.read(payload);
+    }
+
+    @Benchmark
+    public OrderMessageDTO bytesObjectReaderBlackbird() throws Exception {
+        return blackbirdReader.read(payload);
+    }
+
+    @Benchmark
+    public OrderMessageDTO avroByHeader() throws Exception {
+        return reader.read(avroPayload, avroHeaders);
+    }
+}
@@ -0,0 +1,49 @@
+package com.cristhianfdx.orderworker.benchmark;
+
+import com.cristhianfdx.orderworker.config.ProcessingProperties;
+import com.cristhianfdx.orderworker.dto.OrderMessageDTO;
+import com.cristhianfdx.orderworker.service.OrderLaneExecutor;
+import com.cristhianfdx.orderworker.service.OrderProcessorService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link OrderProcessorService#processOrder} against in-memory enrichment,
+ * locking and persistence, for both the Redis lock and the local lane modes.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderProcessingBenchmark {
+
+    @Param({"local", "redis"})
+    private String lockMode;
+
+    @Param({"3", "20"})
+    private int productCount;
+
+    private OrderLaneExecutor laneExecutor;
+    private OrderProcessorService orderProcessorService;
+    private OrderMessageDTO message;
+
+    @Setup
+    public void setUp() {
+        BenchmarkFixtures.quietLogging();
+        laneExecutor = new OrderLaneExecutor(new ProcessingProperties());
+        orderProcessorService = BenchmarkFixtures.orderProcessorService(lockMode, laneExecutor);
+        message = BenchmarkFixtures.orderMessage(productCount);
+    }
+
+    @TearDown
+    public void tearDown() {
+        laneExecutor.shutdown();
+    }
+
+    @Benchmark
+    public void processOrder() {
+        orderProcessorService.processOrder(message).block();
+    }
+}
@@ -0,0 +1,23 @@
+package com.cristhianfdx.orderworker.config;
+
+import org.junit.Test;
+
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+
+public class WebClientConfigTest {
+
+    @Test
+    public void shouldCollapseIdPathsToTemplateForMetricTags() {
+        ExternalAPIProperties properties = new ExternalAPIProperties();
+        properties.setCustomer("http://go-api:3000/api/customers");
+        properties.setProduct("http://go-api:3000/api/products");
+
+        Function<String, String> uriTagValue = WebClientConfig.uriTagValue(properties);
+
+        assertEquals("/api/products/{id}", uriTagValue.apply("/api/products/product-123"));
+        assertEquals("/api/customers", uriTagValue.apply("/api/customers?ids=1,2,3"));
+        assertEquals("/health", uriTagValue.apply("/health"));
+    }
+}
@@ -0,0 +1,283 @@
+package com.cristhianfdx.orderworker.kafka;
+
+import com.cristhianfdx.orderworker.config.IngestionProperties;
+import com.cristhianfdx.orderworker.dto.OrderMessageDTO;
+import com.cristhianfdx.orderworker.metrics.PipelineMetrics;
+import com.cristhianfdx.orderworker.service.OrderProcessorService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Resizes a real order listener against an embedded broker while orders keep arriving:
+ * every resize stops the container, drains in-flight orders through {@link OffsetTracker},
+ * changes the concurrency and starts it again on the stop callback, and the in-flight
+ * limit moves with it. Every order must be processed exactly once and every offset
+ * committed exactly once, in order.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ListenerAutoscalerKafkaTest {
+
+    private static final String TOPIC = "orders";
+    private static final int PARTITIONS = 6;
+
+    @Mock
+    private KafkaListenerEndpointRegistry registry;
+
+    @Mock
+    private OrderProcessorService orderProcessorService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    /** Times each order was processed; any value above 1 is a redelivery. */
+    private final Map<String, AtomicInteger> processed = new ConcurrentHashMap<>();
+    /** Last acknowledged offset per partition; acks must only move forward. */
+    private final Map<Integer, Long> acknowledged = new ConcurrentHashMap<>();
+    private final AtomicInteger repeatedAcks = new AtomicInteger();
+    private final AtomicInteger produced = new AtomicInteger();
+    /** Long enough that every resize revokes partitions with orders still in flight. */
+    private volatile Duration processingTime = Duration.ofMillis(200);
+
+    private EmbeddedKafkaKraftBroker broker;
+    private AdminClient adminClient;
+    private KafkaProducer<String, byte[]> producer;
+    private ConcurrentMessageListenerContainer<String, byte[]> container;
+    private OffsetTracker offsetTracker;
+    private OrderConsumer orderConsumer;
+    private ListenerAutoscaler subject;
+
+    @Before
+    public void setUp() {
+        broker = new EmbeddedKafkaKraftBroker(1, PARTITIONS, TOPIC);
+        broker.afterPropertiesSet();
+        adminClient = AdminClient.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString()));
+        producer = new KafkaProducer<>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+                ProducerConfig.LINGER_MS_CONFIG, 5
+        ), new StringSerializer(), new ByteArraySerializer());
+
+        IngestionProperties ingestionProperties = new IngestionProperties();
+        ingestionProperties.setMaxInFlight(8);
+        IngestionProperties.Autoscale autoscale = ingestionProperties.getAutoscale();
+        autoscale.setEnabled(true);
+        // Checks are driven by the test, not by the interval.
+        autoscale.setIntervalMs(TimeUnit.HOURS.toMillis(1));
+        autoscale.setCooldownMs(0);
+        autoscale.setMinConcurrency(1);
+        autoscale.setMaxConcurrency(3);
+        autoscale.setMinInFlight(8);
+        autoscale.setMaxInFlight(64);
+        autoscale.setScaleUpLag(1000);
+        autoscale.setScaleDownLag(500);
+        autoscale.setMaxLatencyMs(TimeUnit.MINUTES.toMillis(1));
+
+        when(orderProcessorService.processOrder(any(OrderMessageDTO.class))).thenAnswer(invocation -> {
+            OrderMessageDTO order = invocation.getArgument(0);
+            return Mono.delay(processingTime)
+                    .doOnNext(tick -> processed.computeIfAbsent(order.getOrderId(), id -> new AtomicInteger()).incrementAndGet())
+                    .then();
+        });
+        offsetTracker = new OffsetTracker(ingestionProperties, meterRegistry);
+        orderConsumer = new OrderConsumer(new OrderMessageReader(objectMapper), orderProcessorService,
+                new PipelineMetrics(meterRegistry), offsetTracker, ingestionProperties);
+
+        container = new ConcurrentMessageListenerContainer<>(new DefaultKafkaConsumerFactory<>(Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+                ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 100
+        ), new StringDeserializer(), new ByteArrayDeserializer()), containerProperties());
+        container.setConcurrency(1);
+        when(registry.getListenerContainer(OrderConsumer.LISTENER_ID)).thenReturn(container);
+
+        subject = new ListenerAutoscaler(registry,
+                new KafkaAdmin(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString())),
+                orderConsumer, ingestionProperties, meterRegistry);
+    }
+
+    @After
+    public void tearDown() {
+        subject.stop();
+        if (container.isRunning()) {
+            container.stop();
+        }
+        producer.close();
+        adminClient.close();
+        broker.destroy();
+    }
+
+    @Test
+    public void shouldNeitherLoseNorRepeatOffsetsWhileScalingUpAndDownUnderLoad() throws Exception {
+        container.start();
+        subject.start();
+        produce(5_000);
+
+        // A deep backlog: one consumer and 8 in-flight orders grow to 3 and 32.
+        scaleTo(2);
+        scaleTo(3);
+        assertEquals(32, orderConsumer.getMaxInFlight());
+
+        // Work the backlog off, then scale back down while new orders keep arriving.
+        processingTime = Duration.ofMillis(1);
+        await("backlog below the scale-down lag", () -> lag() < 500);
+        processingTime = Duration.ofMillis(100);
+        AtomicBoolean trickling = new AtomicBoolean(true);
+        Thread trickle = Thread.ofVirtual().start(() -> {
+            while (trickling.get()) {
+                produce(10);
+                sleep(100);
+            }
+        });
+        scaleTo(2);
+        scaleTo(1);
+        trickling.set(false);
+        trickle.join();
+        producer.flush();
+
+        await("every order processed and committed", () -> processed.size() == produced.get() && lag() == 0);
+        assertEquals(8, orderConsumer.getMaxInFlight());
+        assertEquals(0, offsetTracker.pending());
+        assertTrue(processed.values().stream().allMatch(count -> count.get() == 1));
+        assertEquals(0, repeatedAcks.get());
+        assertEquals(2, meterRegistry.counter(ListenerAutoscaler.SCALE_COUNTER, "direction", "up").count(), 0);
+        assertEquals(2, meterRegistry.counter(ListenerAutoscaler.SCALE_COUNTER, "direction", "down").count(), 0);
+    }
+
+    private ContainerProperties containerProperties() {
+        ContainerProperties properties = new ContainerProperties(TOPIC);
+        properties.setGroupId(OrderConsumer.GROUP_ID);
+        properties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        properties.setConsumerRebalanceListener(offsetTracker);
+        properties.setMessageListener((AcknowledgingMessageListener<String, byte[]>) (record, acknowledgment) -> {
+            try {
+                orderConsumer.consume(record, recording(record, acknowledgment));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        return properties;
+    }
+
+    /** Wraps the container's acknowledgment to catch an offset acknowledged twice or out of order. */
+    private Acknowledgment recording(ConsumerRecord<String, byte[]> record, Acknowledgment acknowledgment) {
+        return () -> {
+            Long previous = acknowledged.put(record.partition(), record.offset());
+            if (previous != null && previous >= record.offset()) {
+                repeatedAcks.incrementAndGet();
+            }
+            acknowledgment.acknowledge();
+        };
+    }
+
+    /** Checks until the listener runs the target concurrency with every partition assigned again. */
+    private void scaleTo(int concurrency) {
+        await("scaling to " + concurrency + " consumers", () -> {
+            if (container.getConcurrency() != concurrency) {
+                subject.evaluate().block();
+            }
+            return container.getConcurrency() == concurrency
+                    && container.isRunning()
+                    && container.getContainers().size() == concurrency
+                    && container.getAssignedPartitions().size() == PARTITIONS;
+        });
+    }
+
+    private void produce(int orders) {
+        for (int i = 0; i < orders; i++) {
+            String orderId = "order-" + produced.getAndIncrement();
+            try {
+                producer.send(new ProducerRecord<>(TOPIC, orderId, objectMapper.writeValueAsBytes(OrderMessageDTO.builder()
+                        .orderId(orderId)
+                        .customerId("customer-1")
+                        .products(List.of("product-1"))
+                        .build())));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        producer.flush();
+    }
+
+    private long lag() {
+        try {
+            List<TopicPartition> partitions = IntStream.range(0, PARTITIONS)
+                    .mapToObj(partition -> new TopicPartition(TOPIC, partition))
+                    .toList();
+            Map<TopicPartition, OffsetAndMetadata> committed = adminClient.listConsumerGroupOffsets(OrderConsumer.GROUP_ID)
+                    .partitionsToOffsetAndMetadata().get(5, TimeUnit.SECONDS);
+            Map<TopicPartition, OffsetSpec> latest = partitions.stream()
+                    .collect(Collectors.toMap(Function.identity(), partition -> OffsetSpec.latest()));
+            var ends = adminClient.listOffsets(latest).all().get(5, TimeUnit.SECONDS);
+            long lag = 0;
+            for (TopicPartition partition : partitions) {
+                OffsetAndMetadata offset = committed.get(partition);
+                lag += ends.get(partition).offset() - (offset == null ? 0 : offset.offset());
+            }
+            return lag;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(String what, BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Timed out waiting for " + what);
+            }
+            sleep(100);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.cristhianfdx.orderworker.kafka;
+
+import com.cristhianfdx.orderworker.config.IngestionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaAdmin;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ListenerAutoscalerTest {
+
+    @Mock
+    private KafkaListenerEndpointRegistry registry;
+
+    @Mock
+    private KafkaAdmin kafkaAdmin;
+
+    @Mock
+    private OrderConsumer orderConsumer;
+
+    private ListenerAutoscaler subject;
+
+    @Before
+    public void setUp() {
+        IngestionProperties ingestionProperties = new IngestionProperties();
+        IngestionProperties.Autoscale autoscale = ingestionProperties.getAutoscale();
+        autoscale.setMinConcurrency(1);
+        autoscale.setMaxConcurrency(4);
+        autoscale.setMinInFlight(64);
+        autoscale.setMaxInFlight(512);
+        autoscale.setScaleUpLag(1000);
+        autoscale.setScaleDownLag(100);
+        autoscale.setMaxLatencyMs(500);
+        subject = new ListenerAutoscaler(registry, kafkaAdmin, orderConsumer, ingestionProperties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void shouldScaleUpWhileBehindUpToTheBoundsAndPartitionCount() {
+        assertEquals(new ListenerAutoscaler.Target(2, 512), subject.decide(5000, 12, 80, 1, 256));
+        assertEquals(new ListenerAutoscaler.Target(4, 512), subject.decide(5000, 12, 80, 4, 512));
+        // Only three partitions: a fourth consumer would sit idle.
+        assertEquals(new ListenerAutoscaler.Target(3, 512), subject.decide(5000, 3, 80, 3, 512));
+    }
+
+    @Test
+    public void shouldCutInFlightOrdersWhenSlowAndScaleDownWhenCaughtUp() {
+        // Behind but slow: downstream is saturated, so fewer orders run and no consumer is added.
+        assertEquals(new ListenerAutoscaler.Target(2, 128), subject.decide(5000, 12, 900, 2, 256));
+        assertEquals(new ListenerAutoscaler.Target(1, 128), subject.decide(10, 12, 80, 2, 256));
+        assertEquals(new ListenerAutoscaler.Target(1, 64), subject.decide(10, 12, 80, 1, 64));
+        assertEquals(new ListenerAutoscaler.Target(2, 256), subject.decide(500, 12, 80, 2, 256));
+    }
+}
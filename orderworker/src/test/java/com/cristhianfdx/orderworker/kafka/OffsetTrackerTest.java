@@ -0,0 +1,70 @@
+package com.cristhianfdx.orderworker.kafka;
+
+import com.cristhianfdx.orderworker.config.IngestionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Test;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OffsetTrackerTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("orders", 0);
+
+    private final OffsetTracker subject = new OffsetTracker(new IngestionProperties(), new SimpleMeterRegistry());
+    private final List<Long> acknowledged = new ArrayList<>();
+
+    @Test
+    public void shouldOnlyAcknowledgeUpToTheOldestOrderStillInFlight() {
+        ConsumerRecord<String, byte[]> first = record(10);
+        ConsumerRecord<String, byte[]> second = record(11);
+        // Offset 12 was compacted away; the tracker follows the offsets it was given.
+        ConsumerRecord<String, byte[]> third = record(13);
+        List.of(first, second, third).forEach(record -> subject.track(record, acknowledgment(record.offset())));
+
+        subject.complete(third);
+        subject.complete(second);
+        assertEquals(List.of(), acknowledged);
+        assertEquals(3, subject.pending());
+
+        subject.complete(first);
+        assertEquals(List.of(13L), acknowledged);
+        assertEquals(0, subject.pending());
+    }
+
+    @Test
+    public void shouldWaitForInFlightOrdersOfRevokedPartitionsAndIgnoreLateCompletions() throws Exception {
+        ConsumerRecord<String, byte[]> record = record(5);
+        subject.track(record, acknowledgment(5));
+
+        assertFalse(subject.awaitDrained(Set.of(PARTITION), Duration.ofMillis(20)));
+
+        CompletableFuture.runAsync(() -> subject.complete(record));
+        assertTrue(subject.awaitDrained(Set.of(PARTITION), Duration.ofSeconds(5)));
+        assertEquals(List.of(5L), acknowledged);
+
+        ConsumerRecord<String, byte[]> late = record(6);
+        subject.track(late, acknowledgment(6));
+        subject.onPartitionsRevokedAfterCommit(null, Set.of(PARTITION));
+        subject.complete(late);
+        assertEquals(List.of(5L), acknowledged);
+    }
+
+    private Acknowledgment acknowledgment(long offset) {
+        return () -> acknowledged.add(offset);
+    }
+
+    private static ConsumerRecord<String, byte[]> record(long offset) {
+        return new ConsumerRecord<>(PARTITION.topic(), PARTITION.partition(), offset, "order-" + offset, new byte[0]);
+    }
+}
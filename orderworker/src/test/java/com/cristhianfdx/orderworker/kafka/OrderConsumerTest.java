@@ -1,16 +1,22 @@
 package com.cristhianfdx.orderworker.kafka;
 
+import com.cristhianfdx.orderworker.config.IngestionProperties;
 import com.cristhianfdx.orderworker.dto.OrderMessageDTO;
+import com.cristhianfdx.orderworker.metrics.PipelineMetrics;
 import com.cristhianfdx.orderworker.service.OrderProcessorService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.kafka.support.Acknowledgment;
 import reactor.core.publisher.Mono;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.mockito.Mockito.*;
@@ -19,48 +25,66 @@ import static org.mockito.Mockito.*;
 public class OrderConsumerTest {
 
     @Mock
-    private ObjectMapper objectMapper;
+    private OrderMessageReader orderMessageReader;
 
     @Mock
     private OrderProcessorService orderProcessorService;
 
-    @InjectMocks
+    @Spy
+    private PipelineMetrics pipelineMetrics = new PipelineMetrics(new SimpleMeterRegistry());
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
     private OrderConsumer orderConsumer;
 
+    @Before
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        IngestionProperties ingestionProperties = new IngestionProperties();
+        orderConsumer = new OrderConsumer(orderMessageReader, orderProcessorService, pipelineMetrics,
+                new OffsetTracker(ingestionProperties, meterRegistry), ingestionProperties);
+    }
+
     @Test
     public void shouldProcessValidMessageSuccessfully() throws Exception {
-        String kafkaMessage = "{\"orderId\":\"order123\",\"customerId\":\"customerXYZ\",\"products\":[\"prod1\",\"prod2\"]}";
+        byte[] kafkaMessage = "{\"orderId\":\"order123\",\"customerId\":\"customerXYZ\",\"products\":[\"prod1\",\"prod2\"]}"
+                .getBytes(StandardCharsets.UTF_8);
         OrderMessageDTO orderMessageDTO = OrderMessageDTO.builder()
                 .orderId("order-123")
                 .customerId("customer-abc")
                 .products(List.of("product-1", "product-2"))
                 .build();
 
-        when(objectMapper.readValue(kafkaMessage, OrderMessageDTO.class))
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>("orders", 0, 0, "order123", kafkaMessage);
+
+        when(orderMessageReader.read(kafkaMessage, record.headers()))
                 .thenReturn(orderMessageDTO);
         when(orderProcessorService.processOrder(any(OrderMessageDTO.class)))
                 .thenReturn(Mono.empty());
 
 
-        orderConsumer.consume(kafkaMessage);
+        orderConsumer.consume(record, acknowledgment);
 
-        verify(objectMapper, times(1)).readValue(kafkaMessage, OrderMessageDTO.class);
+        verify(orderMessageReader, times(1)).read(kafkaMessage, record.headers());
         verify(orderProcessorService, times(1)).processOrder(orderMessageDTO);
+        verify(acknowledgment).acknowledge();
     }
 
     @Test
     public void shouldLogErrorWhenJsonIsInvalid() throws Exception {
-        String invalidMessage = "invalid-json";
+        byte[] invalidMessage = "invalid-json".getBytes(StandardCharsets.UTF_8);
 
         doAnswer(invocation -> {
             throw new IOException("Invalid JSON");
-        }).when(objectMapper).readValue(anyString(), eq(OrderMessageDTO.class));
+        }).when(orderMessageReader).read(any(byte[].class), any());
 
-        orderConsumer.consume(invalidMessage);
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>("orders", 0, 0, null, invalidMessage);
+        orderConsumer.consume(record, acknowledgment);
 
         Thread.sleep(100);
 
-        verify(objectMapper).readValue(invalidMessage, OrderMessageDTO.class);
+        verify(orderMessageReader).read(invalidMessage, record.headers());
         verifyNoInteractions(orderProcessorService);
     }
 }
\ No newline at end of file
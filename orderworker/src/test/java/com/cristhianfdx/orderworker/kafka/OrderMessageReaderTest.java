@@ -0,0 +1,76 @@
+package com.cristhianfdx.orderworker.kafka;
+
+import com.cristhianfdx.orderworker.avro.OrderMessage;
+import com.cristhianfdx.orderworker.dto.OrderMessageDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class OrderMessageReaderTest {
+
+    private static final OrderMessageDTO ORDER = OrderMessageDTO.builder()
+            .orderId("order-1")
+            .customerId("customer-1")
+            .products(List.of("product-1", "product-2"))
+            .build();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OrderMessageReader subject = new OrderMessageReader(objectMapper);
+
+    @Test
+    public void shouldDecodeAvroWhenTheContentTypeHeaderSaysSo() throws Exception {
+        byte[] payload = avro(ORDER);
+
+        assertEquals(ORDER, subject.read(payload, contentType(OrderMessageReader.AVRO_CONTENT_TYPE)));
+        assertEquals("<" + payload.length + " bytes of application/avro>",
+                OrderMessageReader.describe(payload, contentType(OrderMessageReader.AVRO_CONTENT_TYPE)));
+    }
+
+    @Test
+    public void shouldFallBackToJsonWithoutAContentTypeHeader() throws Exception {
+        byte[] payload = objectMapper.writeValueAsBytes(ORDER);
+
+        assertEquals(ORDER, subject.read(payload, new RecordHeaders()));
+    }
+
+    @Test
+    public void shouldIgnoreContentTypeParametersAndCase() throws Exception {
+        byte[] json = objectMapper.writeValueAsBytes(ORDER);
+        byte[] avro = avro(ORDER);
+
+        assertEquals(ORDER, subject.read(json, contentType("application/json; charset=utf-8")));
+        assertEquals(ORDER, subject.read(avro, contentType("Application/Avro")));
+        assertEquals("<" + avro.length + " bytes of application/avro>",
+                OrderMessageReader.describe(avro, contentType("application/avro;v=1")));
+    }
+
+    @Test
+    public void shouldRejectAnUnknownContentType() {
+        assertThrows(IOException.class, () -> subject.read(new byte[0], contentType("application/x-protobuf")));
+        assertThrows(IOException.class, () -> subject.read(new byte[0], contentType("not a mime type")));
+    }
+
+    private static byte[] avro(OrderMessageDTO order) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OrderMessage.getEncoder().encode(OrderMessage.newBuilder()
+                .setOrderId(order.getOrderId())
+                .setCustomerId(order.getCustomerId())
+                .setProducts(order.getProducts())
+                .build(), out);
+        return out.toByteArray();
+    }
+
+    private static RecordHeaders contentType(String value) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(OrderMessageReader.CONTENT_TYPE_HEADER, value.getBytes(StandardCharsets.UTF_8));
+        return headers;
+    }
+}
@@ -0,0 +1,103 @@
+package com.cristhianfdx.orderworker.kafka;
+
+import com.cristhianfdx.orderworker.config.IngestionProperties;
+import com.cristhianfdx.orderworker.dto.OrderMessageDTO;
+import com.cristhianfdx.orderworker.metrics.PipelineMetrics;
+import com.cristhianfdx.orderworker.service.OrderProcessorService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOffset;
+import reactor.kafka.receiver.ReceiverRecord;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ReactiveOrderConsumerTest {
+
+    private static final String PAYLOAD = "{\"orderId\":\"order-1\",\"customerId\":\"customer-1\",\"products\":[\"product-1\"]}";
+
+    @Mock
+    private KafkaReceiver<String, byte[]> orderReceiver;
+
+    @Mock
+    private OrderProcessorService orderProcessorService;
+
+    @Mock
+    private ReceiverOffset receiverOffset;
+
+    private final IngestionProperties ingestionProperties = new IngestionProperties();
+
+    private ReactiveOrderConsumer subject;
+
+    @Before
+    public void setUp() {
+        ingestionProperties.setMaxInFlight(2);
+        subject = new ReactiveOrderConsumer(orderReceiver, new OrderMessageReader(new ObjectMapper()), orderProcessorService,
+                new PipelineMetrics(new SimpleMeterRegistry()), ingestionProperties);
+    }
+
+    @Test
+    public void shouldAcknowledgeOffsetAfterOrderIsProcessed() {
+        Sinks.Empty<Void> processing = Sinks.empty();
+        when(orderProcessorService.processOrder(any(OrderMessageDTO.class))).thenReturn(processing.asMono());
+
+        StepVerifier.create(subject.handle(record(0, PAYLOAD)))
+                .then(() -> verify(receiverOffset, never()).acknowledge())
+                .then(processing::tryEmitEmpty)
+                .verifyComplete();
+
+        verify(receiverOffset).acknowledge();
+    }
+
+    @Test
+    public void shouldAcknowledgeInvalidMessageWithoutProcessing() {
+        StepVerifier.create(subject.handle(record(0, "invalid-json")))
+                .verifyComplete();
+
+        verify(receiverOffset).acknowledge();
+        verifyNoInteractions(orderProcessorService);
+    }
+
+    @Test
+    public void shouldNeverExceedMaxInFlightOrders() {
+        List<ReceiverRecord<String, byte[]>> records = List.of(
+                record(0, PAYLOAD), record(1, PAYLOAD), record(2, PAYLOAD), record(3, PAYLOAD), record(4, PAYLOAD));
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxObserved = new AtomicInteger();
+
+        when(orderReceiver.receive()).thenReturn(Flux.fromIterable(records));
+        when(orderProcessorService.processOrder(any(OrderMessageDTO.class))).thenAnswer(invocation ->
+                Mono.delay(Duration.ofMillis(20))
+                        .doOnSubscribe(s -> maxObserved.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                        .doOnTerminate(inFlight::decrementAndGet)
+                        .then());
+
+        subject.start();
+
+        verify(receiverOffset, timeout(2000).times(records.size())).acknowledge();
+        assertEquals(2, maxObserved.get());
+        subject.stop();
+    }
+
+    private ReceiverRecord<String, byte[]> record(long offset, String value) {
+        return new ReceiverRecord<>(new ConsumerRecord<>("orders", 0, offset, null, value.getBytes(StandardCharsets.UTF_8)), receiverOffset);
+    }
+}
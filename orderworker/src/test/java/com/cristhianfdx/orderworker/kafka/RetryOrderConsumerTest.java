@@ -0,0 +1,135 @@
+package com.cristhianfdx.orderworker.kafka;
+
+import com.cristhianfdx.orderworker.config.RetryProperties;
+import com.cristhianfdx.orderworker.dto.OrderMessageDTO;
+import com.cristhianfdx.orderworker.metrics.PipelineMetrics;
+import com.cristhianfdx.orderworker.service.OrderProcessorService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.support.Acknowledgment;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RetryOrderConsumerTest {
+
+    private static final String PAYLOAD = "{\"orderId\":\"order-1\",\"customerId\":\"customer-1\",\"products\":[\"product-1\"]}";
+
+    @Mock
+    private ConcurrentKafkaListenerContainerFactory<String, byte[]> containerFactory;
+
+    @Mock
+    private OrderProcessorService orderProcessorService;
+
+    @Mock
+    private ConsumerFactory<String, byte[]> consumerFactory;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private final RetryProperties retryProperties = new RetryProperties();
+
+    private RetryOrderConsumer subject;
+
+    @Before
+    public void setUp() {
+        subject = new RetryOrderConsumer(containerFactory, new OrderMessageReader(new ObjectMapper()), orderProcessorService,
+                new PipelineMetrics(new SimpleMeterRegistry()), retryProperties);
+    }
+
+    @Test
+    public void shouldStartEveryTierWithTheConfiguredConcurrency() {
+        retryProperties.getTopics().setConcurrency(4);
+        List<UnstartedContainer> containers = new ArrayList<>();
+        when(containerFactory.createContainer(anyString())).thenAnswer(invocation -> {
+            UnstartedContainer container = new UnstartedContainer(consumerFactory, invocation.getArgument(0));
+            containers.add(container);
+            return container;
+        });
+
+        subject.start();
+
+        assertEquals(2, containers.size());
+        containers.forEach(container -> {
+            assertEquals(4, container.getConcurrency());
+            assertEquals(ContainerProperties.AckMode.MANUAL, container.getContainerProperties().getAckMode());
+            assertEquals("order-retry-group", container.getGroupId());
+        });
+    }
+
+    @Test
+    public void shouldReplayDueRecordWithAttemptInContext() {
+        AtomicInteger seenAttempt = new AtomicInteger();
+        when(orderProcessorService.replayOrder(any(OrderMessageDTO.class))).thenReturn(Mono.deferContextual(context -> {
+            seenAttempt.set(context.get(RetryTopicRouter.ATTEMPT_CONTEXT_KEY));
+            return Mono.empty();
+        }));
+
+        subject.onMessage(record(2, System.currentTimeMillis() - 1), acknowledgment);
+
+        assertEquals(2, seenAttempt.get());
+        verify(acknowledgment).acknowledge();
+        verify(acknowledgment, never()).nack(any(Duration.class));
+    }
+
+    @Test
+    public void shouldNackUntilRecordIsDue() {
+        subject.onMessage(record(1, System.currentTimeMillis() + 5_000), acknowledgment);
+
+        verify(acknowledgment).nack(argThat((Duration wait) -> wait.toMillis() > 4_000 && wait.toMillis() <= 5_000));
+        verify(acknowledgment, never()).acknowledge();
+        verifyNoInteractions(orderProcessorService);
+    }
+
+    @Test
+    public void shouldAcknowledgeUnreadablePayload() {
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>("orders-retry-5s", 0, 0, "order-1",
+                "invalid-json".getBytes(StandardCharsets.UTF_8));
+
+        subject.onMessage(record, acknowledgment);
+
+        verify(acknowledgment).acknowledge();
+        verifyNoInteractions(orderProcessorService);
+    }
+
+    /** A real container, so its settings can be read back, that never opens a consumer. */
+    private static final class UnstartedContainer extends ConcurrentMessageListenerContainer<String, byte[]> {
+
+        UnstartedContainer(ConsumerFactory<String, byte[]> consumerFactory, String topic) {
+            super(consumerFactory, new ContainerProperties(topic));
+        }
+
+        @Override
+        protected void doStart() {
+        }
+    }
+
+    private static ConsumerRecord<String, byte[]> record(int attempt, long dueAt) {
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>("orders-retry-5s", 0, 0, "order-1",
+                PAYLOAD.getBytes(StandardCharsets.UTF_8));
+        record.headers().add(RetryTopicRouter.ATTEMPT_HEADER, String.valueOf(attempt).getBytes(StandardCharsets.UTF_8));
+        record.headers().add(RetryTopicRouter.DUE_AT_HEADER, String.valueOf(dueAt).getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+}
@@ -0,0 +1,105 @@
+package com.cristhianfdx.orderworker.kafka;
+
+import com.cristhianfdx.orderworker.config.IngestionProperties;
+import com.cristhianfdx.orderworker.config.RetryProperties;
+import com.cristhianfdx.orderworker.exceptions.ExternalApiException;
+import com.cristhianfdx.orderworker.exceptions.InactiveCustomerException;
+import com.cristhianfdx.orderworker.metrics.PipelineMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.kafka.core.KafkaTemplate;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RetryTopicRouterTest {
+
+    private static final String PAYLOAD = "{\"orderId\":\"order-1\"}";
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private RetryTopicRouter subject;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        subject = new RetryTopicRouter(kafkaTemplate, new RetryProperties(), new IngestionProperties(),
+                new PipelineMetrics(new SimpleMeterRegistry()));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    public void shouldSendFirstRetryableFailureToFirstTier() {
+        long before = System.currentTimeMillis();
+
+        StepVerifier.create(subject.route("order-1", PAYLOAD, new ExternalApiException("go-api down"), true))
+                .verifyComplete();
+
+        ProducerRecord<String, String> record = sentRecord();
+        assertEquals("orders-retry-5s", record.topic());
+        assertEquals("order-1", record.key());
+        assertEquals(PAYLOAD, record.value());
+        assertEquals(1, RetryTopicRouter.attemptOf(record.headers()));
+        assertTrue(RetryTopicRouter.dueAtOf(record.headers()) >= before + 5_000);
+        assertEquals("orders", header(record, RetryTopicRouter.ORIGINAL_TOPIC_HEADER));
+        assertEquals(ExternalApiException.class.getName(), header(record, RetryTopicRouter.EXCEPTION_HEADER));
+        assertEquals("go-api down", header(record, RetryTopicRouter.EXCEPTION_MESSAGE_HEADER));
+    }
+
+    @Test
+    public void shouldMoveToNextTierUsingAttemptFromContext() {
+        StepVerifier.create(subject.route("order-1", PAYLOAD, new ExternalApiException("go-api down"), true)
+                        .contextWrite(Context.of(RetryTopicRouter.ATTEMPT_CONTEXT_KEY, 1)))
+                .verifyComplete();
+
+        ProducerRecord<String, String> record = sentRecord();
+        assertEquals("orders-retry-1m", record.topic());
+        assertEquals(2, RetryTopicRouter.attemptOf(record.headers()));
+    }
+
+    @Test
+    public void shouldDeadLetterWhenTiersAreExhausted() {
+        StepVerifier.create(subject.route("order-1", PAYLOAD, new ExternalApiException("go-api down"), true)
+                        .contextWrite(Context.of(RetryTopicRouter.ATTEMPT_CONTEXT_KEY, 2)))
+                .verifyComplete();
+
+        assertEquals("orders-dlt", sentRecord().topic());
+    }
+
+    @Test
+    public void shouldDeadLetterTerminalFailureImmediately() {
+        StepVerifier.create(subject.route("order-1", PAYLOAD, new InactiveCustomerException("customer-1"), false))
+                .verifyComplete();
+
+        ProducerRecord<String, String> record = sentRecord();
+        assertEquals("orders-dlt", record.topic());
+        assertEquals(InactiveCustomerException.class.getName(), header(record, RetryTopicRouter.EXCEPTION_HEADER));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ProducerRecord<String, String> sentRecord() {
+        ArgumentCaptor<ProducerRecord<String, String>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(captor.capture());
+        return captor.getValue();
+    }
+
+    private static String header(ProducerRecord<String, String> record, String name) {
+        return new String(record.headers().lastHeader(name).value(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,151 @@
+package com.cristhianfdx.orderworker.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stand-in for go-api serving the {@code go-api/data} fixtures on the same routes, with
+ * injectable latency, 5xx and 404 rates.
+ */
+final class GoApiStub implements AutoCloseable {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, JsonNode> customers;
+    private final Map<String, JsonNode> products;
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double errorRate;
+    private final double notFoundRate;
+    private final HttpServer server;
+
+    GoApiStub(Path dataDir, long latencyMs, long jitterMs, double errorRate, double notFoundRate) throws IOException {
+        this.customers = load(dataDir.resolve("customers.json"));
+        this.products = load(dataDir.resolve("products.json"));
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.errorRate = errorRate;
+        this.notFoundRate = notFoundRate;
+
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/customers", exchange -> handle(exchange, customers));
+        server.createContext("/api/products", exchange -> handle(exchange, products));
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/api";
+    }
+
+    List<String> customerIds() {
+        return List.copyOf(customers.keySet());
+    }
+
+    List<String> productIds() {
+        return List.copyOf(products.keySet());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange, Map<String, JsonNode> resources) throws IOException {
+        try (exchange) {
+            simulateLatency();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (random.nextDouble() < errorRate) {
+                respond(exchange, 500, "{\"message\":\"injected failure\"}");
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            String context = exchange.getHttpContext().getPath();
+            if (path.length() > context.length() + 1) {
+                String id = path.substring(context.length() + 1);
+                JsonNode resource = resources.get(id);
+                if (resource == null || random.nextDouble() < notFoundRate) {
+                    respond(exchange, 404, "{\"message\":\"not found\"}");
+                    return;
+                }
+                respond(exchange, 200, objectMapper.writeValueAsString(resource));
+                return;
+            }
+
+            String ids = queryParam(exchange, "ids");
+            if (ids == null) {
+                // Full listing, as the worker's catalog warm-up requests it.
+                respond(exchange, 200, objectMapper.writeValueAsString(resources.values()));
+                return;
+            }
+            if (ids.isBlank()) {
+                respond(exchange, 400, "{\"message\":\"ids query parameter must not be empty\"}");
+                return;
+            }
+            List<JsonNode> found = Arrays.stream(ids.split(","))
+                    .map(String::trim)
+                    .map(resources::get)
+                    .filter(resource -> resource != null && random.nextDouble() >= notFoundRate)
+                    .toList();
+            respond(exchange, 200, objectMapper.writeValueAsString(found));
+        }
+    }
+
+    private void simulateLatency() {
+        long delay = latencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+        if (delay > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static String queryParam(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private Map<String, JsonNode> load(Path file) throws IOException {
+        Map<String, JsonNode> byId = new LinkedHashMap<>();
+        for (JsonNode node : objectMapper.readTree(file.toFile())) {
+            byId.put(node.get("id").asText(), node);
+        }
+        return byId;
+    }
+}
@@ -0,0 +1,310 @@
+package com.cristhianfdx.orderworker.loadtest;
+
+import com.cristhianfdx.orderworker.OrderWorkerApplication;
+import com.cristhianfdx.orderworker.avro.OrderMessage;
+import com.cristhianfdx.orderworker.config.RetryProperties;
+import com.cristhianfdx.orderworker.dto.OrderMessageDTO;
+import com.cristhianfdx.orderworker.exceptions.OrderAlreadyExists;
+import com.cristhianfdx.orderworker.kafka.OrderMessageReader;
+import com.cristhianfdx.orderworker.metrics.PipelineMetrics;
+import com.cristhianfdx.orderworker.model.Order;
+import com.cristhianfdx.orderworker.repository.OrderRepository;
+import com.cristhianfdx.orderworker.service.FailedMessageService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.HdrHistogram.Histogram;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Capacity test for the worker without the docker-compose stack. It starts the real
+ * application against an embedded Kafka broker and a go-api stub; Mongo and Redis are
+ * replaced by in-memory stand-ins for {@link OrderRepository} and
+ * {@link FailedMessageService}. Orders are produced at a fixed rate and followed until
+ * they are saved or fail, then throughput, end-to-end latency and failure causes are
+ * reported.
+ *
+ * <p>Settings are system properties, e.g. {@code -Dloadtest.rate=1000
+ * -Dloadtest.duration-seconds=60 -Dstub.latency-ms=20 -Dstub.error-rate=0.01}. Any
+ * application property such as {@code -Dapp.ingestion.mode=reactive} is applied too.
+ * {@code -Dloadtest.format=avro} produces Avro payloads instead of JSON.
+ */
+public final class LoadTestRunner {
+
+    private static final String TOPIC = "orders";
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rate = Integer.getInteger("loadtest.rate", 200);
+        int durationSeconds = Integer.getInteger("loadtest.duration-seconds", 30);
+        int drainSeconds = Integer.getInteger("loadtest.drain-seconds", 30);
+        int partitions = Integer.getInteger("loadtest.partitions", 6);
+        int maxProducts = Integer.getInteger("loadtest.max-products", 5);
+        String ordersFile = System.getProperty("loadtest.orders-file");
+        boolean avro = "avro".equals(System.getProperty("loadtest.format", "json"));
+        Path dataDir = Path.of(System.getProperty("loadtest.data-dir", "../go-api/data"));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        LoadTestTracker tracker = new LoadTestTracker();
+        EmbeddedKafkaKraftBroker broker = new EmbeddedKafkaKraftBroker(1, partitions, TOPIC);
+        broker.afterPropertiesSet();
+
+        try (GoApiStub stub = new GoApiStub(dataDir,
+                Long.getLong("stub.latency-ms", 5),
+                Long.getLong("stub.jitter-ms", 5),
+                Double.parseDouble(System.getProperty("stub.error-rate", "0")),
+                Double.parseDouble(System.getProperty("stub.not-found-rate", "0")));
+             ConfigurableApplicationContext context = startWorker(broker, stub, tracker);
+             KafkaProducer<String, byte[]> producer = producer(broker)) {
+
+            OrderStream orders = ordersFile != null
+                    ? OrderStream.replay(Path.of(ordersFile), objectMapper)
+                    : OrderStream.generated(stub.customerIds(), stub.productIds(), maxProducts);
+
+            produce(producer, orders, objectMapper, avro, tracker, rate, durationSeconds);
+            drain(tracker, drainSeconds);
+            report(tracker, context.getBean(MeterRegistry.class), rate, durationSeconds);
+        } finally {
+            broker.destroy();
+        }
+    }
+
+    private static ConfigurableApplicationContext startWorker(EmbeddedKafkaKraftBroker broker, GoApiStub stub,
+                                                              LoadTestTracker tracker) {
+        // System properties outrank application.yml; anything passed with -D wins.
+        Map<String, String> overrides = Map.ofEntries(
+                Map.entry("spring.kafka.bootstrap-servers", broker.getBrokersAsString()),
+                Map.entry("spring.data.mongodb.auto-index-creation", "false"),
+                Map.entry("external.api.customer", stub.baseUrl() + "/customers"),
+                Map.entry("external.api.product", stub.baseUrl() + "/products"),
+                Map.entry("app.processing.lock-mode", "local"),
+                // No Redis here: the shared cache tier would only add failed round trips.
+                Map.entry("app.cache.shared.enabled", "false"),
+                // The stand-in repository starts empty, so the dedup filter has nothing to rebuild from.
+                Map.entry("app.processing.dedup.rebuild-on-startup", "false"),
+                Map.entry("app.persistence.migration.enabled", "false"),
+                Map.entry("app.retry.scheduler.enabled", "false"),
+                Map.entry("server.port", "0"),
+                Map.entry("logging.level.com.cristhianfdx.orderworker", "WARN"),
+                Map.entry("logging.level.org.apache.kafka", "WARN"),
+                Map.entry("logging.level.kafka", "WARN")
+        );
+        overrides.forEach((key, value) -> {
+            if (System.getProperty(key) == null) {
+                System.setProperty(key, value);
+            }
+        });
+        return new SpringApplicationBuilder(OrderWorkerApplication.class)
+                .initializers(context -> registerStandIns((GenericApplicationContext) context, tracker))
+                .run();
+    }
+
+    private static void registerStandIns(GenericApplicationContext context, LoadTestTracker tracker) {
+        Map<String, Boolean> saved = new ConcurrentHashMap<>();
+        OrderRepository orderRepository = (OrderRepository) Proxy.newProxyInstance(
+                OrderRepository.class.getClassLoader(),
+                new Class<?>[]{OrderRepository.class},
+                (proxy, method, methodArgs) -> {
+                    if (method.getName().equals("existsByOrderId")) {
+                        return Mono.just(saved.containsKey((String) methodArgs[0]));
+                    }
+                    if (!method.getName().equals("insertBuffered")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    Order order = (Order) methodArgs[0];
+                    if (saved.putIfAbsent(order.getOrderId(), Boolean.TRUE) != null) {
+                        return Mono.error(new OrderAlreadyExists(order.getOrderId()));
+                    }
+                    tracker.completed(order.getOrderId());
+                    return Mono.just(order);
+                });
+
+        context.registerBean("loadTestOrderRepository", OrderRepository.class,
+                () -> orderRepository, definition -> definition.setPrimary(true));
+        // Persistence for app.ingestion.mode=blocking, which writes through MongoOperations.
+        if ("blocking".equals(context.getEnvironment().getProperty("app.ingestion.mode"))) {
+            context.registerBean("loadTestMongoTemplate", MongoTemplate.class,
+                    () -> new TrackingMongoTemplate(context.getBean(MongoDatabaseFactory.class), saved, tracker),
+                    definition -> definition.setPrimary(true));
+        }
+        context.registerBean("loadTestFailedMessageService", FailedMessageService.class,
+                () -> new TrackingFailedMessageService(context.getBean(RetryProperties.class),
+                        context.getBean(PipelineMetrics.class), tracker),
+                definition -> definition.setPrimary(true));
+    }
+
+    private static KafkaProducer<String, byte[]> producer(EmbeddedKafkaKraftBroker broker) {
+        return new KafkaProducer<>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+                ProducerConfig.LINGER_MS_CONFIG, 5,
+                ProducerConfig.ACKS_CONFIG, "1"
+        ), new StringSerializer(), new ByteArraySerializer());
+    }
+
+    private static void produce(KafkaProducer<String, byte[]> producer, OrderStream orders, ObjectMapper objectMapper,
+                                boolean avro, LoadTestTracker tracker, int rate, int durationSeconds) throws Exception {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        for (long i = 0; orders.hasNext(); i++) {
+            long due = start + i * intervalNanos;
+            if (due >= end) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            OrderMessageDTO order = orders.next();
+            tracker.sent(order.getOrderId());
+            ProducerRecord<String, byte[]> record = new ProducerRecord<>(TOPIC, order.getOrderId(),
+                    avro ? avro(order) : objectMapper.writeValueAsBytes(order));
+            if (avro) {
+                record.headers().add(OrderMessageReader.CONTENT_TYPE_HEADER,
+                        OrderMessageReader.AVRO_CONTENT_TYPE.getBytes(StandardCharsets.UTF_8));
+            }
+            producer.send(record);
+        }
+        producer.flush();
+    }
+
+    private static byte[] avro(OrderMessageDTO order) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OrderMessage.getEncoder().encode(OrderMessage.newBuilder()
+                .setOrderId(order.getOrderId())
+                .setCustomerId(order.getCustomerId())
+                .setProducts(order.getProducts())
+                .build(), out);
+        return out.toByteArray();
+    }
+
+    private static void drain(LoadTestTracker tracker, int drainSeconds) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(drainSeconds);
+        while (tracker.pending() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+        }
+    }
+
+    private static void report(LoadTestTracker tracker, MeterRegistry meterRegistry, int rate, int durationSeconds) {
+        Histogram latency = tracker.latencyMicros();
+        double elapsed = tracker.elapsedSeconds();
+        long done = tracker.completedCount() + tracker.failedCount();
+
+        Map<String, Long> failures = new TreeMap<>();
+        for (Timer timer : meterRegistry.find(PipelineMetrics.STAGE_TIMER)
+                .tags("stage", "process", "outcome", "error")
+                .timers()) {
+            failures.merge(timer.getId().getTag("exception"), timer.count(), Long::sum);
+        }
+
+        StringBuilder out = new StringBuilder();
+        out.append("\n=== Order worker load test ===\n");
+        out.append(String.format("Target            : %d orders/s for %d s%n", rate, durationSeconds));
+        out.append(String.format("Sent              : %d%n", tracker.sentCount()));
+        out.append(String.format("Saved             : %d%n", tracker.completedCount()));
+        out.append(String.format("Failed            : %d%n", tracker.failedCount()));
+        out.append(String.format("Unfinished        : %d%n", tracker.pending()));
+        out.append(String.format("Sustained         : %.1f orders/s%n", elapsed == 0 ? 0 : done / elapsed));
+        out.append(String.format("E2E latency (ms)  : p50 %.2f | p90 %.2f | p99 %.2f | p99.9 %.2f | max %.2f%n",
+                millis(latency, 50), millis(latency, 90), millis(latency, 99), millis(latency, 99.9),
+                latency.getMaxValue() / 1000.0));
+        out.append("Failures by cause :");
+        if (failures.isEmpty()) {
+            out.append(" none");
+        }
+        failures.forEach((cause, count) -> out.append(String.format("%n  %-30s %d", cause, count)));
+        System.out.println(out);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static final class TrackingMongoTemplate extends MongoTemplate {
+
+        private final Map<String, Boolean> saved;
+        private final LoadTestTracker tracker;
+
+        TrackingMongoTemplate(MongoDatabaseFactory databaseFactory, Map<String, Boolean> saved, LoadTestTracker tracker) {
+            super(databaseFactory);
+            this.saved = saved;
+            this.tracker = tracker;
+        }
+
+        @Override
+        public <T> T insert(T objectToSave) {
+            Order order = (Order) objectToSave;
+            if (saved.putIfAbsent(order.getOrderId(), Boolean.TRUE) != null) {
+                throw new DuplicateKeyException("E11000 duplicate key orderId " + order.getOrderId());
+            }
+            tracker.completed(order.getOrderId());
+            return objectToSave;
+        }
+
+        @Override
+        public boolean exists(Query query, Class<?> entityClass) {
+            return saved.containsKey(query.getQueryObject().getString("orderId"));
+        }
+    }
+
+    private static final class TrackingFailedMessageService extends FailedMessageService {
+
+        private final LoadTestTracker tracker;
+
+        TrackingFailedMessageService(RetryProperties retryProperties, PipelineMetrics pipelineMetrics,
+                                     LoadTestTracker tracker) {
+            super(null, retryProperties, pipelineMetrics, null);
+            this.tracker = tracker;
+        }
+
+        @Override
+        public Mono<Integer> recordFailure(String orderId, String payload, String error, boolean retryable) {
+            tracker.failed(orderId);
+            return Mono.just(retryable ? 1 : 0);
+        }
+
+        @Override
+        public int recordFailureBlocking(String orderId, String payload, String error, boolean retryable) {
+            tracker.failed(orderId);
+            return retryable ? 1 : 0;
+        }
+
+        @Override
+        public Flux<String> claimDueRetries(int batchSize, long leaseMs) {
+            return Flux.empty();
+        }
+
+        @Override
+        public Mono<Void> removeFailedMessage(String orderId) {
+            return Mono.empty();
+        }
+    }
+}
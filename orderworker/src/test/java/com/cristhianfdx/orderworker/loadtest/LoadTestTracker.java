@@ -0,0 +1,81 @@
+package com.cristhianfdx.orderworker.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Follows every order from the moment it is produced until the worker either saves it
+ * or records its failure, and keeps the end-to-end latency distribution in microseconds.
+ */
+final class LoadTestTracker {
+
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+    private final Histogram latencyMicros = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(10), 3);
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicLong firstSentNanos = new AtomicLong();
+    private final AtomicLong lastDoneNanos = new AtomicLong();
+
+    void sent(String orderId) {
+        long now = System.nanoTime();
+        firstSentNanos.compareAndSet(0, now);
+        pending.put(orderId, now);
+        sent.increment();
+    }
+
+    void completed(String orderId) {
+        if (finish(orderId)) {
+            completed.increment();
+        }
+    }
+
+    void failed(String orderId) {
+        if (finish(orderId)) {
+            failed.increment();
+        }
+    }
+
+    long pending() {
+        return pending.size();
+    }
+
+    long sentCount() {
+        return sent.sum();
+    }
+
+    long completedCount() {
+        return completed.sum();
+    }
+
+    long failedCount() {
+        return failed.sum();
+    }
+
+    Histogram latencyMicros() {
+        return latencyMicros;
+    }
+
+    double elapsedSeconds() {
+        long first = firstSentNanos.get();
+        long last = lastDoneNanos.get();
+        return first == 0 || last <= first ? 0 : (last - first) / 1e9;
+    }
+
+    private boolean finish(String orderId) {
+        Long sentAt = pending.remove(orderId);
+        if (sentAt == null) {
+            return false;
+        }
+        long now = System.nanoTime();
+        latencyMicros.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(now - sentAt), latencyMicros.getHighestTrackableValue()));
+        lastDoneNanos.accumulateAndGet(now, Math::max);
+        return true;
+    }
+}
@@ -0,0 +1,72 @@
+package com.cristhianfdx.orderworker.loadtest;
+
+import com.cristhianfdx.orderworker.dto.OrderMessageDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Source of order payloads: either generated from the fixture IDs, or replayed from a
+ * JSON-lines file holding one {@link OrderMessageDTO} per line.
+ */
+interface OrderStream extends Iterator<OrderMessageDTO> {
+
+    static OrderStream generated(List<String> customerIds, List<String> productIds, int maxProducts) {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        return new OrderStream() {
+            private long sequence;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public OrderMessageDTO next() {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int productCount = 1 + random.nextInt(maxProducts);
+                List<String> products = new ArrayList<>(productCount);
+                for (int i = 0; i < productCount; i++) {
+                    products.add(productIds.get(random.nextInt(productIds.size())));
+                }
+                return OrderMessageDTO.builder()
+                        .orderId("lt-" + runId + "-" + sequence++)
+                        .customerId(customerIds.get(random.nextInt(customerIds.size())))
+                        .products(products)
+                        .build();
+            }
+        };
+    }
+
+    static OrderStream replay(Path file, ObjectMapper objectMapper) throws IOException {
+        Iterator<String> lines = Files.readAllLines(file).stream()
+                .filter(line -> !line.isBlank())
+                .iterator();
+        return new OrderStream() {
+            @Override
+            public boolean hasNext() {
+                return lines.hasNext();
+            }
+
+            @Override
+            public OrderMessageDTO next() {
+                if (!lines.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    return objectMapper.readValue(lines.next(), OrderMessageDTO.class);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,60 @@
+package com.cristhianfdx.orderworker.logging;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SampledLoggerTest {
+
+    @Mock
+    private Logger logger;
+
+    @Test
+    public void shouldWriteOneMessagePerIntervalAndCountTheRest() throws Exception {
+        when(logger.isInfoEnabled()).thenReturn(true);
+        SampledLogger subject = SampledLogger.of(logger, Duration.ofMillis(50));
+
+        subject.info("Order {} saved", "order-1");
+        subject.info("Order {} saved", "order-2");
+        subject.info("Order {} saved", "order-3");
+        Thread.sleep(60);
+        subject.info("Order {} saved", "order-4");
+
+        verify(logger).info("Order {} saved ({} similar suppressed)", "order-1", 0L);
+        verify(logger).info("Order {} saved ({} similar suppressed)", "order-4", 2L);
+        verifyNoMoreInteractions(ignoreStubs(logger));
+    }
+
+    @Test
+    public void shouldKeepASeparateBudgetPerMessage() {
+        when(logger.isInfoEnabled()).thenReturn(true);
+        SampledLogger subject = SampledLogger.of(logger, Duration.ofMinutes(1));
+
+        subject.info("Order {} saved", "order-1");
+        subject.info("Order {} saved", "order-2");
+        subject.info("Order {} already saved, skipping it", "order-3");
+
+        verify(logger).info("Order {} saved ({} similar suppressed)", "order-1", 0L);
+        verify(logger).info("Order {} already saved, skipping it ({} similar suppressed)", "order-3", 0L);
+        verifyNoMoreInteractions(ignoreStubs(logger));
+    }
+
+    @Test
+    public void shouldSkipWorkWhenLevelIsDisabled() {
+        when(logger.isDebugEnabled()).thenReturn(false);
+        SampledLogger subject = SampledLogger.of(logger, Duration.ofMillis(50));
+
+        subject.debug("Fetching customer {}", "customer-1");
+
+        verify(logger, never()).debug(anyString(), eq("customer-1"), any());
+    }
+}
@@ -0,0 +1,71 @@
+package com.cristhianfdx.orderworker.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class PipelineMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PipelineMetrics subject;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        subject = new PipelineMetrics(meterRegistry);
+    }
+
+    @Test
+    public void shouldTagStageWithOutcomeAndException() {
+        StepVerifier.create(subject.time("customer.fetch", Mono.just("customer-1")))
+                .expectNext("customer-1")
+                .verifyComplete();
+        StepVerifier.create(subject.time("customer.fetch", Mono.error(new IllegalStateException("boom"))))
+                .verifyError(IllegalStateException.class);
+
+        Timer success = meterRegistry.find(PipelineMetrics.STAGE_TIMER)
+                .tags("stage", "customer.fetch", "outcome", "success", "exception", "none")
+                .timer();
+        Timer error = meterRegistry.find(PipelineMetrics.STAGE_TIMER)
+                .tags("stage", "customer.fetch", "outcome", "error", "exception", "IllegalStateException")
+                .timer();
+
+        assertNotNull(success);
+        assertNotNull(error);
+        assertEquals(1, success.count());
+        assertEquals(1, error.count());
+    }
+
+    @Test
+    public void shouldRecordRepeatedStagesOnTheSameTimer() {
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(subject.time("order.save", Mono.just(i))).expectNext(i).verifyComplete();
+        }
+
+        assertEquals(1, meterRegistry.find(PipelineMetrics.STAGE_TIMER).timers().size());
+        assertEquals(3, meterRegistry.get(PipelineMetrics.STAGE_TIMER).tag("stage", "order.save").timer().count());
+    }
+
+    @Test
+    public void shouldCountOrdersInFlightUntilTheyTerminate() {
+        Sinks.Empty<Void> processing = Sinks.empty();
+
+        StepVerifier.create(subject.trackInFlight(processing.asMono()))
+                .then(() -> assertEquals(1.0, inFlight(), 0.0))
+                .then(processing::tryEmitEmpty)
+                .verifyComplete();
+
+        assertEquals(0.0, inFlight(), 0.0);
+    }
+
+    private double inFlight() {
+        return meterRegistry.get(PipelineMetrics.IN_FLIGHT_GAUGE).gauge().value();
+    }
+}
@@ -0,0 +1,104 @@
+package com.cristhianfdx.orderworker.provider;
+
+import com.cristhianfdx.orderworker.config.EnrichmentProperties;
+import com.cristhianfdx.orderworker.exceptions.ConcurrencyLimitExceededException;
+import com.cristhianfdx.orderworker.exceptions.ExternalApiException;
+import com.cristhianfdx.orderworker.exceptions.ProductNotFoundException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private final EnrichmentProperties properties = new EnrichmentProperties();
+
+    private AdaptiveConcurrencyLimiter subject;
+
+    @Before
+    public void setUp() {
+        EnrichmentProperties.Limiter limiter = properties.getLimiter();
+        limiter.setInitialLimit(2);
+        limiter.setMinLimit(1);
+        limiter.setMaxLimit(10);
+        limiter.setBackoffRatio(0.5);
+        limiter.setMaxQueueSize(1);
+        limiter.setMaxQueueWaitMs(1000);
+        subject = new AdaptiveConcurrencyLimiter(properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void shouldQueueCallsOverTheLimitAndShedOnceTheQueueIsFull() {
+        Sinks.One<String> first = Sinks.one();
+        Sinks.One<String> second = Sinks.one();
+
+        subject.execute(first.asMono()).subscribe();
+        subject.execute(second.asMono()).subscribe();
+        Mono<String> queued = subject.execute(Mono.just("queued"));
+
+        StepVerifier.create(queued)
+                .then(() -> {
+                    assertEquals(1, subject.getQueued());
+                    StepVerifier.create(subject.execute(Mono.just("shed")))
+                            .expectError(ConcurrencyLimitExceededException.class)
+                            .verify();
+                    first.tryEmitValue("first");
+                })
+                .expectNext("queued")
+                .verifyComplete();
+
+        assertEquals(0, subject.getQueued());
+    }
+
+    @Test
+    public void shouldBackOffOnUpstreamFailureButNotOnMissingIds() {
+        StepVerifier.create(subject.execute(Mono.error(new ProductNotFoundException("product-1"))))
+                .expectError(ProductNotFoundException.class)
+                .verify();
+        assertEquals(2, subject.getLimit());
+
+        StepVerifier.create(subject.execute(Mono.error(new ExternalApiException("go-api unavailable"))))
+                .expectError(ExternalApiException.class)
+                .verify();
+        assertEquals(1, subject.getLimit());
+        assertEquals(0, subject.getInFlight());
+    }
+
+    @Test
+    public void shouldNotBackOffWhenTheBulkheadRejectsTheCall() {
+        BulkheadFullException rejected = BulkheadFullException.createBulkheadFullException(Bulkhead.ofDefaults("product"));
+
+        StepVerifier.create(subject.execute(Mono.error(rejected)))
+                .expectError(BulkheadFullException.class)
+                .verify();
+
+        assertEquals(2, subject.getLimit());
+        assertEquals(0, subject.getInFlight());
+    }
+
+    @Test
+    public void shouldGrowTheLimitWhileFastCallsKeepItBusy() {
+        Sinks.One<String> busy = Sinks.one();
+        subject.execute(busy.asMono()).subscribe();
+
+        for (int i = 0; i < 20; i++) {
+            StepVerifier.create(subject.execute(Mono.just("ok"))).expectNext("ok").verifyComplete();
+        }
+
+        assertTrue(subject.getLimit() > 2);
+    }
+
+    @Test
+    public void shouldReleasePermitWhenCallIsCancelled() {
+        subject.execute(Mono.never()).subscribe().dispose();
+
+        assertEquals(0, subject.getInFlight());
+    }
+}
@@ -0,0 +1,101 @@
+package com.cristhianfdx.orderworker.provider;
+
+import com.cristhianfdx.orderworker.config.EnrichmentCacheProperties.CacheSpec;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+
+public class EnrichmentCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private EnrichmentCache<String> subject;
+
+    @Before
+    public void setUp() {
+        CacheSpec spec = new CacheSpec();
+        spec.setMaxSize(10);
+        spec.setTtlMs(1000);
+        AsyncCache<String, String> cache = EnrichmentCache.newBuilder(spec, nanos::get)
+                .executor(Runnable::run)
+                .buildAsync();
+        subject = new EnrichmentCache<>(cache);
+    }
+
+    @Test
+    public void shouldServeRepeatedLookupsFromCache() {
+        StepVerifier.create(subject.get("product-1", this::load)).expectNext("value-product-1").verifyComplete();
+        StepVerifier.create(subject.get("product-1", this::load)).expectNext("value-product-1").verifyComplete();
+
+        assertEquals(1, loads.get());
+        assertEquals(1, subject.stats().hitCount());
+        assertEquals(1, subject.stats().missCount());
+    }
+
+    @Test
+    public void shouldShareOneLoadBetweenConcurrentMisses() {
+        Sinks.One<String> response = Sinks.one();
+
+        Mono<String> first = subject.get("product-1", id -> {
+            loads.incrementAndGet();
+            return response.asMono();
+        });
+        Mono<String> second = subject.get("product-1", this::load);
+
+        StepVerifier.create(first.zipWith(second))
+                .then(() -> response.tryEmitValue("shared"))
+                .assertNext(tuple -> {
+                    assertEquals("shared", tuple.getT1());
+                    assertEquals("shared", tuple.getT2());
+                })
+                .verifyComplete();
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void shouldReloadAfterTtlExpires() {
+        subject.get("product-1", this::load).block();
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1001));
+        subject.get("product-1", this::load).block();
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void shouldNotCacheFailedLoads() {
+        StepVerifier.create(subject.get("product-1", id -> Mono.error(new IllegalStateException("down"))))
+                .expectErrorMessage("down")
+                .verify();
+
+        StepVerifier.create(subject.get("product-1", this::load)).expectNext("value-product-1").verifyComplete();
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void shouldCallLoaderDirectlyWhenDisabled() {
+        EnrichmentCache<String> disabled = EnrichmentCache.disabled();
+
+        disabled.get("product-1", this::load).block();
+        disabled.get("product-1", this::load).block();
+
+        assertEquals(2, loads.get());
+    }
+
+    private Mono<String> load(String id) {
+        return Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return "value-" + id;
+        });
+    }
+}
@@ -1,23 +1,32 @@
 package com.cristhianfdx.orderworker.provider;
 
+import com.cristhianfdx.orderworker.config.EnrichmentProperties;
 import com.cristhianfdx.orderworker.config.ExternalAPIProperties;
 import com.cristhianfdx.orderworker.config.RetryProperties;
 import com.cristhianfdx.orderworker.dto.CustomerDTO;
 import com.cristhianfdx.orderworker.dto.ProductDTO;
 import com.cristhianfdx.orderworker.exceptions.CustomerNotFoundException;
 import com.cristhianfdx.orderworker.exceptions.ProductNotFoundException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
-import static org.mockito.ArgumentMatchers.anyString;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -39,24 +48,32 @@ public class EnrichmentClientTest {
     private RetryProperties retryProperties;
 
     @Mock
-    private ExternalAPIProperties externalAPIProperties;
+    private ProductCatalog productCatalog;
+
+    @Spy
+    private ExternalAPIProperties externalAPIProperties = new ExternalAPIProperties();
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
 
-    @InjectMocks
     private EnrichmentClient subject;
 
 
     @Before
     public void setUp() {
         when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString())).thenReturn(requestHeadersSpec);
+        when(requestHeadersUriSpec.uri(any(URI.class))).thenReturn(requestHeadersSpec);
         when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
 
         when(retryProperties.getMaxAttempts()).thenReturn(3);
         when(retryProperties.getInitialIntervalMs()).thenReturn(100L);
-        when(externalAPIProperties.getCustomer()).thenReturn("http://localhost:3000/api/customers");
-        when(externalAPIProperties.getProduct()).thenReturn("http://localhost:3000/api/products");
-
-        subject = new EnrichmentClient(webClient, retryProperties, externalAPIProperties);
+        externalAPIProperties.setCustomer("http://localhost:3000/api/customers");
+        externalAPIProperties.setProduct("http://localhost:3000/api/products");
+
+        subject = new EnrichmentClient(webClient, retryProperties, externalAPIProperties,
+                EnrichmentCache.disabled(), EnrichmentCache.disabled(),
+                SharedEnrichmentCache.disabled(), SharedEnrichmentCache.disabled(), unbatched(),
+                circuitBreakerRegistry, BulkheadRegistry.ofDefaults(), limiter(),
+                new RequestHedger(new EnrichmentProperties(), new SimpleMeterRegistry()), productCatalog);
     }
 
     @Test
@@ -136,6 +153,31 @@ public class EnrichmentClientTest {
                 .verify();
     }
 
+    @Test
+    public void shouldFailFastWithoutCallingApiWhenCircuitIsOpen() {
+        AtomicInteger calls = new AtomicInteger();
+        circuitBreakerRegistry.circuitBreaker(EnrichmentClient.PRODUCT_API).transitionToOpenState();
 
-}
+        when(responseSpec.onStatus(Mockito.any(), Mockito.any()))
+                .thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(ProductDTO.class))
+                .thenReturn(Mono.fromCallable(() -> ProductDTO.builder().id(String.valueOf(calls.incrementAndGet())).build()));
 
+        StepVerifier.create(subject.getProductById("product-123"))
+                .expectError(CallNotPermittedException.class)
+                .verify();
+
+        assertEquals(0, calls.get());
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter() {
+        return new AdaptiveConcurrencyLimiter(new EnrichmentProperties(), new SimpleMeterRegistry());
+    }
+
+    private static EnrichmentProperties unbatched() {
+        EnrichmentProperties properties = new EnrichmentProperties();
+        properties.getBatch().getCustomer().setEnabled(false);
+        properties.getBatch().getProduct().setEnabled(false);
+        return properties;
+    }
+}
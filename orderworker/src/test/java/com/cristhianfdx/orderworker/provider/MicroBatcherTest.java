@@ -0,0 +1,83 @@
+package com.cristhianfdx.orderworker.provider;
+
+import com.cristhianfdx.orderworker.config.EnrichmentProperties.BatchSpec;
+import com.cristhianfdx.orderworker.exceptions.ProductNotFoundException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class MicroBatcherTest {
+
+    private final List<Set<String>> bulkCalls = new CopyOnWriteArrayList<>();
+
+    private MicroBatcher<String> subject;
+
+    @Before
+    public void setUp() {
+        subject = batcher(ids -> Mono.just(ids.stream()
+                .filter(id -> !id.startsWith("missing"))
+                .collect(Collectors.toMap(Function.identity(), id -> "value-" + id))));
+    }
+
+    @After
+    public void tearDown() {
+        subject.dispose();
+    }
+
+    @Test
+    public void shouldCollapseConcurrentLookupsIntoOneDeduplicatedCall() {
+        StepVerifier.create(Flux.merge(
+                                subject.load("product-1"),
+                                subject.load("product-2"),
+                                subject.load("product-1"))
+                        .collectList())
+                .assertNext(values -> assertEquals(3, values.size()))
+                .verifyComplete();
+
+        assertEquals(1, bulkCalls.size());
+        assertEquals(Set.of("product-1", "product-2"), bulkCalls.get(0));
+    }
+
+    @Test
+    public void shouldFailOnlyTheCallerWhoseIdIsMissing() {
+        Mono<String> found = subject.load("product-1");
+        Mono<String> missing = subject.load("missing-1");
+
+        StepVerifier.create(Flux.merge(found, missing.onErrorResume(ProductNotFoundException.class, e -> Mono.just("not-found"))).collectList())
+                .assertNext(values -> assertEquals(Set.of("value-product-1", "not-found"), Set.copyOf(values)))
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldPropagateBulkFailureToEveryCaller() {
+        subject.dispose();
+        subject = batcher(ids -> Mono.error(new IllegalStateException("go-api down")));
+
+        StepVerifier.create(subject.load("product-1"))
+                .expectErrorMessage("go-api down")
+                .verify(Duration.ofSeconds(1));
+    }
+
+    private MicroBatcher<String> batcher(Function<Set<String>, Mono<Map<String, String>>> loader) {
+        BatchSpec spec = new BatchSpec();
+        spec.setMaxSize(10);
+        spec.setWindowMs(50);
+        return new MicroBatcher<>(spec, ids -> {
+            bulkCalls.add(Set.copyOf(ids));
+            return loader.apply(ids);
+        }, ProductNotFoundException::new);
+    }
+}
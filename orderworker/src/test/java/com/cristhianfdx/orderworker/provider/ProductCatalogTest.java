@@ -0,0 +1,128 @@
+package com.cristhianfdx.orderworker.provider;
+
+import com.cristhianfdx.orderworker.config.EnrichmentCacheProperties;
+import com.cristhianfdx.orderworker.config.EnrichmentProperties;
+import com.cristhianfdx.orderworker.config.ExternalAPIProperties;
+import com.cristhianfdx.orderworker.dto.ProductDTO;
+import com.cristhianfdx.orderworker.exceptions.ExternalApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ProductCatalogTest {
+
+    private static final String CATALOG = """
+            [{"id":"product-1","name":"Laptop","price":1500},{"id":"product-2","name":"Mouse","price":25.99}]""";
+
+    private final Queue<ClientResponse> responses = new ConcurrentLinkedQueue<>();
+    private final List<ClientRequest> requests = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EnrichmentCache<ProductDTO> productCache =
+            EnrichmentCache.create("enrichment.products", new EnrichmentCacheProperties.CacheSpec(), meterRegistry);
+
+    private ProductCatalog subject;
+    private ProductCatalogHealthIndicator healthIndicator;
+
+    @Before
+    public void setUp() {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    requests.add(request);
+                    return Mono.just(responses.remove());
+                })
+                .build();
+        ExternalAPIProperties externalAPIProperties = new ExternalAPIProperties();
+        externalAPIProperties.setProduct("http://localhost:3000/api/products");
+
+        subject = new ProductCatalog(webClient, externalAPIProperties, new EnrichmentProperties(),
+                productCache, SharedEnrichmentCache.disabled(), meterRegistry);
+        healthIndicator = new ProductCatalogHealthIndicator(subject);
+    }
+
+    @Test
+    public void shouldReportOutOfServiceUntilTheFirstSnapshotIsLoaded() {
+        assertEquals(Status.OUT_OF_SERVICE, healthIndicator.health().getStatus());
+
+        responses.add(catalog("\"v1\""));
+        StepVerifier.create(subject.refresh()).verifyComplete();
+
+        assertTrue(subject.isWarm());
+        assertEquals(Status.UP, healthIndicator.health().getStatus());
+        assertEquals("Mouse", subject.find("product-2").getName());
+        assertNull(subject.find("product-3"));
+    }
+
+    @Test
+    public void shouldRevalidateWithTheLastEtagAndKeepTheSnapshotWhenUnchanged() {
+        responses.add(catalog("\"v1\""));
+        responses.add(ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+
+        StepVerifier.create(subject.refresh()).verifyComplete();
+        StepVerifier.create(subject.refresh()).verifyComplete();
+
+        assertFalse(requests.get(0).headers().containsKey(HttpHeaders.IF_NONE_MATCH));
+        assertEquals(List.of("\"v1\""), requests.get(1).headers().getIfNoneMatch());
+        assertEquals(2, subject.size());
+        assertEquals(1.0, meterRegistry.get(ProductCatalog.REFRESH_COUNTER).tag("outcome", "unchanged").counter().count(), 0);
+    }
+
+    @Test
+    public void shouldKeepThePreviousSnapshotWhenRefreshFails() {
+        responses.add(catalog("\"v1\""));
+        responses.add(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+
+        StepVerifier.create(subject.refresh()).verifyComplete();
+        StepVerifier.create(subject.refresh())
+                .expectError(ExternalApiException.class)
+                .verify();
+
+        assertEquals("Laptop", subject.find("product-1").getName());
+        assertEquals(1.0, meterRegistry.get(ProductCatalog.REFRESH_COUNTER).tag("outcome", "failed").counter().count(), 0);
+    }
+
+    @Test
+    public void shouldDropChangedAndRemovedProductsFromTheLocalCacheWithoutTheSharedCache() {
+        responses.add(catalog("\"v1\""));
+        responses.add(catalog("\"v2\"", """
+                [{"id":"product-1","name":"Laptop","price":1400}]"""));
+        StepVerifier.create(subject.refresh()).verifyComplete();
+        productCache.put("product-1", ProductDTO.builder().id("product-1").name("Laptop").price(1500).build());
+        productCache.put("product-2", ProductDTO.builder().id("product-2").name("Mouse").price(25.99).build());
+
+        StepVerifier.create(subject.refresh()).verifyComplete();
+
+        ProductDTO reloaded = ProductDTO.builder().id("reloaded").build();
+        assertEquals(reloaded, productCache.getBlocking("product-1", id -> reloaded));
+        assertEquals(reloaded, productCache.getBlocking("product-2", id -> reloaded));
+    }
+
+    private static ClientResponse catalog(String etag) {
+        return catalog(etag, CATALOG);
+    }
+
+    private static ClientResponse catalog(String etag, String body) {
+        return ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                .header(HttpHeaders.ETAG, etag)
+                .body(body)
+                .build();
+    }
+}
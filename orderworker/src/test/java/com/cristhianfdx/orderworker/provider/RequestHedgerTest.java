@@ -0,0 +1,80 @@
+package com.cristhianfdx.orderworker.provider;
+
+import com.cristhianfdx.orderworker.config.EnrichmentProperties;
+import com.cristhianfdx.orderworker.exceptions.ProductNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class RequestHedgerTest {
+
+    private final EnrichmentProperties properties = new EnrichmentProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        EnrichmentProperties.Hedge hedge = properties.getHedge();
+        hedge.setEnabled(true);
+        hedge.setInitialDelayMs(20);
+        hedge.setMinDelayMs(20);
+    }
+
+    @Test
+    public void shouldTakeTheHedgeWhenThePrimaryIsSlow() {
+        RequestHedger subject = new RequestHedger(properties, meterRegistry);
+
+        Mono<String> result = subject.hedge(() -> calls.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofSeconds(5)).thenReturn("primary")
+                : Mono.just("hedge"));
+
+        StepVerifier.create(result)
+                .expectNext("hedge")
+                .expectComplete()
+                .verify(Duration.ofSeconds(1));
+
+        assertEquals(2, calls.get());
+        assertEquals(1.0, meterRegistry.get(RequestHedger.HEDGES_COUNTER).counter().count(), 0);
+    }
+
+    @Test
+    public void shouldNotHedgeOnceTheBudgetIsSpent() {
+        properties.getHedge().setBudgetPercent(0);
+        properties.getHedge().setMaxBurst(0);
+        RequestHedger subject = new RequestHedger(properties, meterRegistry);
+
+        Mono<String> result = subject.hedge(() -> {
+            calls.incrementAndGet();
+            return Mono.delay(Duration.ofMillis(100)).thenReturn("primary");
+        });
+
+        StepVerifier.create(result)
+                .expectNext("primary")
+                .verifyComplete();
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void shouldPropagatePrimaryErrorWithoutHedging() {
+        RequestHedger subject = new RequestHedger(properties, meterRegistry);
+
+        Mono<String> result = subject.hedge(() -> {
+            calls.incrementAndGet();
+            return Mono.error(new ProductNotFoundException("product-1"));
+        });
+
+        StepVerifier.create(result)
+                .expectError(ProductNotFoundException.class)
+                .verify();
+
+        assertEquals(1, calls.get());
+    }
+}
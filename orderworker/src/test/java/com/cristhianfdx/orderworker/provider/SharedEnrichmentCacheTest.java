@@ -0,0 +1,93 @@
+package com.cristhianfdx.orderworker.provider;
+
+import com.cristhianfdx.orderworker.config.EnrichmentCacheProperties;
+import com.cristhianfdx.orderworker.dto.ProductDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SharedEnrichmentCacheTest {
+
+    private static final ProductDTO LAPTOP = ProductDTO.builder().id("product-1").name("Laptop").price(1500).build();
+    private static final ProductDTO MOUSE = ProductDTO.builder().id("product-2").name("Mouse").price(25.99).build();
+
+    @Mock
+    private ReactiveRedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ReactiveValueOperations<String, String> valueOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicReference<Set<String>> requested = new AtomicReference<>();
+
+    private SharedEnrichmentCache<ProductDTO> subject;
+
+    @Before
+    public void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        subject = SharedEnrichmentCache.create("product", ProductDTO.class, new EnrichmentCacheProperties.Shared(),
+                redisTemplate, objectMapper, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void shouldOnlyLoadTheIdsMissingFromRedisAndWriteThemBack() throws Exception {
+        when(valueOperations.multiGet(List.of("enrichment:product:product-1", "enrichment:product:product-2")))
+                .thenReturn(Mono.just(Arrays.asList(objectMapper.writeValueAsString(LAPTOP), null)));
+        when(valueOperations.set(eq("enrichment:product:product-2"), anyString(), eq(Duration.ofMinutes(10))))
+                .thenReturn(Mono.just(true));
+
+        StepVerifier.create(subject.readThroughBulk(this::loadMouse).apply(ids("product-1", "product-2")))
+                .expectNext(Map.of("product-1", LAPTOP, "product-2", MOUSE))
+                .verifyComplete();
+
+        assertEquals(Set.of("product-2"), requested.get());
+        verify(valueOperations, never()).set(eq("enrichment:product:product-1"), anyString(), any(Duration.class));
+    }
+
+    @Test
+    public void shouldFallBackToTheLoaderWhenRedisFails() {
+        when(valueOperations.multiGet(any())).thenReturn(Mono.error(new IllegalStateException("redis down")));
+        when(valueOperations.set(anyString(), anyString(), any(Duration.class)))
+                .thenReturn(Mono.error(new IllegalStateException("redis down")));
+
+        StepVerifier.create(subject.readThroughBulk(this::loadMouse).apply(ids("product-2")))
+                .expectNext(Map.of("product-2", MOUSE))
+                .verifyComplete();
+
+        assertEquals(Set.of("product-2"), requested.get());
+    }
+
+    private Mono<Map<String, ProductDTO>> loadMouse(Set<String> productIds) {
+        requested.set(productIds);
+        return Mono.just(Map.of("product-2", MOUSE));
+    }
+
+    private static Set<String> ids(String... ids) {
+        return new LinkedHashSet<>(List.of(ids));
+    }
+}
@@ -0,0 +1,119 @@
+package com.cristhianfdx.orderworker.repository;
+
+import com.cristhianfdx.orderworker.config.PersistenceProperties;
+import com.cristhianfdx.orderworker.exceptions.GeneralException;
+import com.cristhianfdx.orderworker.exceptions.OrderAlreadyExists;
+import com.cristhianfdx.orderworker.model.Order;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OrderBulkRepositoryImplTest {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private ReactiveBulkOperations bulkOperations;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OrderBulkRepositoryImpl subject;
+
+    @Before
+    public void setUp() {
+        PersistenceProperties properties = new PersistenceProperties();
+        properties.getBulk().setBatchSize(3);
+        properties.getBulk().setLingerMs(50);
+        subject = new OrderBulkRepositoryImpl(mongoTemplate, properties, meterRegistry);
+
+        when(mongoTemplate.bulkOps(BulkMode.UNORDERED, Order.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+    }
+
+    @After
+    public void tearDown() {
+        subject.shutdown();
+    }
+
+    @Test
+    public void shouldFlushBufferedOrdersAsOneBulkInsert() {
+        when(bulkOperations.execute()).thenReturn(Mono.just(BulkWriteResult.unacknowledged()));
+
+        StepVerifier.create(Flux.merge(
+                        subject.insertBuffered(order("order-1")),
+                        subject.insertBuffered(order("order-2")),
+                        subject.insertBuffered(order("order-3"))).collectList())
+                .assertNext(saved -> assertEquals(3, saved.size()))
+                .verifyComplete();
+
+        verify(mongoTemplate, times(1)).bulkOps(BulkMode.UNORDERED, Order.class);
+        assertEquals(1, meterRegistry.get("order.bulk.batch.size").summary().count());
+        assertEquals(3.0, meterRegistry.get("order.bulk.batch.size").summary().totalAmount(), 0.0);
+    }
+
+    @Test
+    public void shouldOnlyFailOrdersReportedInWriteErrors() {
+        BulkWriteError writeError = new BulkWriteError(121, "Document failed validation", new BsonDocument(), 1);
+        MongoBulkWriteException bulkError = new MongoBulkWriteException(BulkWriteResult.unacknowledged(),
+                List.of(writeError), null, new ServerAddress(), Set.of());
+        when(bulkOperations.execute()).thenReturn(Mono.error(bulkError));
+
+        StepVerifier.create(Flux.merge(
+                        subject.insertBuffered(order("order-1")).map(Order::getOrderId),
+                        subject.insertBuffered(order("order-2")).map(Order::getOrderId)
+                                .onErrorResume(GeneralException.class, e -> Mono.just("failed:" + e.getMessage())),
+                        subject.insertBuffered(order("order-3")).map(Order::getOrderId)).collectList())
+                .assertNext(results -> {
+                    assertEquals(3, results.size());
+                    assertTrue(results.contains("order-1"));
+                    assertTrue(results.contains("order-3"));
+                    assertTrue(results.stream().anyMatch(r -> r.startsWith("failed:") && r.contains("order-2")));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldMapDuplicateKeyErrorToOrderAlreadyExists() {
+        BulkWriteError writeError = new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), 0);
+        MongoBulkWriteException bulkError = new MongoBulkWriteException(BulkWriteResult.unacknowledged(),
+                List.of(writeError), null, new ServerAddress(), Set.of());
+        when(bulkOperations.execute()).thenReturn(Mono.error(bulkError));
+
+        StepVerifier.create(subject.insertBuffered(order("order-1")))
+                .expectError(OrderAlreadyExists.class)
+                .verify();
+    }
+
+    private Order order(String orderId) {
+        return Order.builder()
+                .orderId(orderId)
+                .customerId("customer-1")
+                .products(List.of())
+                .build();
+    }
+}
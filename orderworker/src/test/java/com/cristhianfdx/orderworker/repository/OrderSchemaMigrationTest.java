@@ -0,0 +1,83 @@
+package com.cristhianfdx.orderworker.repository;
+
+import com.cristhianfdx.orderworker.config.PersistenceProperties;
+import com.cristhianfdx.orderworker.model.Order;
+import com.mongodb.client.result.UpdateResult;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import org.bson.Document;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OrderSchemaMigrationTest {
+
+    @Mock
+    private ReactiveMongoOperations mongoOperations;
+
+    @Mock
+    private MongoCollection<Document> orders;
+
+    private OrderSchemaMigration subject;
+
+    @Before
+    public void setUp() {
+        subject = new OrderSchemaMigration(new PersistenceProperties(), mongoOperations);
+    }
+
+    @Test
+    public void shouldRewriteOldOrdersOnceAndRecordTheVersion() {
+        when(mongoOperations.exists(any(Query.class), eq(OrderSchemaMigration.MIGRATIONS_COLLECTION)))
+                .thenReturn(Mono.just(false));
+        when(mongoOperations.getCollectionName(Order.class)).thenReturn("orders");
+        when(mongoOperations.getCollection("orders")).thenReturn(Mono.just(orders));
+        when(orders.updateMany(OrderSchemaMigration.LEGACY_ORDERS, OrderSchemaMigration.COMPACT_ORDER_FIELDS))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(42, 42L, null)));
+        when(mongoOperations.upsert(any(Query.class), any(Update.class), eq(OrderSchemaMigration.MIGRATIONS_COLLECTION)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)));
+
+        StepVerifier.create(subject.migrate())
+                .expectNext(42L)
+                .verifyComplete();
+
+        verify(mongoOperations).upsert(any(Query.class), any(Update.class), eq(OrderSchemaMigration.MIGRATIONS_COLLECTION));
+    }
+
+    @Test
+    public void shouldSkipAnAppliedVersion() {
+        when(mongoOperations.exists(any(Query.class), eq(OrderSchemaMigration.MIGRATIONS_COLLECTION)))
+                .thenReturn(Mono.just(true));
+
+        StepVerifier.create(subject.migrate())
+                .expectNext(0L)
+                .verifyComplete();
+
+        verify(mongoOperations, never()).getCollection(anyString());
+        verify(mongoOperations, never()).upsert(any(Query.class), any(Update.class), anyString());
+    }
+
+    @Test
+    public void shouldNotRecordTheVersionWhenTheRewriteFails() {
+        when(mongoOperations.exists(any(Query.class), eq(OrderSchemaMigration.MIGRATIONS_COLLECTION)))
+                .thenReturn(Mono.just(false));
+        when(mongoOperations.getCollectionName(Order.class)).thenReturn("orders");
+        when(mongoOperations.getCollection("orders")).thenReturn(Mono.just(orders));
+        when(orders.updateMany(OrderSchemaMigration.LEGACY_ORDERS, OrderSchemaMigration.COMPACT_ORDER_FIELDS))
+                .thenReturn(Mono.error(new IllegalStateException("E11000 duplicate key")));
+
+        subject.start();
+
+        verify(mongoOperations, never()).upsert(any(Query.class), any(Update.class), anyString());
+    }
+}
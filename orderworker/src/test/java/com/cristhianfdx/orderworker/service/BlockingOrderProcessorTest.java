@@ -0,0 +1,165 @@
+package com.cristhianfdx.orderworker.service;
+
+import com.cristhianfdx.orderworker.config.ProcessingProperties;
+import com.cristhianfdx.orderworker.config.RetryProperties;
+import com.cristhianfdx.orderworker.dto.CustomerDTO;
+import com.cristhianfdx.orderworker.dto.CustomerStatusEnum;
+import com.cristhianfdx.orderworker.dto.OrderMessageDTO;
+import com.cristhianfdx.orderworker.dto.ProductDTO;
+import com.cristhianfdx.orderworker.exceptions.ProductNotFoundException;
+import com.cristhianfdx.orderworker.kafka.RetryTopicRouter;
+import com.cristhianfdx.orderworker.metrics.PipelineMetrics;
+import com.cristhianfdx.orderworker.model.Order;
+import com.cristhianfdx.orderworker.provider.BlockingEnrichmentClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BlockingOrderProcessorTest {
+
+    private static final String ORDER_ID = "order123";
+    private static final String CUSTOMER_ID = "customer123";
+
+    @Mock
+    private BlockingEnrichmentClient enrichmentClient;
+
+    @Mock
+    private MongoOperations mongoOperations;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private FailedMessageService failedMessageService;
+
+    @Mock
+    private ObjectProvider<RetryTopicRouter> retryTopicRouter;
+
+    @Mock
+    private ProcessedOrderFilter processedOrderFilter;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BlockingOrderProcessor subject;
+
+    private final OrderMessageDTO message = OrderMessageDTO.builder()
+            .orderId(ORDER_ID)
+            .customerId(CUSTOMER_ID)
+            .products(List.of("product-1", "product-2"))
+            .build();
+
+    @Before
+    public void setUp() {
+        subject = new BlockingOrderProcessor(enrichmentClient, mongoOperations, redisTemplate, failedMessageService,
+                retryTopicRouter, new ObjectMapper(), new ProcessingProperties(), new RetryProperties(),
+                new PipelineMetrics(meterRegistry), processedOrderFilter);
+
+        when(enrichmentClient.getCustomerById(CUSTOMER_ID)).thenReturn(CustomerDTO.builder()
+                .id(CUSTOMER_ID)
+                .status(CustomerStatusEnum.ACTIVE)
+                .build());
+    }
+
+    @Test
+    public void shouldFetchProductsConcurrentlyAndSaveOrderInMessageOrder() {
+        when(enrichmentClient.getProductById(anyString())).thenAnswer(invocation -> ProductDTO.builder()
+                .id(invocation.getArgument(0))
+                .name("Product")
+                .price(10)
+                .build());
+        when(mongoOperations.insert(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        subject.processOrder(message);
+
+        ArgumentCaptor<Order> saved = ArgumentCaptor.forClass(Order.class);
+        verify(mongoOperations).insert(saved.capture());
+        assertEquals(ORDER_ID, saved.getValue().getOrderId());
+        assertEquals("product-1", saved.getValue().getProducts().get(0).getProductId());
+        assertEquals("product-2", saved.getValue().getProducts().get(1).getProductId());
+        verify(processedOrderFilter).addBlocking(ORDER_ID);
+        verifyNoInteractions(failedMessageService, redisTemplate);
+    }
+
+    @Test
+    public void shouldSkipAnOrderAlreadySaved() {
+        when(processedOrderFilter.isEnabled()).thenReturn(true);
+        when(processedOrderFilter.mightContainBlocking(ORDER_ID)).thenReturn(true);
+        when(mongoOperations.exists(any(Query.class), eq(Order.class))).thenReturn(true);
+
+        subject.processOrder(message);
+
+        verify(enrichmentClient, never()).getCustomerById(anyString());
+        verify(mongoOperations, never()).insert(any(Order.class));
+        verify(processedOrderFilter, never()).addBlocking(anyString());
+        assertEquals(1, meterRegistry.find(PipelineMetrics.STAGE_TIMER).tag("stage", "dedup.lookup").timer().count());
+    }
+
+    @Test
+    public void shouldProcessAnOrderNotYetSaved() {
+        when(processedOrderFilter.isEnabled()).thenReturn(true);
+        when(processedOrderFilter.mightContainBlocking(ORDER_ID)).thenReturn(false);
+        when(enrichmentClient.getProductById(anyString())).thenReturn(ProductDTO.builder().id("product").build());
+        when(mongoOperations.insert(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        subject.processOrder(message);
+
+        verify(mongoOperations).insert(any(Order.class));
+        verify(mongoOperations, never()).exists(any(Query.class), eq(Order.class));
+        verify(processedOrderFilter).addBlocking(ORDER_ID);
+    }
+
+    @Test
+    public void shouldNotInsertAnOrderSavedWhileItWasEnriched() {
+        when(processedOrderFilter.isEnabled()).thenReturn(true);
+        when(processedOrderFilter.mightContainBlocking(ORDER_ID)).thenReturn(true);
+        when(mongoOperations.exists(any(Query.class), eq(Order.class))).thenReturn(false, true);
+        when(enrichmentClient.getProductById(anyString())).thenReturn(ProductDTO.builder().id("product").build());
+
+        subject.processOrder(message);
+
+        verify(mongoOperations, times(2)).exists(any(Query.class), eq(Order.class));
+        verify(mongoOperations, never()).insert(any(Order.class));
+        verifyNoInteractions(failedMessageService);
+    }
+
+    @Test
+    public void shouldRecordAFailedProductLookupAsTerminal() {
+        ProductNotFoundException failure = new ProductNotFoundException("product-2");
+        when(enrichmentClient.getProductById("product-1")).thenReturn(ProductDTO.builder().id("product-1").build());
+        when(enrichmentClient.getProductById("product-2")).thenThrow(failure);
+
+        subject.processOrder(message);
+
+        verify(failedMessageService).recordFailureBlocking(eq(ORDER_ID), anyString(), eq(failure.getMessage()), eq(false));
+        verifyNoInteractions(mongoOperations, retryTopicRouter);
+    }
+
+    @Test
+    public void shouldTreatADuplicateKeyAsAnAlreadySavedOrder() {
+        when(enrichmentClient.getProductById(anyString())).thenReturn(ProductDTO.builder().id("product").build());
+        when(mongoOperations.insert(any(Order.class))).thenThrow(new DuplicateKeyException("E11000"));
+
+        subject.processOrder(message);
+
+        verify(processedOrderFilter).addBlocking(ORDER_ID);
+        verifyNoInteractions(failedMessageService);
+    }
+}
@@ -0,0 +1,33 @@
+package com.cristhianfdx.orderworker.service;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BloomFilterTest {
+
+    @Test
+    public void shouldSizeForTheTargetRateAndNeverMissAKeyItWasGiven() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        assertEquals(95_851, filter.bitSize());
+        assertEquals(7, filter.hashFunctions());
+
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("order-" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("order-" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 10_000; i < 110_000; i++) {
+            if (filter.mightContain("order-" + i)) {
+                falsePositives++;
+            }
+        }
+        // 1% of 100k unseen ids, with room for hashing noise.
+        assertTrue("false positives: " + falsePositives, falsePositives < 1_500);
+        assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.002);
+    }
+}
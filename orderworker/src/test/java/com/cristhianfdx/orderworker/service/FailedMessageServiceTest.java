@@ -1,20 +1,29 @@
 package com.cristhianfdx.orderworker.service;
 
+import com.cristhianfdx.orderworker.config.RetryProperties;
 import com.cristhianfdx.orderworker.exceptions.GeneralException;
+import com.cristhianfdx.orderworker.metrics.PipelineMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.redis.core.ReactiveHashOperations;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
-import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -24,51 +33,71 @@ public class FailedMessageServiceTest {
     private ReactiveRedisTemplate<String, String> redisTemplate;
 
     @Mock
-    private ReactiveValueOperations<String, String> valueOperations;
+    private ReactiveHashOperations<String, String, String> hashOperations;
+
+    @Spy
+    private RetryProperties retryProperties = new RetryProperties();
+
+    @Spy
+    private PipelineMetrics pipelineMetrics = new PipelineMetrics(new SimpleMeterRegistry());
 
     @InjectMocks
     private FailedMessageService subject;
 
     private final String orderId = "order-123";
     private final String redisKey = "failed-order:" + orderId;
+    private final String scheduleKey = "failed-orders:retry-schedule";
     private final String jsonBody = "{\"id\": \"order-123\"}";
 
     @Before
     public void setUp() {
-        Mockito.when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-    }
-
-    @Test
-    public void shouldStoreFailedMessage() {
-        when(valueOperations.set(eq(redisKey), eq("1|" + jsonBody))).thenReturn(Mono.just(true));
-
-        StepVerifier.create(subject.storeFailedMessage(orderId, jsonBody, 1))
-                .verifyComplete();
+        retryProperties.setFailureTtlMs(60_000);
+        retryProperties.setInitialIntervalMs(1000);
+        retryProperties.setMultiplier(2.0);
+        retryProperties.setMaxAttempts(3);
     }
 
     @Test
-    public void shouldIncrementRetrySuccess() {
-        when(valueOperations.get(redisKey)).thenReturn(Mono.just("2|" + jsonBody));
-        when(valueOperations.set(eq(redisKey), eq("3|" + jsonBody))).thenReturn(Mono.just(true));
+    @SuppressWarnings("unchecked")
+    public void shouldRecordRetryableFailureInOneScriptCall() {
+        ArgumentCaptor<List<String>> args = ArgumentCaptor.forClass(List.class);
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(redisKey, scheduleKey)), args.capture()))
+                .thenReturn(Flux.just(3L));
 
-        StepVerifier.create(subject.incrementRetry(orderId))
+        StepVerifier.create(subject.recordFailure(orderId, jsonBody, "go-api timeout", true))
                 .expectNext(3)
                 .verifyComplete();
+
+        List<String> captured = args.getValue();
+        assertEquals(jsonBody, captured.get(0));
+        assertEquals("go-api timeout", captured.get(1));
+        assertEquals("1", captured.get(3));
+        assertEquals("60000", captured.get(4));
+        assertEquals(orderId, captured.get(5));
+        assertEquals("1000", captured.get(6));
+        assertEquals("2.0", captured.get(7));
+        assertEquals("3", captured.get(8));
     }
 
     @Test
-    public void shouldIncrementRetryMalformedValue() {
-        when(valueOperations.get(redisKey)).thenReturn(Mono.just("invalid-value"));
+    @SuppressWarnings("unchecked")
+    public void shouldNotIncrementRetryForTerminalFailure() {
+        ArgumentCaptor<List<String>> args = ArgumentCaptor.forClass(List.class);
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(redisKey, scheduleKey)), args.capture()))
+                .thenReturn(Flux.just(0L));
+
+        StepVerifier.create(subject.recordFailure(orderId, jsonBody, "Customer not found", false))
+                .expectNext(0)
+                .verifyComplete();
 
-        StepVerifier.create(subject.incrementRetry(orderId))
-                .expectErrorMatches(err -> err instanceof GeneralException &&
-                        err.getMessage().contains("Malformed Redis value"))
-                .verify();
+        assertEquals("0", args.getValue().get(3));
     }
 
     @Test
     public void shouldGetRetryAndMessageSuccess() {
-        when(valueOperations.get(redisKey)).thenReturn(Mono.just("5|" + jsonBody));
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.multiGet(redisKey, List.of("retryCount", "payload")))
+                .thenReturn(Mono.just(List.of("5", jsonBody)));
 
         StepVerifier.create(subject.getRetryAndMessage(orderId))
                 .assertNext(tuple -> {
@@ -80,12 +109,13 @@ public class FailedMessageServiceTest {
 
     @Test
     public void shouldGetRetryAndMessageMalformedValue() {
-        when(valueOperations.get(redisKey)).thenReturn(Mono.just("just-one-part"));
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.multiGet(redisKey, List.of("retryCount", "payload")))
+                .thenReturn(Mono.just(Arrays.asList("5", null)));
 
         StepVerifier.create(subject.getRetryAndMessage(orderId))
                 .expectErrorMatches(err -> err instanceof GeneralException &&
                         err.getMessage().contains("Malformed Redis value"))
                 .verify();
     }
-
-}
\ No newline at end of file
+}
@@ -1,10 +1,13 @@
 package com.cristhianfdx.orderworker.service;
 
+import com.cristhianfdx.orderworker.metrics.PipelineMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.ReactiveValueOperations;
@@ -24,6 +27,9 @@ public class LockServiceTest {
     @Mock
     private ReactiveValueOperations<String, String> valueOperations;
 
+    @Spy
+    private PipelineMetrics pipelineMetrics = new PipelineMetrics(new SimpleMeterRegistry());
+
     @InjectMocks
     private LockService subject;
 
@@ -0,0 +1,82 @@
+package com.cristhianfdx.orderworker.service;
+
+import com.cristhianfdx.orderworker.config.ProcessingProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class OrderLaneExecutorTest {
+
+    private OrderLaneExecutor subject;
+
+    @Before
+    public void setUp() {
+        ProcessingProperties properties = new ProcessingProperties();
+        properties.setLanes(8);
+        subject = new OrderLaneExecutor(properties);
+    }
+
+    @After
+    public void tearDown() {
+        subject.shutdown();
+    }
+
+    @Test
+    public void shouldRunTasksWithSameKeyOneAtATime() {
+        Sinks.Empty<Void> first = Sinks.empty();
+        AtomicBoolean secondStarted = new AtomicBoolean();
+
+        Mono<Void> firstResult = subject.execute("order-1", first::asMono);
+        Mono<Void> secondResult = subject.execute("order-1", () -> Mono.fromRunnable(() -> secondStarted.set(true)));
+
+        firstResult.subscribe();
+        secondResult.subscribe();
+        assertFalse(secondStarted.get());
+
+        first.tryEmitEmpty();
+        assertTrue(secondStarted.get());
+    }
+
+    @Test
+    public void shouldRunTasksOnDifferentLanesInParallel() {
+        String blockedKey = "order-1";
+        String otherKey = findKeyOnOtherLane(blockedKey);
+
+        subject.execute(blockedKey, Mono::never).subscribe();
+
+        StepVerifier.create(subject.execute(otherKey, Mono::empty))
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldPropagateTaskErrorAndKeepLaneUsable() {
+        List<String> executed = new ArrayList<>();
+
+        StepVerifier.create(subject.execute("order-1", () -> Mono.error(new IllegalStateException("boom"))))
+                .expectErrorMessage("boom")
+                .verify();
+
+        StepVerifier.create(subject.execute("order-1", () -> Mono.fromRunnable(() -> executed.add("order-1"))))
+                .verifyComplete();
+
+        assertEquals(List.of("order-1"), executed);
+    }
+
+    private String findKeyOnOtherLane(String key) {
+        for (int i = 2; ; i++) {
+            String candidate = "order-" + i;
+            if (subject.laneFor(candidate) != subject.laneFor(key)) {
+                return candidate;
+            }
+        }
+    }
+}
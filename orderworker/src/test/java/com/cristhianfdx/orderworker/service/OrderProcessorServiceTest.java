@@ -1,25 +1,36 @@
 package com.cristhianfdx.orderworker.service;
 
+import com.cristhianfdx.orderworker.config.ProcessingProperties;
+import com.cristhianfdx.orderworker.config.RetryProperties;
 import com.cristhianfdx.orderworker.dto.CustomerDTO;
 import com.cristhianfdx.orderworker.dto.CustomerStatusEnum;
 import com.cristhianfdx.orderworker.dto.OrderMessageDTO;
 import com.cristhianfdx.orderworker.dto.ProductDTO;
+import com.cristhianfdx.orderworker.exceptions.ExternalApiException;
+import com.cristhianfdx.orderworker.exceptions.OrderAlreadyExists;
+import com.cristhianfdx.orderworker.kafka.RetryTopicRouter;
+import com.cristhianfdx.orderworker.metrics.PipelineMetrics;
 import com.cristhianfdx.orderworker.model.Order;
 import com.cristhianfdx.orderworker.model.Product;
 import com.cristhianfdx.orderworker.provider.EnrichmentClient;
 import com.cristhianfdx.orderworker.repository.OrderRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.beans.factory.ObjectProvider;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.time.Duration;
 import java.util.List;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -38,8 +49,31 @@ public class OrderProcessorServiceTest {
     @Mock
     private FailedMessageService failedMessageService;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private ProcessingProperties processingProperties = new ProcessingProperties();
+
+    @Spy
+    private RetryProperties retryProperties = new RetryProperties();
+
+    @Mock
+    private RetryTopicRouter retryTopicRouter;
+
     @Mock
-    private ObjectMapper objectMapper;
+    private ObjectProvider<RetryTopicRouter> retryTopicRouterProvider;
+
+    @Spy
+    private OrderLaneExecutor orderLaneExecutor = new OrderLaneExecutor(new ProcessingProperties());
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private PipelineMetrics pipelineMetrics = new PipelineMetrics(meterRegistry);
+
+    @Mock
+    private ProcessedOrderFilter processedOrderFilter;
 
     @InjectMocks
     private OrderProcessorService subject;
@@ -47,6 +81,14 @@ public class OrderProcessorServiceTest {
     private final String ORDER_ID = "order123";
     private final String CUSTOMER_ID = "customer123";
 
+    @Before
+    public void setUp() {
+        processingProperties.setLockMode("redis");
+        retryProperties.setMaxAttempts(3);
+        lenient().when(processedOrderFilter.isEnabled()).thenReturn(true);
+        lenient().when(processedOrderFilter.mightContain(anyString())).thenReturn(Mono.just(false));
+        lenient().when(processedOrderFilter.add(anyString())).thenReturn(Mono.empty());
+    }
 
     @Test
     public void shouldSkipProcessingWhenLockNotAcquired() {
@@ -87,8 +129,8 @@ public class OrderProcessorServiceTest {
                 .orderId(ORDER_ID)
                 .customerId(CUSTOMER_ID)
                 .products(List.of(
-                        Product.builder().productId("product-1").name("Product 1").price(10).build(),
-                        Product.builder().productId("product-2").name("Product 2").price(20).build()
+                        Product.builder().productId("product-1").name("Product 1").priceMinor(1000).build(),
+                        Product.builder().productId("product-2").name("Product 2").priceMinor(2000).build()
                 ))
                 .build();
 
@@ -99,16 +141,205 @@ public class OrderProcessorServiceTest {
                 .build();
 
         when(lockService.tryLock("lock:" + ORDER_ID, Duration.ofMinutes(1))).thenReturn(Mono.just(true));
-        when(orderRepository.findById(ORDER_ID)).thenReturn(Mono.empty());
         when(enrichmentClient.getCustomerById(CUSTOMER_ID)).thenReturn(Mono.just(customer));
         when(enrichmentClient.getProductById("product-1")).thenReturn(Mono.just(product1));
         when(enrichmentClient.getProductById("product-2")).thenReturn(Mono.just(product2));
-        when(orderRepository.save(any(Order.class))).thenReturn(Mono.just(expectedOrder));
+        when(orderRepository.insertBuffered(any(Order.class))).thenReturn(Mono.just(expectedOrder));
         when(lockService.releaseLock("lock:" + ORDER_ID)).thenReturn(Mono.empty());
 
         StepVerifier.create(subject.processOrder(orderMessageDTO))
                 .verifyComplete();
 
-        verify(orderRepository).save(any(Order.class));
+        verify(orderRepository).insertBuffered(argThat(order -> order.getTotalMinor() == 3000
+                && order.getProducts().get(1).getPriceMinor() == 2000));
+    }
+
+    @Test
+    public void shouldProcessOnLocalLaneWithoutRedisLock() {
+        processingProperties.setLockMode("local");
+
+        CustomerDTO customer = CustomerDTO.builder()
+                .id(CUSTOMER_ID)
+                .status(CustomerStatusEnum.ACTIVE)
+                .build();
+
+        ProductDTO product = ProductDTO.builder()
+                .id("product-1")
+                .name("Product 1")
+                .price(10)
+                .build();
+
+        OrderMessageDTO orderMessageDTO = OrderMessageDTO.builder()
+                .orderId(ORDER_ID)
+                .customerId(CUSTOMER_ID)
+                .products(List.of("product-1"))
+                .build();
+
+        when(enrichmentClient.getCustomerById(CUSTOMER_ID)).thenReturn(Mono.just(customer));
+        when(enrichmentClient.getProductById("product-1")).thenReturn(Mono.just(product));
+        when(orderRepository.insertBuffered(any(Order.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(subject.processOrder(orderMessageDTO))
+                .verifyComplete();
+
+        verify(orderLaneExecutor).execute(eq(ORDER_ID), any());
+        verify(orderRepository).insertBuffered(any(Order.class));
+        verify(orderRepository, never()).existsByOrderId(anyString());
+        verify(processedOrderFilter).add(ORDER_ID);
+        verifyNoInteractions(lockService);
+    }
+
+    @Test
+    public void shouldSkipRedeliveredOrderThatIsAlreadySaved() {
+        OrderMessageDTO orderMessageDTO = OrderMessageDTO.builder()
+                .orderId(ORDER_ID)
+                .customerId(CUSTOMER_ID)
+                .products(List.of("product-1"))
+                .build();
+
+        when(processedOrderFilter.mightContain(ORDER_ID)).thenReturn(Mono.just(true));
+        when(orderRepository.existsByOrderId(ORDER_ID)).thenReturn(Mono.just(true));
+
+        StepVerifier.create(subject.processOrder(orderMessageDTO))
+                .verifyComplete();
+
+        verify(orderRepository, never()).insertBuffered(any(Order.class));
+        verifyNoInteractions(enrichmentClient, lockService, failedMessageService);
+        assertEquals(1, meterRegistry.find(PipelineMetrics.STAGE_TIMER).tag("stage", "dedup.lookup").timer().count());
+    }
+
+    @Test
+    public void shouldTreatADuplicateKeyAsAnAlreadySavedOrder() {
+        processingProperties.setLockMode("local");
+
+        CustomerDTO customer = CustomerDTO.builder()
+                .id(CUSTOMER_ID)
+                .status(CustomerStatusEnum.ACTIVE)
+                .build();
+
+        ProductDTO product = ProductDTO.builder()
+                .id("product-1")
+                .name("Product 1")
+                .price(10)
+                .build();
+
+        OrderMessageDTO orderMessageDTO = OrderMessageDTO.builder()
+                .orderId(ORDER_ID)
+                .customerId(CUSTOMER_ID)
+                .products(List.of("product-1"))
+                .build();
+
+        when(enrichmentClient.getCustomerById(CUSTOMER_ID)).thenReturn(Mono.just(customer));
+        when(enrichmentClient.getProductById("product-1")).thenReturn(Mono.just(product));
+        when(orderRepository.insertBuffered(any(Order.class))).thenReturn(Mono.error(new OrderAlreadyExists(ORDER_ID)));
+
+        StepVerifier.create(subject.processOrder(orderMessageDTO))
+                .verifyComplete();
+
+        verify(processedOrderFilter).add(ORDER_ID);
+        verifyNoInteractions(failedMessageService, retryTopicRouter);
+    }
+
+    @Test
+    public void shouldClearFailureRecordWhenRetryFindsTheOrderAlreadyStored() {
+        processingProperties.setLockMode("local");
+
+        OrderMessageDTO orderMessageDTO = OrderMessageDTO.builder()
+                .orderId(ORDER_ID)
+                .customerId(CUSTOMER_ID)
+                .products(List.of("product-1"))
+                .build();
+
+        when(enrichmentClient.getCustomerById(CUSTOMER_ID)).thenReturn(Mono.just(CustomerDTO.builder()
+                .id(CUSTOMER_ID)
+                .status(CustomerStatusEnum.ACTIVE)
+                .build()));
+        when(enrichmentClient.getProductById("product-1")).thenReturn(Mono.just(ProductDTO.builder().id("product-1").build()));
+        when(orderRepository.insertBuffered(any(Order.class))).thenReturn(Mono.error(new OrderAlreadyExists(ORDER_ID)));
+        when(failedMessageService.removeFailedMessage(ORDER_ID)).thenReturn(Mono.empty());
+
+        StepVerifier.create(subject.retryOrder(orderMessageDTO))
+                .verifyComplete();
+
+        verify(failedMessageService).removeFailedMessage(ORDER_ID);
+        verify(failedMessageService, never()).recordFailure(anyString(), anyString(), anyString(), anyBoolean());
+    }
+
+    @Test
+    public void shouldClearFailureRecordWhenRetrySucceeds() {
+        processingProperties.setLockMode("local");
+
+        CustomerDTO customer = CustomerDTO.builder()
+                .id(CUSTOMER_ID)
+                .status(CustomerStatusEnum.ACTIVE)
+                .build();
+
+        ProductDTO product = ProductDTO.builder()
+                .id("product-1")
+                .name("Product 1")
+                .price(10)
+                .build();
+
+        OrderMessageDTO orderMessageDTO = OrderMessageDTO.builder()
+                .orderId(ORDER_ID)
+                .customerId(CUSTOMER_ID)
+                .products(List.of("product-1"))
+                .build();
+
+        when(enrichmentClient.getCustomerById(CUSTOMER_ID)).thenReturn(Mono.just(customer));
+        when(enrichmentClient.getProductById("product-1")).thenReturn(Mono.just(product));
+        when(orderRepository.insertBuffered(any(Order.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(failedMessageService.removeFailedMessage(ORDER_ID)).thenReturn(Mono.empty());
+        when(processedOrderFilter.mightContain(ORDER_ID)).thenReturn(Mono.just(true));
+        when(orderRepository.existsByOrderId(ORDER_ID)).thenReturn(Mono.just(false));
+
+        StepVerifier.create(subject.retryOrder(orderMessageDTO))
+                .verifyComplete();
+
+        verify(failedMessageService).removeFailedMessage(ORDER_ID);
+        verify(failedMessageService, never()).recordFailure(anyString(), anyString(), anyString(), anyBoolean());
+    }
+
+    @Test
+    public void shouldSkipRetryOfAnOrderThatIsAlreadySaved() {
+        OrderMessageDTO orderMessageDTO = OrderMessageDTO.builder()
+                .orderId(ORDER_ID)
+                .customerId(CUSTOMER_ID)
+                .products(List.of("product-1"))
+                .build();
+
+        when(failedMessageService.removeFailedMessage(ORDER_ID)).thenReturn(Mono.empty());
+        when(processedOrderFilter.mightContain(ORDER_ID)).thenReturn(Mono.just(true));
+        when(orderRepository.existsByOrderId(ORDER_ID)).thenReturn(Mono.just(true));
+
+        StepVerifier.create(subject.retryOrder(orderMessageDTO))
+                .verifyComplete();
+
+        verify(failedMessageService).removeFailedMessage(ORDER_ID);
+        verify(orderRepository, never()).insertBuffered(any(Order.class));
+        verifyNoInteractions(enrichmentClient, lockService);
+    }
+
+    @Test
+    public void shouldRouteRetryableFailureToRetryTopicInTopicMode() {
+        processingProperties.setLockMode("local");
+        retryProperties.setMode("topics");
+        when(retryTopicRouterProvider.getObject()).thenReturn(retryTopicRouter);
+
+        OrderMessageDTO orderMessageDTO = OrderMessageDTO.builder()
+                .orderId(ORDER_ID)
+                .customerId(CUSTOMER_ID)
+                .products(List.of("product-1"))
+                .build();
+
+        ExternalApiException failure = new ExternalApiException("go-api unavailable");
+        when(enrichmentClient.getCustomerById(CUSTOMER_ID)).thenReturn(Mono.error(failure));
+        when(retryTopicRouter.route(eq(ORDER_ID), anyString(), eq(failure), eq(true))).thenReturn(Mono.empty());
+
+        StepVerifier.create(subject.processOrder(orderMessageDTO))
+                .verifyComplete();
+
+        verify(retryTopicRouter).route(eq(ORDER_ID), contains(ORDER_ID), eq(failure), eq(true));
+        verifyNoInteractions(failedMessageService);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,180 @@
+package com.cristhianfdx.orderworker.service;
+
+import com.cristhianfdx.orderworker.config.ProcessingProperties;
+import com.cristhianfdx.orderworker.model.Order;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.connection.BitFieldSubCommands;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ProcessedOrderFilterTest {
+
+    @Mock
+    private ReactiveMongoOperations mongoOperations;
+
+    @Mock
+    private ReactiveRedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ReactiveValueOperations<String, String> valueOperations;
+
+    @Mock
+    private StringRedisTemplate blockingRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> blockingValueOperations;
+
+    private final ProcessingProperties processingProperties = new ProcessingProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ProcessedOrderFilter subject;
+
+    @Before
+    public void setUp() {
+        processingProperties.getDedup().setExpectedInsertions(10_000);
+        processingProperties.getDedup().setRebuildTimeoutMs(200);
+        subject = new ProcessedOrderFilter(processingProperties, mongoOperations, null, null, meterRegistry);
+    }
+
+    @Test
+    public void shouldRebuildFromSavedOrdersAndLearnEverySave() {
+        when(mongoOperations.find(any(Query.class), eq(Order.class))).thenReturn(Flux.just(
+                Order.builder().orderId("order-1").build(),
+                Order.builder().orderId("order-2").build()));
+
+        subject.start();
+
+        assertTrue(subject.isReady());
+        StepVerifier.create(subject.mightContain("order-1")).expectNext(true).verifyComplete();
+        StepVerifier.create(subject.mightContain("order-3")).expectNext(false).verifyComplete();
+
+        StepVerifier.create(subject.add("order-3")).verifyComplete();
+        StepVerifier.create(subject.mightContain("order-3")).expectNext(true).verifyComplete();
+
+        assertEquals(1, meterRegistry.counter(ProcessedOrderFilter.CHECK_COUNTER, "result", "new").count(), 0);
+        assertEquals(2, meterRegistry.counter(ProcessedOrderFilter.CHECK_COUNTER, "result", "maybe").count(), 0);
+        assertEquals(1, meterRegistry.timer(ProcessedOrderFilter.REBUILD_TIMER).count());
+    }
+
+    @Test
+    public void shouldTreatEveryOrderAsPossiblySeenUntilTheRebuildFinishes() {
+        when(mongoOperations.find(any(Query.class), eq(Order.class))).thenReturn(Flux.never());
+
+        subject.start();
+
+        assertFalse(subject.isReady());
+        StepVerifier.create(subject.mightContain("order-3")).expectNext(true).verifyComplete();
+        assertEquals(1, meterRegistry.counter(ProcessedOrderFilter.CHECK_COUNTER, "result", "bypass").count(), 0);
+        subject.stop();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectARedisFilterLargerThanABitmapCanAddress() {
+        processingProperties.getDedup().setStore("redis");
+        processingProperties.getDedup().setExpectedInsertions(1_000_000_000);
+        processingProperties.getDedup().setFalsePositiveRate(0.001);
+
+        new ProcessedOrderFilter(processingProperties, mongoOperations, redisTemplate, null, meterRegistry);
+    }
+
+    @Test
+    public void shouldRebuildAnEvictedRedisBitmapAndMarkItBuiltInTheSameKey() {
+        ProcessedOrderFilter redisFilter = redisFilter();
+        when(valueOperations.bitField(anyString(), any(BitFieldSubCommands.class))).thenAnswer(invocation -> {
+            BitFieldSubCommands commands = invocation.getArgument(1);
+            // An evicted bitmap reads as all zeros, built marker included.
+            return Mono.just(new ArrayList<>(Collections.nCopies(commands.getSubCommands().size(), 0L)));
+        });
+        when(mongoOperations.find(any(Query.class), eq(Order.class))).thenReturn(Flux.just(
+                Order.builder().orderId("order-1").build()));
+
+        StepVerifier.create(redisFilter.rebuildFromSavedOrders()).expectNext(1L).verifyComplete();
+
+        // Marker read, the order's bits set, then the marker set: all on the bitmap key itself.
+        verify(valueOperations, times(3)).bitField(startsWith("dedup:orders:"), any(BitFieldSubCommands.class));
+        verify(redisTemplate, never()).hasKey(anyString());
+    }
+
+    @Test
+    public void shouldTreatOrdersAsPossiblySeenWhenTheRedisBitmapIsMissing() {
+        ProcessedOrderFilter redisFilter = redisFilter();
+        processingProperties.getDedup().setRebuildOnStartup(false);
+        redisFilter.start();
+        when(valueOperations.bitField(anyString(), any(BitFieldSubCommands.class))).thenAnswer(invocation -> {
+            BitFieldSubCommands commands = invocation.getArgument(1);
+            return Mono.just(new ArrayList<>(Collections.nCopies(commands.getSubCommands().size(), 0L)));
+        });
+
+        StepVerifier.create(redisFilter.mightContain("order-3")).expectNext(true).verifyComplete();
+        assertEquals(1, meterRegistry.counter(ProcessedOrderFilter.CHECK_COUNTER, "result", "bypass").count(), 0);
+
+        when(valueOperations.bitField(anyString(), any(BitFieldSubCommands.class))).thenAnswer(invocation -> {
+            BitFieldSubCommands commands = invocation.getArgument(1);
+            List<Long> bits = new ArrayList<>(Collections.nCopies(commands.getSubCommands().size(), 0L));
+            bits.set(0, 1L);
+            return Mono.just(bits);
+        });
+
+        StepVerifier.create(redisFilter.mightContain("order-3")).expectNext(false).verifyComplete();
+    }
+
+    @Test
+    public void shouldAnswerBlockingChecksFromTheSharedBitmap() {
+        processingProperties.getDedup().setStore("redis");
+        processingProperties.getDedup().setRebuildOnStartup(false);
+        when(blockingRedisTemplate.opsForValue()).thenReturn(blockingValueOperations);
+        ProcessedOrderFilter redisFilter = new ProcessedOrderFilter(processingProperties, mongoOperations, redisTemplate,
+                blockingRedisTemplate, meterRegistry);
+        redisFilter.start();
+        when(blockingValueOperations.bitField(anyString(), any(BitFieldSubCommands.class))).thenAnswer(invocation -> {
+            BitFieldSubCommands commands = invocation.getArgument(1);
+            return new ArrayList<>(Collections.nCopies(commands.getSubCommands().size(), 0L));
+        });
+
+        assertTrue(redisFilter.mightContainBlocking("order-3"));
+        assertEquals(1, meterRegistry.counter(ProcessedOrderFilter.CHECK_COUNTER, "result", "bypass").count(), 0);
+
+        when(blockingValueOperations.bitField(anyString(), any(BitFieldSubCommands.class))).thenAnswer(invocation -> {
+            BitFieldSubCommands commands = invocation.getArgument(1);
+            List<Long> bits = new ArrayList<>(Collections.nCopies(commands.getSubCommands().size(), 0L));
+            bits.set(0, 1L);
+            return bits;
+        });
+
+        assertFalse(redisFilter.mightContainBlocking("order-3"));
+        redisFilter.addBlocking("order-3");
+        verify(blockingValueOperations, times(3)).bitField(startsWith("dedup:orders:"), any(BitFieldSubCommands.class));
+        verifyNoInteractions(redisTemplate);
+    }
+
+    private ProcessedOrderFilter redisFilter() {
+        processingProperties.getDedup().setStore("redis");
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        return new ProcessedOrderFilter(processingProperties, mongoOperations, redisTemplate, null, meterRegistry);
+    }
+}
@@ -0,0 +1,79 @@
+package com.cristhianfdx.orderworker.service;
+
+import com.cristhianfdx.orderworker.config.RetryProperties;
+import com.cristhianfdx.orderworker.dto.OrderMessageDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.function.Tuples;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RetrySchedulerTest {
+
+    @Mock
+    private FailedMessageService failedMessageService;
+
+    @Mock
+    private OrderProcessorService orderProcessorService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private RetryProperties retryProperties = new RetryProperties();
+
+    @InjectMocks
+    private RetryScheduler subject;
+
+    private final String payload = "{\"orderId\":\"order-1\",\"customerId\":\"customer-1\",\"products\":[\"product-1\"]}";
+
+    @Test
+    public void shouldRetryDueOrdersFromStoredPayload() {
+        when(failedMessageService.claimDueRetries(anyInt(), anyLong())).thenReturn(Flux.just("order-1"));
+        when(failedMessageService.getRetryAndMessage("order-1")).thenReturn(Mono.just(Tuples.of(1, payload)));
+        when(orderProcessorService.retryOrder(any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(subject.pollOnce()).verifyComplete();
+
+        verify(orderProcessorService).retryOrder(argThat((OrderMessageDTO dto) ->
+                "order-1".equals(dto.getOrderId()) && "customer-1".equals(dto.getCustomerId())));
+        verify(failedMessageService, never()).removeFailedMessage(any());
+    }
+
+    @Test
+    public void shouldDropScheduleEntryWhenFailureRecordExpired() {
+        when(failedMessageService.claimDueRetries(anyInt(), anyLong())).thenReturn(Flux.just("order-1"));
+        when(failedMessageService.getRetryAndMessage("order-1")).thenReturn(Mono.empty());
+        when(failedMessageService.removeFailedMessage("order-1")).thenReturn(Mono.empty());
+
+        StepVerifier.create(subject.pollOnce()).verifyComplete();
+
+        verify(failedMessageService).removeFailedMessage("order-1");
+        verifyNoInteractions(orderProcessorService);
+    }
+
+    @Test
+    public void shouldKeepPollingWhenOneRetryFails() {
+        when(failedMessageService.claimDueRetries(anyInt(), anyLong())).thenReturn(Flux.just("order-1", "order-2"));
+        when(failedMessageService.getRetryAndMessage("order-1")).thenReturn(Mono.error(new RuntimeException("boom")));
+        when(failedMessageService.getRetryAndMessage("order-2")).thenReturn(Mono.just(Tuples.of(2, payload)));
+        when(orderProcessorService.retryOrder(any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(subject.pollOnce()).verifyComplete();
+
+        verify(orderProcessorService).retryOrder(any());
+    }
+}